@@ -0,0 +1,215 @@
+package com.wetech.demo.web3j.benchmark;
+
+import com.wetech.demo.web3j.contracts.jymtoken.JYMToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.web3j.abi.EventEncoder;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.FunctionReturnDecoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Bytes1;
+import org.web3j.abi.datatypes.generated.Bytes32;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.protocol.http.HttpService;
+import org.web3j.tx.ReadonlyTransactionManager;
+import org.web3j.tx.gas.DefaultGasProvider;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JYMToken 合约包装类的 ABI 编解码基准
+ *
+ * 编码部分对每个合约函数调用包装类方法并取 calldata（{@code encodeFunctionCall()}），
+ * 包括构造 Function 和参数对象的开销，与服务实际走的路径一致；包装类不会连接节点。
+ * 解码部分覆盖 balanceOf / eip712Domain 的返回值和 Transfer 日志。
+ *
+ * 运行：./gradlew jmh（结果含 GC profiler 的每次操作分配字节数 gc.alloc.rate.norm）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JYMTokenCodecBenchmark {
+
+    private static final String CONTRACT = "0x5fbdb2315678afecb367f032d93f642f64180aa3";
+    private static final String OWNER = "0xf39fd6e51aad88f6f4ce6ab8827279cfffb92266";
+    private static final String SPENDER = "0x70997970c51812dc3a010c7d01b50e0d17dc79c8";
+    private static final BigInteger VALUE = new BigInteger("1000000000000000000000");
+    private static final BigInteger DEADLINE = BigInteger.valueOf(1_900_000_000L);
+    private static final byte[] R = Numeric.hexStringToByteArray(
+            "0x8f2a55949038a9610f50fb23b5883af3b4ecb3c3bb792cbcefbd1542c692be63");
+    private static final byte[] S = Numeric.hexStringToByteArray(
+            "0x2b7e151628aed2a6abf7158809cf4f3c762e7160f38b4da56a784d9045190cfe");
+
+    /**
+     * 与 JYMToken.balanceOf / eip712Domain 中的输出类型相同
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final List<TypeReference<Type>> BALANCE_OF_OUTPUTS = (List) List.of(
+            new TypeReference<Uint256>() {});
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final List<TypeReference<Type>> EIP712_DOMAIN_OUTPUTS = (List) List.of(
+            new TypeReference<Bytes1>() {}, new TypeReference<Utf8String>() {}, new TypeReference<Utf8String>() {},
+            new TypeReference<Uint256>() {}, new TypeReference<Address>() {}, new TypeReference<Bytes32>() {},
+            new TypeReference<DynamicArray<Uint256>>() {});
+
+    private Web3j web3j;
+    private JYMToken token;
+    private String balanceOfOutput;
+    private String eip712DomainOutput;
+    private Log transferLog;
+
+    @Setup
+    public void setUp() {
+        web3j = Web3j.build(new HttpService());
+        token = JYMToken.load(CONTRACT, web3j, new ReadonlyTransactionManager(web3j, OWNER), new DefaultGasProvider());
+        balanceOfOutput = "0x" + FunctionEncoder.encodeConstructor(List.of(new Uint256(VALUE)));
+        eip712DomainOutput = "0x" + FunctionEncoder.encodeConstructor(List.of(
+                new Bytes1(new byte[]{0x0f}),
+                new Utf8String("JYMToken"),
+                new Utf8String("1"),
+                new Uint256(31337),
+                new Address(CONTRACT),
+                new Bytes32(new byte[32]),
+                new DynamicArray<>(Uint256.class, List.of())));
+
+        transferLog = new Log();
+        transferLog.setAddress(CONTRACT);
+        transferLog.setTopics(Arrays.asList(
+                EventEncoder.encode(JYMToken.TRANSFER_EVENT),
+                Numeric.toHexStringWithPrefixZeroPadded(Numeric.toBigInt(OWNER), 64),
+                Numeric.toHexStringWithPrefixZeroPadded(Numeric.toBigInt(SPENDER), 64)));
+        transferLog.setData(Numeric.toHexStringWithPrefixZeroPadded(VALUE, 64));
+        transferLog.setBlockNumber("0x10");
+        transferLog.setTransactionHash("0x" + "ab".repeat(32));
+        transferLog.setLogIndex("0x0");
+    }
+
+    @TearDown
+    public void tearDown() {
+        web3j.shutdown();
+    }
+
+    // ---- calldata 编码 ----
+
+    @Benchmark
+    public String encodeDomainSeparator() {
+        return token.DOMAIN_SEPARATOR().encodeFunctionCall();
+    }
+
+    @Benchmark
+    public String encodeAllowance() {
+        return token.allowance(OWNER, SPENDER).encodeFunctionCall();
+    }
+
+    @Benchmark
+    public String encodeApprove() {
+        return token.approve(SPENDER, VALUE).encodeFunctionCall();
+    }
+
+    @Benchmark
+    public String encodeBalanceOf() {
+        return token.balanceOf(OWNER).encodeFunctionCall();
+    }
+
+    @Benchmark
+    public String encodeBurn() {
+        return token.burn(VALUE).encodeFunctionCall();
+    }
+
+    @Benchmark
+    public String encodeDecimals() {
+        return token.decimals().encodeFunctionCall();
+    }
+
+    @Benchmark
+    public String encodeEip712Domain() {
+        return token.eip712Domain().encodeFunctionCall();
+    }
+
+    @Benchmark
+    public String encodeMint() {
+        return token.mint(VALUE).encodeFunctionCall();
+    }
+
+    @Benchmark
+    public String encodeName() {
+        return token.name().encodeFunctionCall();
+    }
+
+    @Benchmark
+    public String encodeNonces() {
+        return token.nonces(OWNER).encodeFunctionCall();
+    }
+
+    @Benchmark
+    public String encodePermit() {
+        return token.permit(OWNER, SPENDER, VALUE, DEADLINE, BigInteger.valueOf(27), R, S).encodeFunctionCall();
+    }
+
+    @Benchmark
+    public String encodeSymbol() {
+        return token.symbol().encodeFunctionCall();
+    }
+
+    @Benchmark
+    public String encodeTotalSupply() {
+        return token.totalSupply().encodeFunctionCall();
+    }
+
+    @Benchmark
+    public String encodeTransfer() {
+        return token.transfer(SPENDER, VALUE).encodeFunctionCall();
+    }
+
+    @Benchmark
+    public String encodeTransferFrom() {
+        return token.transferFrom(OWNER, SPENDER, VALUE).encodeFunctionCall();
+    }
+
+    // ---- 返回值和日志解码 ----
+
+    @Benchmark
+    public List<Type> decodeBalanceOf() {
+        return FunctionReturnDecoder.decode(balanceOfOutput, BALANCE_OF_OUTPUTS);
+    }
+
+    @Benchmark
+    public List<Type> decodeEip712Domain() {
+        return FunctionReturnDecoder.decode(eip712DomainOutput, EIP712_DOMAIN_OUTPUTS);
+    }
+
+    /**
+     * 直接解码 Transfer 日志的 topics 和 data，不经过包装类
+     */
+    @Benchmark
+    public BigInteger decodeTransferLog() {
+        Address from = (Address) FunctionReturnDecoder.decodeIndexedValue(
+                transferLog.getTopics().get(1), new TypeReference<Address>() {});
+        Address to = (Address) FunctionReturnDecoder.decodeIndexedValue(
+                transferLog.getTopics().get(2), new TypeReference<Address>() {});
+        List<Type> values = FunctionReturnDecoder.decode(transferLog.getData(),
+                JYMToken.TRANSFER_EVENT.getNonIndexedParameters());
+        return from.toUint().getValue().xor(to.toUint().getValue()).add((BigInteger) values.get(0).getValue());
+    }
+
+    @Benchmark
+    public JYMToken.TransferEventResponse transferEventFromLog() {
+        return JYMToken.getTransferEventFromLog(transferLog);
+    }
+}
@@ -0,0 +1,190 @@
+package com.wetech.demo.web3j.benchmark;
+
+import com.wetech.demo.web3j.contracts.jymtoken.JYMToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.crypto.TransactionEncoder;
+import org.web3j.tx.ChainIdLong;
+import org.web3j.utils.Numeric;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 写路径（不含网络）的基准：构造 JYMToken.transfer 的 RawTransaction、签名、RLP 编码和转十六进制
+ *
+ * 签名用 application.properties 中配置的 web3j.private-key 和 web3j.chain-id，
+ * 与 TrackingTransactionManager 的签名方式一致（chain-id 为 -1 时 legacy 交易不带链 ID）。
+ * 结果是吞吐量：单线程版本即单核签名上限，{@code *Parallel} 版本用所有核并发签名，
+ * 两者之比说明签名能否随核数扩展，用于确定发送方账户池和签名线程池的大小。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TransactionSigningBenchmark {
+
+    private static final String CONTRACT = "0x5fbdb2315678afecb367f032d93f642f64180aa3";
+    private static final String RECIPIENT = "0x70997970c51812dc3a010c7d01b50e0d17dc79c8";
+    private static final BigInteger AMOUNT = new BigInteger("1000000000000000000");
+    private static final BigInteger MAX_PRIORITY_FEE = BigInteger.valueOf(1_500_000_000L);
+
+    /**
+     * 配置未指定链 ID 时 EIP-1559 交易使用的链 ID（本地 Hardhat 节点），EIP-1559 交易必须带链 ID
+     */
+    private static final long DEFAULT_EIP1559_CHAIN_ID = 31337;
+
+    private Credentials credentials;
+    private long chainId;
+    private long eip1559ChainId;
+    private BigInteger gasPrice;
+    private BigInteger gasLimit;
+    private RawTransaction legacyTransaction;
+    private RawTransaction eip1559Transaction;
+    private byte[] signedLegacy;
+
+    /**
+     * 每个线程各自递增的 nonce，让每次操作签名不同的交易
+     */
+    @State(Scope.Thread)
+    public static class Nonce {
+        private long next;
+
+        BigInteger next() {
+            return BigInteger.valueOf(next++);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        Properties properties = new Properties();
+        try (InputStream input = getClass().getResourceAsStream("/application.properties")) {
+            if (input != null) {
+                properties.load(input);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        credentials = Credentials.create(properties.getProperty("web3j.private-key",
+                "0xac0974bec39a17e36ba4a6b4d238ff944bacb478cbed5efcae784d7bf4f2ff80"));
+        chainId = Long.parseLong(properties.getProperty("web3j.chain-id", String.valueOf(ChainIdLong.NONE)));
+        eip1559ChainId = chainId > ChainIdLong.NONE ? chainId : DEFAULT_EIP1559_CHAIN_ID;
+        gasPrice = new BigInteger(properties.getProperty("web3j.gas-price", "20000000000"));
+        gasLimit = new BigInteger(properties.getProperty("web3j.gas-limit", "6721975"));
+
+        legacyTransaction = legacy(BigInteger.ZERO);
+        eip1559Transaction = eip1559(BigInteger.ZERO);
+        signedLegacy = sign(legacyTransaction);
+    }
+
+    // ---- 分步 ----
+
+    /**
+     * 编码 transfer 的 calldata 并构造 legacy RawTransaction
+     */
+    @Benchmark
+    public RawTransaction buildLegacy(Nonce nonce) {
+        return legacy(nonce.next());
+    }
+
+    @Benchmark
+    public RawTransaction buildEip1559(Nonce nonce) {
+        return eip1559(nonce.next());
+    }
+
+    /**
+     * 只做 RLP 编码（签名前的待签数据），不签名
+     */
+    @Benchmark
+    public byte[] encodeRlpLegacy() {
+        return chainId > ChainIdLong.NONE
+                ? TransactionEncoder.encode(legacyTransaction, chainId)
+                : TransactionEncoder.encode(legacyTransaction);
+    }
+
+    @Benchmark
+    public byte[] encodeRlpEip1559() {
+        return TransactionEncoder.encode(eip1559Transaction);
+    }
+
+    /**
+     * 对同一笔交易签名：keccak256 + secp256k1 签名 + 带签名的 RLP 编码
+     */
+    @Benchmark
+    public byte[] signLegacy() {
+        return sign(legacyTransaction);
+    }
+
+    @Benchmark
+    public byte[] signEip1559() {
+        return TransactionEncoder.signMessage(eip1559Transaction, credentials);
+    }
+
+    @Benchmark
+    public String toHex() {
+        return Numeric.toHexString(signedLegacy);
+    }
+
+    // ---- 完整写路径：构造 + 签名 + 十六进制，即 eth_sendRawTransaction 的参数 ----
+
+    @Benchmark
+    public String sendPathLegacy(Nonce nonce) {
+        return Numeric.toHexString(sign(legacy(nonce.next())));
+    }
+
+    @Benchmark
+    public String sendPathEip1559(Nonce nonce) {
+        return Numeric.toHexString(TransactionEncoder.signMessage(eip1559(nonce.next()), credentials));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String sendPathLegacyParallel(Nonce nonce) {
+        return sendPathLegacy(nonce);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String sendPathEip1559Parallel(Nonce nonce) {
+        return sendPathEip1559(nonce);
+    }
+
+    private RawTransaction legacy(BigInteger nonce) {
+        return RawTransaction.createTransaction(nonce, gasPrice, gasLimit, CONTRACT, BigInteger.ZERO, transferData());
+    }
+
+    private RawTransaction eip1559(BigInteger nonce) {
+        return RawTransaction.createTransaction(eip1559ChainId, nonce, gasLimit, CONTRACT, BigInteger.ZERO,
+                transferData(), MAX_PRIORITY_FEE, gasPrice);
+    }
+
+    /**
+     * 与 RawTransactionManager 相同：配置了链 ID 时按 EIP-155 签名
+     */
+    private byte[] sign(RawTransaction transaction) {
+        return chainId > ChainIdLong.NONE
+                ? TransactionEncoder.signMessage(transaction, chainId, credentials)
+                : TransactionEncoder.signMessage(transaction, credentials);
+    }
+
+    private static String transferData() {
+        return FunctionEncoder.encode(new Function(JYMToken.FUNC_TRANSFER,
+                List.of(new Address(RECIPIENT), new Uint256(AMOUNT)), List.of()));
+    }
+}
@@ -0,0 +1,58 @@
+package com.wetech.demo.web3j.chain;
+
+import com.wetech.demo.web3j.rpc.HeadTracker;
+import com.wetech.demo.web3j.rpc.Web3jExecutor;
+import com.wetech.demo.web3j.service.Erc20Service;
+import com.wetech.demo.web3j.tx.TransactionRegistry;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.protocol.Web3j;
+import org.web3j.tx.TransactionManager;
+
+import java.util.List;
+
+/**
+ * 一条链的全部客户端组件
+ *
+ * 每条链有独立的线程池、节点池和读写限流隔板，某条链拥塞或限流只会让这条链的请求排队，
+ * 不会占用其他链的线程和并发额度。合约包装类也按链登记，同一地址在不同链上互不影响。
+ */
+@Slf4j
+@Getter
+@Builder
+public class ChainContext implements AutoCloseable {
+
+    private final String name;
+    private final long chainId;
+    private final Web3j web3j;
+    private final Web3jExecutor executor;
+    private final HeadTracker headTracker;
+    private final TransactionRegistry transactionRegistry;
+    private final TransactionManager transactionManager;
+    private final Erc20Service erc20Service;
+
+    /**
+     * 随本链关闭的资源，按登记的逆序关闭；由 Spring 管理的默认链为空
+     */
+    @Getter(AccessLevel.NONE)
+    @Builder.Default
+    private final List<AutoCloseable> resources = List.of();
+
+    @Override
+    public void close() {
+        for (int i = resources.size() - 1; i >= 0; i--) {
+            try {
+                resources.get(i).close();
+            } catch (Exception e) {
+                log.warn("Failed to close resource of chain {}: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name + "(chainId=" + chainId + ")";
+    }
+}
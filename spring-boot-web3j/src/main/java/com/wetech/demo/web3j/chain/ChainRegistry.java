@@ -0,0 +1,54 @@
+package com.wetech.demo.web3j.chain;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 按名称查找链；不指定链名的接口（/api/jym、/api/erc20）使用默认链
+ */
+public class ChainRegistry implements AutoCloseable {
+
+    public static final String DEFAULT_CHAIN = "default";
+
+    private final ChainContext defaultChain;
+    private final Map<String, ChainContext> chains = new LinkedHashMap<>();
+
+    /**
+     * @param defaultChain 默认链
+     * @param chains       其他命名链，名称不能与默认链相同
+     */
+    public ChainRegistry(ChainContext defaultChain, Collection<ChainContext> chains) {
+        this.defaultChain = defaultChain;
+        this.chains.put(defaultChain.getName(), defaultChain);
+        for (ChainContext chain : chains) {
+            if (this.chains.putIfAbsent(chain.getName(), chain) != null) {
+                throw new IllegalArgumentException("Duplicate chain name: " + chain.getName());
+            }
+        }
+    }
+
+    /**
+     * @param name 链名称，为 null 时返回默认链
+     * @throws IllegalArgumentException 未配置该链
+     */
+    public ChainContext get(String name) {
+        if (name == null) {
+            return defaultChain;
+        }
+        ChainContext chain = chains.get(name);
+        if (chain == null) {
+            throw new IllegalArgumentException("Unknown chain: " + name);
+        }
+        return chain;
+    }
+
+    public Collection<ChainContext> getChains() {
+        return chains.values();
+    }
+
+    @Override
+    public void close() {
+        chains.values().forEach(ChainContext::close);
+    }
+}
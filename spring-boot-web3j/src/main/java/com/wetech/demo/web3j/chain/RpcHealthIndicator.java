@@ -0,0 +1,71 @@
+package com.wetech.demo.web3j.chain;
+
+import com.wetech.demo.web3j.rpc.EndpointHealth;
+import com.wetech.demo.web3j.rpc.HeadTracker;
+import com.wetech.demo.web3j.rpc.RpcEndpoint;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/health 中的 rpc 组件：每条链的链头和各节点的健康状况
+ *
+ * 只读取 {@link HeadTracker} 后台刷新的结果，查询健康状态不会向节点发请求。
+ * 某条链的所有节点都不可用时为 DOWN，部分节点不可用时仍为 UP，细节中列出原因。
+ */
+public class RpcHealthIndicator implements HealthIndicator {
+
+    private final ChainRegistry chainRegistry;
+
+    public RpcHealthIndicator(ChainRegistry chainRegistry) {
+        this.chainRegistry = chainRegistry;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = Health.up();
+        for (ChainContext chain : chainRegistry.getChains()) {
+            HeadTracker headTracker = chain.getHeadTracker();
+            Map<String, Object> endpoints = new LinkedHashMap<>();
+            boolean anyAvailable = false;
+            for (RpcEndpoint endpoint : headTracker.getEndpoints()) {
+                EndpointHealth health = endpoint.getHealth();
+                anyAvailable |= health.isAvailable();
+                endpoints.put(endpoint.getMetricsTag(), details(health));
+            }
+            if (!anyAvailable) {
+                builder.down();
+            }
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("status", anyAvailable ? "UP" : "DOWN");
+            details.put("head", headTracker.getHead());
+            Duration blockInterval = headTracker.getBlockInterval();
+            if (blockInterval != null) {
+                details.put("blockIntervalSeconds", blockInterval.toMillis() / 1000.0);
+            }
+            details.put("endpoints", endpoints);
+            builder.withDetail(chain.getName(), details);
+        }
+        return builder.build();
+    }
+
+    private static Map<String, Object> details(EndpointHealth health) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("status", health.isAvailable() ? "UP" : "DOWN");
+        if (!health.isAvailable()) {
+            details.put("reason", health.getReason());
+        }
+        details.put("head", health.getHead());
+        Duration headAge = health.getHeadAge();
+        if (headAge != null) {
+            details.put("headAgeSeconds", headAge.toMillis() / 1000.0);
+        }
+        details.put("lag", health.getLag());
+        details.put("syncing", health.isSyncing());
+        details.put("errorRate", health.getErrorRate());
+        return details;
+    }
+}
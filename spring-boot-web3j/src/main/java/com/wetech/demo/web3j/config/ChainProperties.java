@@ -0,0 +1,52 @@
+package com.wetech.demo.web3j.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.web3j.tx.ChainIdLong;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 额外的命名链配置（web3j.chains.&lt;name&gt;.*）
+ *
+ * 默认链仍由 web3j.client-address、web3j.private-key 等顶层配置定义；这里的每条链各自拥有节点池、
+ * 线程池、限流隔板、缓存目录和交易管理器。未配置的私钥和 gas 参数沿用默认链的值。
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "web3j")
+public class ChainProperties {
+
+    private Map<String, Chain> chains = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Chain {
+
+        /**
+         * 一个或多个 RPC 节点地址，与 web3j.client-address 格式相同
+         */
+        private List<String> clientAddress = new ArrayList<>();
+
+        /**
+         * EIP-155 链 ID，用于交易签名，必须配置；启动时与节点的 eth_chainId 核对，不一致时拒绝启动
+         */
+        private long chainId = ChainIdLong.NONE;
+
+        private String privateKey;
+
+        private BigInteger gasPrice;
+
+        private BigInteger gasLimit;
+
+        /**
+         * 该链读、写隔板各自的并发上限，未配置时使用 web3j.limiter.max-limit
+         */
+        private Integer maxConcurrency;
+    }
+}
@@ -0,0 +1,83 @@
+package com.wetech.demo.web3j.config;
+
+import com.wetech.demo.web3j.fakenode.FakeEthereumNode;
+import com.wetech.demo.web3j.fakenode.FakeNodeSettings;
+import com.wetech.demo.web3j.rpc.RoutingWeb3jService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AbstractDependsOnBeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * fake-node profile 下在进程内启动模拟节点，web3j.client-address 指向它（见 application-fake-node.properties）
+ *
+ * 用于压测控制器而不消耗测试网 gas、也不被公共节点限流。节点先于 RPC 客户端启动，
+ * 链头跟踪的第一次轮询就能连上。
+ */
+@Configuration
+@Profile("fake-node")
+public class FakeNodeConfig {
+
+    @Value("${web3j.fake-node.port:18545}")
+    private int port;
+
+    @Value("${web3j.fake-node.chain-id:31337}")
+    private long chainId;
+
+    /**
+     * 出块间隔，0 表示每笔交易立即出块
+     */
+    @Value("${web3j.fake-node.block-time-ms:1000}")
+    private long blockTimeMs;
+
+    @Value("${web3j.fake-node.latency-median-ms:0}")
+    private long latencyMedianMs;
+
+    @Value("${web3j.fake-node.latency-p99-ms:0}")
+    private long latencyP99Ms;
+
+    @Value("${web3j.fake-node.error-rate:0}")
+    private double errorRate;
+
+    @Value("${web3j.fake-node.http-error-rate:0}")
+    private double httpErrorRate;
+
+    /**
+     * 每秒最多处理的 JSON-RPC 调用数，0 表示不限流
+     */
+    @Value("${web3j.fake-node.max-requests-per-second:0}")
+    private int maxRequestsPerSecond;
+
+    @Bean(destroyMethod = "close")
+    public FakeEthereumNode fakeEthereumNode() throws IOException {
+        return new FakeEthereumNode(FakeNodeSettings.builder()
+                .port(port)
+                .chainId(chainId)
+                .blockTime(Duration.ofMillis(blockTimeMs))
+                .latencyMedian(Duration.ofMillis(latencyMedianMs))
+                .latencyP99(Duration.ofMillis(latencyP99Ms))
+                .errorRate(errorRate)
+                .httpErrorRate(httpErrorRate)
+                .maxRequestsPerSecond(maxRequestsPerSecond)
+                .build()).start();
+    }
+
+    @Bean
+    public static RoutingDependsOnFakeNode routingDependsOnFakeNode() {
+        return new RoutingDependsOnFakeNode();
+    }
+
+    /**
+     * 让 RPC 客户端（及其后的链头跟踪）在模拟节点启动之后创建
+     */
+    static class RoutingDependsOnFakeNode extends AbstractDependsOnBeanFactoryPostProcessor {
+
+        RoutingDependsOnFakeNode() {
+            super(RoutingWeb3jService.class, "fakeEthereumNode");
+        }
+    }
+}
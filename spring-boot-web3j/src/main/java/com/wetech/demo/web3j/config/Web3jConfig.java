@@ -1,23 +1,162 @@
 package com.wetech.demo.web3j.config;
 
+import com.wetech.demo.web3j.chain.ChainContext;
+import com.wetech.demo.web3j.chain.ChainRegistry;
+import com.wetech.demo.web3j.chain.RpcHealthIndicator;
+import com.wetech.demo.web3j.contracts.ierc20metadata.IERC20Metadata;
+import com.wetech.demo.web3j.contracts.jymtoken.JYMToken;
+import com.wetech.demo.web3j.contracts.simplestorage.SimpleStorage;
+import com.wetech.demo.web3j.relay.Relayer;
+import com.wetech.demo.web3j.rpc.CachingWeb3jService;
+import com.wetech.demo.web3j.rpc.FinalizedResponseCache;
+import com.wetech.demo.web3j.rpc.HeadTracker;
+import com.wetech.demo.web3j.rpc.LimitingWeb3jService;
+import com.wetech.demo.web3j.rpc.LogStreamer;
+import com.wetech.demo.web3j.rpc.RoutingWeb3jService;
+import com.wetech.demo.web3j.rpc.RpcEndpoint;
+import com.wetech.demo.web3j.rpc.RpcMetrics;
+import com.wetech.demo.web3j.rpc.RpcTracing;
+import com.wetech.demo.web3j.rpc.StreamingHttpService;
+import com.wetech.demo.web3j.rpc.UnixDomainSocketService;
+import com.wetech.demo.web3j.rpc.Web3jExecutor;
+import com.wetech.demo.web3j.service.ContractRegistry;
+import com.wetech.demo.web3j.service.Erc20Service;
+import com.wetech.demo.web3j.tx.PipelinedTransactionManager;
+import com.wetech.demo.web3j.tx.ReceiptWatcher;
+import com.wetech.demo.web3j.tx.TrackingReceiptProcessor;
+import com.wetech.demo.web3j.tx.TrackingTransactionManager;
+import com.wetech.demo.web3j.tx.TransactionMetrics;
+import com.wetech.demo.web3j.tx.TransactionRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Tracer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.web3j.crypto.Credentials;
 import org.web3j.protocol.Web3j;
-import org.web3j.protocol.http.HttpService;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.JsonRpc2_0Web3j;
+import org.web3j.protocol.core.methods.response.EthChainId;
+import org.web3j.tx.TransactionManager;
 import org.web3j.tx.gas.ContractGasProvider;
 import org.web3j.tx.gas.StaticGasProvider;
 
+import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 
 @Slf4j
 @Configuration
+@EnableConfigurationProperties(ChainProperties.class)
 public class Web3jConfig {
 
+    /**
+     * 一个或多个 RPC 节点地址，逗号分隔；同机部署的节点可用 ipc:///path/to/geth.ipc
+     */
     @Value("${web3j.client-address:http://localhost:8545}")
-    private String clientAddress;
+    private List<String> clientAddresses;
+
+    @Value("${web3j.routing.latency-window:128}")
+    private int latencyWindow;
+
+    @Value("${web3j.routing.hedge-min-delay-ms:50}")
+    private long hedgeMinDelayMs;
+
+    /**
+     * 节点落后所有节点中最高区块号超过该块数时，读请求改发其他节点
+     */
+    @Value("${web3j.routing.max-lag-blocks:2}")
+    private long maxLagBlocks;
+
+    @Value("${web3j.ipc.pool-size:4}")
+    private int ipcPoolSize;
+
+    @Value("${web3j.ipc.timeout-ms:30000}")
+    private long ipcTimeoutMs;
+
+    @Value("${web3j.limiter.initial-limit:16}")
+    private int limiterInitialLimit;
+
+    @Value("${web3j.limiter.max-limit:256}")
+    private int limiterMaxLimit;
+
+    @Value("${web3j.limiter.max-queue:1000}")
+    private int limiterMaxQueue;
+
+    @Value("${web3j.limiter.queue-timeout-ms:2000}")
+    private long limiterQueueTimeoutMs;
+
+    @Value("${web3j.head.poll-interval-ms:2000}")
+    private long headPollIntervalMs;
+
+    @Value("${web3j.cache.directory:rpc-cache}")
+    private String cacheDirectory;
+
+    @Value("${web3j.cache.max-size-mb:512}")
+    private long cacheMaxSizeMb;
+
+    /**
+     * 距链头超过该深度的区块视为已最终确定
+     */
+    @Value("${web3j.cache.finality-depth:12}")
+    private long finalityDepth;
+
+    @Value("${web3j.logs.chunk-blocks:5000}")
+    private long logChunkBlocks;
+
+    /**
+     * 确认数达到该值的交易标记为 CONFIRMED
+     */
+    @Value("${web3j.tx.confirmations:12}")
+    private long txConfirmations;
+
+    @Value("${web3j.tx.retention-minutes:60}")
+    private long txRetentionMinutes;
+
+    @Value("${web3j.tx.max-entries:10000}")
+    private int txMaxEntries;
+
+    /**
+     * 等待回执时的轮询间隔，默认与 web3j 相同；轮询次数随之调整，总等待时间不变
+     */
+    @Value("${web3j.tx.receipt-poll-interval-ms:15000}")
+    private long receiptPollIntervalMs;
+
+    /**
+     * 代付中继账户的私钥，逗号分隔；为空时不启用代付
+     */
+    @Value("${web3j.relayer.private-keys:}")
+    private List<String> relayerPrivateKeys;
+
+    @Value("${web3j.relayer.receipt-batch-size:200}")
+    private int relayerReceiptBatchSize;
+
+    /**
+     * 超过该区块数仍未打包的代付交易视为失败
+     */
+    @Value("${web3j.relayer.receipt-timeout-blocks:50}")
+    private long relayerReceiptTimeoutBlocks;
+
+    @Value("${web3j.relayer.retention-minutes:60}")
+    private long relayerRetentionMinutes;
+
+    @Value("${web3j.contracts.max-loaded:1024}")
+    private int maxLoadedContracts;
 
     @Value("${web3j.private-key:0x8f2a55949038a9610f50fb23b5883af3b4ecb3c3bb792cbcefbd1542c692be63}")
     private String privateKey;
@@ -28,10 +167,135 @@ public class Web3jConfig {
     @Value("${web3j.gas-limit:6721975}")
     private String gasLimit;
 
+    /**
+     * 默认链的 EIP-155 链 ID，-1 表示签名不带链 ID
+     */
+    @Value("${web3j.chain-id:-1}")
+    private long chainId;
+
+    /**
+     * 默认使用平台线程池，行为与 web3j 内置的 Async 线程池一致
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public Web3jExecutor web3jExecutor() {
+        return platformExecutor("web3j-async-");
+    }
+
+    /**
+     * spring.threads.virtual.enabled=true（virtual-threads profile）时，
+     * web3j 的异步调用和回执轮询都跑在虚拟线程上
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Web3jExecutor virtualThreadWeb3jExecutor() {
+        log.info("Running web3j calls on virtual threads");
+        return virtualExecutor("web3j-virtual-");
+    }
+
+    private static Web3jExecutor platformExecutor(String threadPrefix) {
+        ThreadFactory factory = Thread.ofPlatform().name(threadPrefix, 0).daemon(true).factory();
+        return new Web3jExecutor(
+                Executors.newCachedThreadPool(factory),
+                scheduler(factory));
+    }
+
+    private static Web3jExecutor virtualExecutor(String threadPrefix) {
+        ThreadFactory factory = Thread.ofVirtual().name(threadPrefix, 0).factory();
+        return new Web3jExecutor(
+                Executors.newThreadPerTaskExecutor(factory),
+                scheduler(factory));
+    }
+
+    /**
+     * 取消的定时任务立即出队，限流器放行后取消的排队超时不会一直占着调度队列
+     */
+    private static ScheduledExecutorService scheduler(ThreadFactory factory) {
+        ScheduledThreadPoolExecutor scheduler =
+                new ScheduledThreadPoolExecutor(Runtime.getRuntime().availableProcessors(), factory);
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    @Bean
+    public RpcMetrics rpcMetrics(MeterRegistry meterRegistry) {
+        return new RpcMetrics(meterRegistry, ChainRegistry.DEFAULT_CHAIN);
+    }
+
+    /**
+     * 关闭追踪（management.tracing.enabled=false）时没有 Tracer，RPC 请求不产生 span
+     */
+    @Bean
+    public RpcTracing rpcTracing(ObjectProvider<Tracer> tracer) {
+        return new RpcTracing(tracer.getIfAvailable(() -> Tracer.NOOP));
+    }
+
+    @Bean(destroyMethod = "close")
+    public RoutingWeb3jService routingWeb3jService(Web3jExecutor web3jExecutor, RpcMetrics rpcMetrics,
+                                                   RpcTracing rpcTracing) {
+        log.info("Connecting to Ethereum clients: {}", clientAddresses);
+        return routing(clientAddresses, web3jExecutor, rpcMetrics, rpcTracing);
+    }
+
+    private RoutingWeb3jService routing(List<String> addresses, Web3jExecutor executor, RpcMetrics metrics,
+                                        RpcTracing tracing) {
+        List<RpcEndpoint> endpoints = addresses.stream()
+                .map(String::trim)
+                .map(address -> new RpcEndpoint(address, transport(address), executor, latencyWindow, metrics,
+                        tracing))
+                .toList();
+        return new RoutingWeb3jService(endpoints, Duration.ofMillis(hedgeMinDelayMs));
+    }
+
+    private Web3jService transport(String address) {
+        if (address.startsWith(UnixDomainSocketService.SCHEME)) {
+            return UnixDomainSocketService.fromAddress(address, ipcPoolSize, Duration.ofMillis(ipcTimeoutMs));
+        }
+        return new StreamingHttpService(address);
+    }
+
+    @Bean(destroyMethod = "close")
+    public LimitingWeb3jService limitingWeb3jService(RoutingWeb3jService routingWeb3jService, RpcMetrics rpcMetrics) {
+        LimitingWeb3jService limiting = new LimitingWeb3jService(routingWeb3jService, limiterInitialLimit,
+                limiterMaxLimit, limiterMaxQueue, Duration.ofMillis(limiterQueueTimeoutMs));
+        rpcMetrics.bindLimiter(limiting);
+        return limiting;
+    }
+
+    @Bean(destroyMethod = "close")
+    public HeadTracker headTracker(RoutingWeb3jService routingWeb3jService, Web3jExecutor web3jExecutor,
+                                   RpcMetrics rpcMetrics) {
+        HeadTracker headTracker = new HeadTracker(routingWeb3jService.getEndpoints(), web3jExecutor.getScheduler(),
+                Duration.ofMillis(headPollIntervalMs), maxLagBlocks);
+        rpcMetrics.bindHead(headTracker);
+        return headTracker;
+    }
+
+    @Bean
+    public FinalizedResponseCache finalizedResponseCache(RpcMetrics rpcMetrics) {
+        FinalizedResponseCache cache = new FinalizedResponseCache(Path.of(cacheDirectory),
+                cacheMaxSizeMb * 1024 * 1024);
+        rpcMetrics.bindCache(cache);
+        return cache;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CachingWeb3jService cachingWeb3jService(LimitingWeb3jService limitingWeb3jService,
+                                                   FinalizedResponseCache finalizedResponseCache,
+                                                   HeadTracker headTracker) {
+        return new CachingWeb3jService(limitingWeb3jService, finalizedResponseCache, headTracker, finalityDepth);
+    }
+
+    @Bean
+    public Web3j web3j(CachingWeb3jService cachingWeb3jService, Web3jExecutor web3jExecutor) {
+        return Web3j.build(cachingWeb3jService, JsonRpc2_0Web3j.DEFAULT_BLOCK_TIME, web3jExecutor.getScheduler());
+    }
+
     @Bean
-    public Web3j web3j() {
-        log.info("Connecting to Ethereum client: {}", clientAddress);
-        return Web3j.build(new HttpService(clientAddress));
+    public LogStreamer logStreamer(RoutingWeb3jService routingWeb3jService,
+                                   LimitingWeb3jService limitingWeb3jService,
+                                   HeadTracker headTracker, Web3j web3j) {
+        return new LogStreamer(routingWeb3jService, limitingWeb3jService, headTracker, web3j, logChunkBlocks);
     }
 
     @Bean
@@ -39,6 +303,68 @@ public class Web3jConfig {
         return Credentials.create(privateKey);
     }
 
+    @Bean
+    public TransactionRegistry transactionRegistry(HeadTracker headTracker, MeterRegistry meterRegistry) {
+        return new TransactionRegistry(headTracker, txConfirmations, Duration.ofMinutes(txRetentionMinutes),
+                txMaxEntries, new TransactionMetrics(meterRegistry, ChainRegistry.DEFAULT_CHAIN));
+    }
+
+    /**
+     * 合约包装类共用的交易管理器：签名、广播和回执轮询的每个阶段都记入 TransactionRegistry，
+     * 轮询间隔见 web3j.tx.receipt-poll-interval-ms，默认与 web3j 相同
+     */
+    @Bean
+    public TransactionManager transactionManager(Web3j web3j, Credentials credentials,
+                                                 TransactionRegistry transactionRegistry,
+                                                 ObservationRegistry observationRegistry) {
+        return transactionManager(web3j, credentials, chainId, transactionRegistry, observationRegistry);
+    }
+
+    private TransactionManager transactionManager(Web3j web3j, Credentials credentials, long chainId,
+                                                  TransactionRegistry transactionRegistry,
+                                                  ObservationRegistry observationRegistry) {
+        return new TrackingTransactionManager(web3j, credentials, chainId, transactionRegistry,
+                receiptProcessor(web3j, transactionRegistry, observationRegistry));
+    }
+
+    private TrackingReceiptProcessor receiptProcessor(Web3j web3j, TransactionRegistry transactionRegistry,
+                                                      ObservationRegistry observationRegistry) {
+        // 出块间隔为 0（模拟节点 automine）时也不要忙轮询
+        long interval = Math.max(receiptPollIntervalMs, 100);
+        long totalWait = TransactionManager.DEFAULT_POLLING_FREQUENCY
+                * TransactionManager.DEFAULT_POLLING_ATTEMPTS_PER_TX_HASH;
+        int attempts = (int) Math.max(1, totalWait / interval);
+        return new TrackingReceiptProcessor(web3j, transactionRegistry, interval, attempts, observationRegistry);
+    }
+
+    @Bean
+    public ReceiptWatcher receiptWatcher(Web3j web3j, HeadTracker headTracker,
+                                         TransactionRegistry transactionRegistry,
+                                         ObservationRegistry observationRegistry) {
+        return new ReceiptWatcher(web3j, headTracker, transactionRegistry, relayerReceiptBatchSize,
+                relayerReceiptTimeoutBlocks, observationRegistry);
+    }
+
+    /**
+     * 每个中继账户一个本地分配 nonce 的交易管理器，回执由 ReceiptWatcher 按区块批量查询
+     */
+    @Bean
+    public Relayer relayer(Web3j web3j, TransactionRegistry transactionRegistry, ReceiptWatcher receiptWatcher,
+                           HeadTracker headTracker, Web3jExecutor web3jExecutor, ContractGasProvider gasProvider,
+                           ContractRegistry<JYMToken> jymTokenRegistry,
+                           ObservationRegistry observationRegistry) {
+        TrackingReceiptProcessor receiptProcessor = receiptProcessor(web3j, transactionRegistry, observationRegistry);
+        List<PipelinedTransactionManager> relayers = relayerPrivateKeys.stream()
+                .filter(key -> !key.isBlank())
+                .map(key -> new PipelinedTransactionManager(web3j, Credentials.create(key.trim()), chainId,
+                        transactionRegistry, receiptProcessor))
+                .toList();
+        log.info("Relayer accounts: {}", relayers.stream().map(TransactionManager::getFromAddress).toList());
+        return new Relayer(relayers, receiptWatcher, headTracker, web3jExecutor, gasProvider,
+                (contract, owner) -> web3jExecutor.sendAsync(jymTokenRegistry.get(contract).getContract().nonces(owner)),
+                Duration.ofMinutes(relayerRetentionMinutes));
+    }
+
     @Bean
     public ContractGasProvider contractGasProvider() {
         return new StaticGasProvider(
@@ -46,4 +372,141 @@ public class Web3jConfig {
                 new BigInteger(gasLimit)
         );
     }
-}
\ No newline at end of file
+
+    @Bean
+    public ContractRegistry<JYMToken> jymTokenRegistry(Web3j web3j, TransactionManager transactionManager,
+                                                       ContractGasProvider gasProvider) {
+        return new ContractRegistry<>(address -> JYMToken.load(address, web3j, transactionManager, gasProvider),
+                maxLoadedContracts);
+    }
+
+    @Bean
+    public ContractRegistry<SimpleStorage> simpleStorageRegistry(Web3j web3j, TransactionManager transactionManager,
+                                                                 ContractGasProvider gasProvider) {
+        return new ContractRegistry<>(address -> SimpleStorage.load(address, web3j, transactionManager, gasProvider),
+                maxLoadedContracts);
+    }
+
+    /**
+     * 任意标准 ERC20 代币的包装类，供 Erc20Service 按地址使用
+     */
+    @Bean
+    public ContractRegistry<IERC20Metadata> erc20Registry(Web3j web3j, TransactionManager transactionManager,
+                                                          ContractGasProvider gasProvider) {
+        return new ContractRegistry<>(address -> IERC20Metadata.load(address, web3j, transactionManager, gasProvider),
+                maxLoadedContracts);
+    }
+
+    /**
+     * 默认链由上面的单例 bean 组成，生命周期由 Spring 管理；web3j.chains.* 中的每条链在这里按同样的方式
+     * 组装一套独立的组件，随注册表一起关闭
+     */
+    @Bean(destroyMethod = "close")
+    public ChainRegistry chainRegistry(ChainProperties chainProperties, Environment environment, Web3j web3j,
+                                       Web3jExecutor web3jExecutor, HeadTracker headTracker,
+                                       TransactionRegistry transactionRegistry, TransactionManager transactionManager,
+                                       Erc20Service erc20Service, MeterRegistry meterRegistry,
+                                       RpcTracing rpcTracing, ObservationRegistry observationRegistry) {
+        ChainContext defaultChain = ChainContext.builder()
+                .name(ChainRegistry.DEFAULT_CHAIN)
+                .chainId(chainId)
+                .web3j(web3j)
+                .executor(web3jExecutor)
+                .headTracker(headTracker)
+                .transactionRegistry(transactionRegistry)
+                .transactionManager(transactionManager)
+                .erc20Service(erc20Service)
+                .build();
+        boolean virtual = Threading.VIRTUAL.isActive(environment);
+        List<ChainContext> chains = new ArrayList<>();
+        for (Map.Entry<String, ChainProperties.Chain> entry : chainProperties.getChains().entrySet()) {
+            chains.add(chainContext(entry.getKey(), entry.getValue(), virtual, meterRegistry, rpcTracing,
+                    observationRegistry));
+        }
+        return new ChainRegistry(defaultChain, chains);
+    }
+
+    @Bean
+    public RpcHealthIndicator rpcHealthIndicator(ChainRegistry chainRegistry) {
+        return new RpcHealthIndicator(chainRegistry);
+    }
+
+    private ChainContext chainContext(String name, ChainProperties.Chain chain, boolean virtual,
+                                      MeterRegistry meterRegistry, RpcTracing rpcTracing,
+                                      ObservationRegistry observationRegistry) {
+        if (chain.getClientAddress().isEmpty()) {
+            throw new IllegalStateException("web3j.chains." + name + ".client-address is required");
+        }
+        if (chain.getChainId() <= 0) {
+            // 命名链可能沿用默认链的私钥，不带链 ID 的签名可以在共用该私钥的其他链上重放
+            throw new IllegalStateException("web3j.chains." + name + ".chain-id is required");
+        }
+        log.info("Connecting chain {} (chainId {}) to Ethereum clients: {}", name, chain.getChainId(),
+                chain.getClientAddress());
+        Web3jExecutor executor = virtual
+                ? virtualExecutor("web3j-" + name + "-virtual-")
+                : platformExecutor("web3j-" + name + "-async-");
+        RpcMetrics metrics = new RpcMetrics(meterRegistry, name);
+        RoutingWeb3jService routing = routing(chain.getClientAddress(), executor, metrics, rpcTracing);
+        int maxLimit = chain.getMaxConcurrency() != null ? chain.getMaxConcurrency() : limiterMaxLimit;
+        LimitingWeb3jService limiting = new LimitingWeb3jService(routing, Math.min(limiterInitialLimit, maxLimit),
+                maxLimit, limiterMaxQueue, Duration.ofMillis(limiterQueueTimeoutMs));
+        HeadTracker headTracker = new HeadTracker(routing.getEndpoints(), executor.getScheduler(),
+                Duration.ofMillis(headPollIntervalMs), maxLagBlocks);
+        FinalizedResponseCache cache = new FinalizedResponseCache(Path.of(cacheDirectory + "-" + name),
+                cacheMaxSizeMb * 1024 * 1024);
+        metrics.bindLimiter(limiting);
+        metrics.bindHead(headTracker);
+        metrics.bindCache(cache);
+        CachingWeb3jService caching = new CachingWeb3jService(limiting, cache, headTracker, finalityDepth);
+        Web3j web3j = Web3j.build(caching, JsonRpc2_0Web3j.DEFAULT_BLOCK_TIME, executor.getScheduler());
+        verifyChainId(name, chain.getChainId(), web3j);
+
+        TransactionRegistry transactionRegistry =
+                new TransactionRegistry(headTracker, txConfirmations, Duration.ofMinutes(txRetentionMinutes),
+                        txMaxEntries, new TransactionMetrics(meterRegistry, name));
+        Credentials credentials = Credentials.create(chain.getPrivateKey() != null ? chain.getPrivateKey() : privateKey);
+        TransactionManager transactionManager = transactionManager(web3j, credentials, chain.getChainId(),
+                transactionRegistry, observationRegistry);
+        ContractGasProvider gasProvider = new StaticGasProvider(
+                chain.getGasPrice() != null ? chain.getGasPrice() : new BigInteger(gasPrice),
+                chain.getGasLimit() != null ? chain.getGasLimit() : new BigInteger(gasLimit));
+        ContractRegistry<IERC20Metadata> erc20Registry = new ContractRegistry<>(
+                address -> IERC20Metadata.load(address, web3j, transactionManager, gasProvider), maxLoadedContracts);
+        LogStreamer logStreamer = new LogStreamer(routing, limiting, headTracker, web3j, logChunkBlocks);
+
+        return ChainContext.builder()
+                .name(name)
+                .chainId(chain.getChainId())
+                .web3j(web3j)
+                .executor(executor)
+                .headTracker(headTracker)
+                .transactionRegistry(transactionRegistry)
+                .transactionManager(transactionManager)
+                .erc20Service(new Erc20Service(web3j, executor, logStreamer, erc20Registry))
+                .resources(List.of(executor, caching::close, headTracker))
+                .build();
+    }
+
+    /**
+     * 启动时用 eth_chainId 核对配置的链 ID，不一致时拒绝启动；节点暂时不可达时只记录警告
+     */
+    private static void verifyChainId(String name, long expected, Web3j web3j) {
+        EthChainId response;
+        try {
+            response = web3j.ethChainId().send();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not verify chain ID of chain {}: {}", name, e.getMessage());
+            return;
+        }
+        if (response.hasError()) {
+            log.warn("Could not verify chain ID of chain {}: {}", name, response.getError().getMessage());
+            return;
+        }
+        long actual = response.getChainId().longValueExact();
+        if (actual != expected) {
+            throw new IllegalStateException("web3j.chains." + name + ".chain-id is " + expected
+                    + " but the node reports " + actual);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.wetech.demo.web3j.controller;
+
+import com.wetech.demo.web3j.rpc.HeadTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 只读接口的条件请求支持
+ *
+ * ETag 由 (合约地址, 链头区块号) 生成：链头不变，合约状态就不变。客户端带着相同的 If-None-Match 再次请求时
+ * 直接返回 304，不再调用节点。链头取自 {@link HeadTracker}，不会为此多发 RPC；
+ * 由于链头是轮询得到的，304 最多比节点晚一个轮询间隔。
+ *
+ * 实际读取固定在 ETag 中的区块上，而不是 latest：否则节点已经出了新块时，
+ * 新区块的状态会带着旧区块的 ETag 返回，客户端之后拿这个 ETag 得到的 304 就是错的。
+ * 这个区块取 {@link HeadTracker#getServableHead()}（可用节点中最低的区块号），而不是最高的链头：
+ * 路由可能把读请求发给落后几个块的节点，它们还没有最高链头上的区块。
+ *
+ * Cache-Control 的 max-age 取距下一个区块的预计剩余时间，CDN 和浏览器缓存可以在这段时间内直接复用响应。
+ */
+@Component
+@RequiredArgsConstructor
+class BlockETags {
+
+    private final HeadTracker headTracker;
+
+    /**
+     * @param request         当前请求
+     * @param contractAddress 被读取的合约，未加载时为 null（此时不做条件处理）
+     * @param read            实际读取，参数为要读取的区块；只有未命中 If-None-Match 时才会调用
+     */
+    <T> CompletableFuture<ResponseEntity<T>> conditional(WebRequest request, String contractAddress,
+                                                         Function<DefaultBlockParameter, CompletableFuture<T>> read) {
+        return conditional(request, headTracker, contractAddress, read);
+    }
+
+    /**
+     * @param headTracker 合约所在链的链头
+     */
+    <T> CompletableFuture<ResponseEntity<T>> conditional(WebRequest request, HeadTracker headTracker,
+                                                         String contractAddress,
+                                                         Function<DefaultBlockParameter, CompletableFuture<T>> read) {
+        long head = headTracker.getServableHead();
+        if (head < 0 || contractAddress == null) {
+            return read.apply(DefaultBlockParameterName.LATEST).thenApply(ResponseEntity::ok);
+        }
+        String etag = "\"" + contractAddress.toLowerCase() + "-" + head + "\"";
+        CacheControl cacheControl = cacheControl(headTracker);
+        if (request.checkNotModified(etag)) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build());
+        }
+        return read.apply(DefaultBlockParameter.valueOf(BigInteger.valueOf(head)))
+                .thenApply(body -> ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(body));
+    }
+
+    private static CacheControl cacheControl(HeadTracker headTracker) {
+        Duration interval = headTracker.getBlockInterval();
+        Instant observedAt = headTracker.getHeadObservedAt();
+        if (interval == null || observedAt == null) {
+            return CacheControl.noCache();
+        }
+        long remaining = interval.minus(Duration.between(observedAt, Instant.now())).toSeconds();
+        if (remaining <= 0) {
+            return CacheControl.noCache();
+        }
+        return CacheControl.maxAge(remaining, TimeUnit.SECONDS).cachePublic();
+    }
+}
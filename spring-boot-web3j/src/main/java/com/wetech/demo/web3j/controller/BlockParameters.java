@@ -0,0 +1,27 @@
+package com.wetech.demo.web3j.controller;
+
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+
+import java.math.BigInteger;
+
+/**
+ * 解析请求参数中的区块号：latest / earliest / pending，或十进制、0x 开头的十六进制区块号
+ */
+final class BlockParameters {
+
+    private BlockParameters() {
+    }
+
+    static DefaultBlockParameter parse(String block) {
+        for (DefaultBlockParameterName name : DefaultBlockParameterName.values()) {
+            if (name.getValue().equalsIgnoreCase(block)) {
+                return name;
+            }
+        }
+        if (block.startsWith("0x")) {
+            return DefaultBlockParameter.valueOf(new BigInteger(block.substring(2), 16));
+        }
+        return DefaultBlockParameter.valueOf(new BigInteger(block));
+    }
+}
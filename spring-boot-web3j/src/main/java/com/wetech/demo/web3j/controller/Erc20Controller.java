@@ -0,0 +1,259 @@
+package com.wetech.demo.web3j.controller;
+
+import com.wetech.demo.web3j.chain.ChainContext;
+import com.wetech.demo.web3j.chain.ChainRegistry;
+import com.wetech.demo.web3j.dto.AllowanceResponse;
+import com.wetech.demo.web3j.dto.BalanceResponse;
+import com.wetech.demo.web3j.dto.TokenInfoResponse;
+import com.wetech.demo.web3j.dto.TotalSupplyResponse;
+import com.wetech.demo.web3j.dto.TransactionResponse;
+import com.wetech.demo.web3j.dto.TransactionStatusResponse;
+import com.wetech.demo.web3j.dto.TransferEvent;
+import com.wetech.demo.web3j.service.BalanceExportService;
+import com.wetech.demo.web3j.service.Erc20Service;
+import com.wetech.demo.web3j.tx.TransactionRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 通用 ERC20 代币接口
+ *
+ * 路径中的 {address} 指定代币合约，任何实现了 ERC20（含 name/symbol/decimals）的合约都可以直接访问，
+ * 首次访问某个地址时自动创建包装类，不需要先部署或加载。/api/jym/... 保留为 JYMToken 默认合约的接口。
+ *
+ * /api/erc20/... 访问默认链，/api/chains/{chain}/erc20/... 访问 web3j.chains.{chain} 配置的链，
+ * 请求由该链自己的客户端、线程池和限流隔板处理。
+ */
+@RestController
+@RequestMapping({"/api/erc20/{address}", "/api/chains/{chain}/erc20/{address}"})
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class Erc20Controller {
+
+    private final ChainRegistry chainRegistry;
+    private final BalanceExportService balanceExportService;
+    private final BlockETags blockETags;
+    private final StreamingExports streamingExports;
+
+    /**
+     * 查询余额
+     * GET /api/erc20/{address}/balanceOf?owner=0x...
+     *
+     * @param chain   链名称，通过 /api/erc20/... 访问时为 null（默认链）
+     * @param address 合约地址
+     * @param owner   要查询的地址
+     * @return 余额信息
+     */
+    @GetMapping("/balanceOf")
+    public CompletableFuture<ResponseEntity<BalanceResponse>> balanceOf(
+            @PathVariable(required = false) String chain,
+            @PathVariable String address,
+            @RequestParam String owner,
+            WebRequest webRequest) {
+        ChainContext context = chainRegistry.get(chain);
+        return blockETags.conditional(webRequest, context.getHeadTracker(), address, block -> context.getErc20Service()
+                .balanceOf(address, owner, block)
+                .thenApply(balance -> new BalanceResponse(owner, balance, address)));
+    }
+
+    /**
+     * 查询授权额度
+     * GET /api/erc20/{address}/allowance?owner=0x...&spender=0x...
+     */
+    @GetMapping("/allowance")
+    public CompletableFuture<ResponseEntity<AllowanceResponse>> allowance(
+            @PathVariable(required = false) String chain,
+            @PathVariable String address,
+            @RequestParam String owner,
+            @RequestParam String spender,
+            WebRequest webRequest) {
+        ChainContext context = chainRegistry.get(chain);
+        return blockETags.conditional(webRequest, context.getHeadTracker(), address, block -> context.getErc20Service()
+                .allowance(address, owner, spender, block)
+                .thenApply(allowance -> new AllowanceResponse(owner, spender, allowance, address)));
+    }
+
+    /**
+     * 获取总供应量
+     * GET /api/erc20/{address}/totalSupply
+     */
+    @GetMapping("/totalSupply")
+    public CompletableFuture<ResponseEntity<TotalSupplyResponse>> getTotalSupply(
+            @PathVariable(required = false) String chain,
+            @PathVariable String address,
+            WebRequest webRequest) {
+        ChainContext context = chainRegistry.get(chain);
+        return blockETags.conditional(webRequest, context.getHeadTracker(), address, block -> context.getErc20Service()
+                .totalSupply(address, block)
+                .thenApply(totalSupply -> new TotalSupplyResponse(totalSupply, address)));
+    }
+
+    /**
+     * 获取代币信息（name/symbol/decimals 按合约缓存，只在首次访问时查询节点）
+     * GET /api/erc20/{address}/info
+     */
+    @GetMapping("/info")
+    public CompletableFuture<ResponseEntity<TokenInfoResponse>> getTokenInfo(
+            @PathVariable(required = false) String chain,
+            @PathVariable String address,
+            WebRequest webRequest) {
+        ChainContext context = chainRegistry.get(chain);
+        Erc20Service erc20Service = context.getErc20Service();
+        return blockETags.conditional(webRequest, context.getHeadTracker(), address, block -> erc20Service.name(address)
+                .thenCompose(name -> erc20Service.symbol(address)
+                        .thenCompose(symbol -> erc20Service.decimals(address)
+                                .thenApply(decimals -> new TokenInfoResponse(name, symbol, decimals, address)))));
+    }
+
+    /**
+     * 转账
+     * POST /api/erc20/{address}/transfer?to=0x...&amount=1000
+     */
+    @PostMapping("/transfer")
+    public CompletableFuture<ResponseEntity<TransactionResponse>> transfer(
+            @PathVariable(required = false) String chain,
+            @PathVariable String address,
+            @RequestParam String to,
+            @RequestParam String amount) {
+        return chainRegistry.get(chain).getErc20Service().transfer(address, to, new BigInteger(amount))
+                .thenApply(receipt -> ResponseEntity.ok(
+                        TransactionResponse.of(receipt, address)
+                                .to(to)
+                                .amount(amount)
+                                .build()));
+    }
+
+    /**
+     * 授权
+     * POST /api/erc20/{address}/approve?spender=0x...&amount=1000
+     */
+    @PostMapping("/approve")
+    public CompletableFuture<ResponseEntity<TransactionResponse>> approve(
+            @PathVariable(required = false) String chain,
+            @PathVariable String address,
+            @RequestParam String spender,
+            @RequestParam String amount) {
+        return chainRegistry.get(chain).getErc20Service().approve(address, spender, new BigInteger(amount))
+                .thenApply(receipt -> ResponseEntity.ok(
+                        TransactionResponse.of(receipt, address)
+                                .spender(spender)
+                                .amount(amount)
+                                .build()));
+    }
+
+    /**
+     * 授权转账
+     * POST /api/erc20/{address}/transferFrom?from=0x...&to=0x...&amount=1000
+     */
+    @PostMapping("/transferFrom")
+    public CompletableFuture<ResponseEntity<TransactionResponse>> transferFrom(
+            @PathVariable(required = false) String chain,
+            @PathVariable String address,
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam String amount) {
+        return chainRegistry.get(chain).getErc20Service().transferFrom(address, from, to, new BigInteger(amount))
+                .thenApply(receipt -> ResponseEntity.ok(
+                        TransactionResponse.of(receipt, address)
+                                .from(from)
+                                .to(to)
+                                .amount(amount)
+                                .build()));
+    }
+
+    /**
+     * 查询发往该合约的交易状态
+     * GET /api/erc20/{address}/tx/{hash}
+     */
+    @GetMapping("/tx/{hash}")
+    public ResponseEntity<TransactionStatusResponse> getTransaction(
+            @PathVariable(required = false) String chain,
+            @PathVariable String address,
+            @PathVariable String hash) {
+        TransactionRegistry transactionRegistry = chainRegistry.get(chain).getTransactionRegistry();
+        return transactionRegistry.find(hash, address)
+                .map(tx -> ResponseEntity.ok(TransactionStatusResponse.of(tx, transactionRegistry.getHead())))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 列出最近发往该合约的交易，最新的在前
+     * GET /api/erc20/{address}/tx
+     */
+    @GetMapping("/tx")
+    public ResponseEntity<List<TransactionStatusResponse>> listTransactions(
+            @PathVariable(required = false) String chain,
+            @PathVariable String address) {
+        TransactionRegistry transactionRegistry = chainRegistry.get(chain).getTransactionRegistry();
+        long head = transactionRegistry.getHead();
+        return ResponseEntity.ok(transactionRegistry.findByContract(address).stream()
+                .map(tx -> TransactionStatusResponse.of(tx, head))
+                .toList());
+    }
+
+    /**
+     * 订阅 Transfer 事件（SSE）：先补发 fromBlock 之后的历史事件，再持续推送新事件
+     * GET /api/erc20/{address}/events/transfer?fromBlock=latest
+     *
+     * 连接时长受 spring.mvc.async.request-timeout 限制，到期后客户端（如 EventSource）需要重新连接
+     */
+    @GetMapping(value = "/events/transfer", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<TransferEvent> transferEvents(
+            @PathVariable(required = false) String chain,
+            @PathVariable String address,
+            @RequestParam(defaultValue = "latest") String fromBlock) {
+        Erc20Service erc20Service = chainRegistry.get(chain).getErc20Service();
+        return Flux.defer(() -> Flux.from(erc20Service.transferEvents(address, BlockParameters.parse(fromBlock))))
+                .map(TransferEvent::of);
+    }
+
+    /**
+     * 导出历史 Transfer 事件（NDJSON，边读取边输出）
+     * GET /api/erc20/{address}/events/transfer/history?fromBlock=0&toBlock=latest
+     */
+    @GetMapping(value = "/events/transfer/history", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> transferHistory(
+            @PathVariable(required = false) String chain,
+            @PathVariable String address,
+            @RequestParam(defaultValue = "earliest") String fromBlock,
+            @RequestParam(defaultValue = "latest") String toBlock) {
+        DefaultBlockParameter from = BlockParameters.parse(fromBlock);
+        DefaultBlockParameter to = BlockParameters.parse(toBlock);
+        Erc20Service erc20Service = chainRegistry.get(chain).getErc20Service();
+        return ResponseEntity.ok(streamingExports.ndjson(sink -> erc20Service.streamTransferEvents(
+                address, from, to, event -> sink.accept(TransferEvent.of(event)))));
+    }
+
+    /**
+     * 批量导出余额，格式与 /api/jym/balances/export 相同
+     * POST /api/erc20/{address}/balances/export?format=ndjson&block=latest
+     */
+    @PostMapping(value = "/balances/export", consumes = {MediaType.TEXT_PLAIN_VALUE, "text/csv"})
+    public ResponseEntity<StreamingResponseBody> exportBalances(
+            @PathVariable(required = false) String chain,
+            @PathVariable String address,
+            InputStream body,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "latest") String block) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        BalanceExportService.Snapshot snapshot = balanceExportService.snapshot(
+                chainRegistry.get(chain).getWeb3j(), address, BlockParameters.parse(block));
+        return streamingExports.balances(snapshot, body, csv);
+    }
+}
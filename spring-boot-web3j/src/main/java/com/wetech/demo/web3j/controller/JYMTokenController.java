@@ -1,14 +1,34 @@
 package com.wetech.demo.web3j.controller;
 
+import com.wetech.demo.web3j.dto.AllowanceResponse;
+import com.wetech.demo.web3j.dto.BalanceResponse;
+import com.wetech.demo.web3j.dto.ContractResponse;
+import com.wetech.demo.web3j.dto.DeployResponse;
+import com.wetech.demo.web3j.dto.PermitRequest;
+import com.wetech.demo.web3j.dto.PermitVerdict;
+import com.wetech.demo.web3j.dto.TokenInfoResponse;
+import com.wetech.demo.web3j.dto.TotalSupplyResponse;
+import com.wetech.demo.web3j.dto.TransactionResponse;
+import com.wetech.demo.web3j.dto.TransactionStatusResponse;
+import com.wetech.demo.web3j.dto.TransferEvent;
+import com.wetech.demo.web3j.service.BalanceExportService;
 import com.wetech.demo.web3j.service.JYMTokenService;
+import com.wetech.demo.web3j.service.PermitService;
+import com.wetech.demo.web3j.tx.TransactionRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.web3j.protocol.core.DefaultBlockParameter;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigInteger;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -23,16 +43,27 @@ import java.util.concurrent.CompletableFuture;
  *
  * 额外功能：
  * - burn: 销毁代币
+ * - permit: EIP-2612 离线签名授权
+ * - permits/verify: 批量离线校验用户签名的 permit
  * - 合约管理：deploy, load
  * - 查询功能：totalSupply, name, symbol, decimals
+ * - 历史事件导出：events/transfer/history
+ * - 批量余额导出：balances/export
+ * - 交易状态查询：tx/{hash}
  */
 @Slf4j
 @RestController
 @RequestMapping("/api/jym")
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class JYMTokenController {
 
     private final JYMTokenService jymTokenService;
+    private final PermitService permitService;
+    private final BalanceExportService balanceExportService;
+    private final BlockETags blockETags;
+    private final TransactionRegistry transactionRegistry;
+    private final StreamingExports streamingExports;
 
     /**
      * 部署 JYMToken 合约
@@ -43,18 +74,10 @@ public class JYMTokenController {
      * @return 合约地址和部署信息
      */
     @PostMapping("/deploy")
-    public CompletableFuture<ResponseEntity<Map<String, String>>> deployContract() {
+    public CompletableFuture<ResponseEntity<DeployResponse>> deployContract() {
         log.info("Deploying JYMToken contract");
         return jymTokenService.deployContract()
-                .thenApply(address -> {
-                    Map<String, String> response = new HashMap<>();
-                    response.put("contractAddress", address);
-                    response.put("message", "JYMToken contract deployed successfully");
-                    response.put("initialSupply", "1000000000000000000000000"); // 1M * 10^18
-                    response.put("tokenName", "JYMToken");
-                    response.put("tokenSymbol", "JYM");
-                    return ResponseEntity.ok(response);
-                });
+                .thenApply(address -> ResponseEntity.ok(DeployResponse.of(address)));
     }
 
     /**
@@ -65,13 +88,10 @@ public class JYMTokenController {
      * @return 加载结果
      */
     @PostMapping("/load")
-    public ResponseEntity<Map<String, String>> loadContract(@RequestParam String address) {
+    public ResponseEntity<ContractResponse> loadContract(@RequestParam String address) {
         log.info("Loading JYMToken contract from: {}", address);
         jymTokenService.loadContract(address);
-        Map<String, String> response = new HashMap<>();
-        response.put("message", "Contract loaded successfully");
-        response.put("contractAddress", address);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(ContractResponse.loaded(address));
     }
 
     /**
@@ -81,16 +101,8 @@ public class JYMTokenController {
      * @return 合约地址
      */
     @GetMapping("/address")
-    public ResponseEntity<Map<String, String>> getContractAddress() {
-        String address = jymTokenService.getContractAddress();
-        Map<String, String> response = new HashMap<>();
-        if (address != null) {
-            response.put("contractAddress", address);
-            return ResponseEntity.ok(response);
-        } else {
-            response.put("message", "No contract loaded");
-            return ResponseEntity.ok(response);
-        }
+    public ResponseEntity<ContractResponse> getContractAddress() {
+        return ResponseEntity.ok(ContractResponse.current(jymTokenService.getContractAddress()));
     }
 
     // ========== 核心接口（大作业要求） ==========
@@ -103,20 +115,15 @@ public class JYMTokenController {
      * @return 交易回执
      */
     @PostMapping("/mint")
-    public CompletableFuture<ResponseEntity<Map<String, String>>> mint(@RequestParam String amount) {
+    public CompletableFuture<ResponseEntity<TransactionResponse>> mint(@RequestParam String amount) {
         BigInteger amountBigInt = new BigInteger(amount);
-        return jymTokenService.mint(amountBigInt)
-                .thenApply(receipt -> {
-                    Map<String, String> response = new HashMap<>();
-                    response.put("transactionHash", receipt.getTransactionHash());
-                    response.put("blockNumber", receipt.getBlockNumber().toString());
-                    response.put("gasUsed", receipt.getGasUsed().toString());
-                    response.put("status", receipt.getStatus());
-                    response.put("amount", amount);
-                    response.put("message", "Tokens minted to caller address");
-                    response.put("contractAddress", jymTokenService.getContractAddress());
-                    return ResponseEntity.ok(response);
-                });
+        String contractAddress = jymTokenService.getContractAddress();
+        return jymTokenService.mint(contractAddress, amountBigInt)
+                .thenApply(receipt -> ResponseEntity.ok(
+                        TransactionResponse.of(receipt, contractAddress)
+                                .amount(amount)
+                                .message(TransactionResponse.MINTED)
+                                .build()));
     }
 
     /**
@@ -128,42 +135,34 @@ public class JYMTokenController {
      * @return 交易回执
      */
     @PostMapping("/transfer")
-    public CompletableFuture<ResponseEntity<Map<String, String>>> transfer(
+    public CompletableFuture<ResponseEntity<TransactionResponse>> transfer(
             @RequestParam String to,
             @RequestParam String amount) {
         BigInteger amountBigInt = new BigInteger(amount);
-        return jymTokenService.transfer(to, amountBigInt)
-                .thenApply(receipt -> {
-                    Map<String, String> response = new HashMap<>();
-                    response.put("transactionHash", receipt.getTransactionHash());
-                    response.put("blockNumber", receipt.getBlockNumber().toString());
-                    response.put("gasUsed", receipt.getGasUsed().toString());
-                    response.put("status", receipt.getStatus());
-                    response.put("to", to);
-                    response.put("amount", amount);
-                    response.put("contractAddress", jymTokenService.getContractAddress());
-                    return ResponseEntity.ok(response);
-                });
+        String contractAddress = jymTokenService.getContractAddress();
+        return jymTokenService.transfer(contractAddress, to, amountBigInt)
+                .thenApply(receipt -> ResponseEntity.ok(
+                        TransactionResponse.of(receipt, contractAddress)
+                                .to(to)
+                                .amount(amount)
+                                .build()));
     }
 
     /**
      * 【必需接口3】查询余额
      * GET /api/jym/balanceOf?address=0x...
      *
+     * 支持 If-None-Match，链头未变化时返回 304
+     *
      * @param address 要查询的地址
      * @return 余额信息
      */
     @GetMapping("/balanceOf")
-    public CompletableFuture<ResponseEntity<Map<String, String>>> balanceOf(@RequestParam String address) {
-        return jymTokenService.balanceOf(address)
-                .thenApply(balance -> {
-                    Map<String, String> response = new HashMap<>();
-                    response.put("address", address);
-                    response.put("balance", balance.toString());
-                    response.put("balanceReadable", balance.divide(BigInteger.TEN.pow(18)).toString() + " JYM");
-                    response.put("contractAddress", jymTokenService.getContractAddress());
-                    return ResponseEntity.ok(response);
-                });
+    public CompletableFuture<ResponseEntity<BalanceResponse>> balanceOf(@RequestParam String address,
+                                                                        WebRequest webRequest) {
+        String contractAddress = jymTokenService.getContractAddress();
+        return blockETags.conditional(webRequest, contractAddress, block -> jymTokenService.balanceOf(contractAddress, address, block)
+                .thenApply(balance -> new BalanceResponse(address, balance, contractAddress)));
     }
 
     /**
@@ -175,22 +174,17 @@ public class JYMTokenController {
      * @return 交易回执
      */
     @PostMapping("/approve")
-    public CompletableFuture<ResponseEntity<Map<String, String>>> approve(
+    public CompletableFuture<ResponseEntity<TransactionResponse>> approve(
             @RequestParam String spender,
             @RequestParam String amount) {
         BigInteger amountBigInt = new BigInteger(amount);
-        return jymTokenService.approve(spender, amountBigInt)
-                .thenApply(receipt -> {
-                    Map<String, String> response = new HashMap<>();
-                    response.put("transactionHash", receipt.getTransactionHash());
-                    response.put("blockNumber", receipt.getBlockNumber().toString());
-                    response.put("gasUsed", receipt.getGasUsed().toString());
-                    response.put("status", receipt.getStatus());
-                    response.put("spender", spender);
-                    response.put("amount", amount);
-                    response.put("contractAddress", jymTokenService.getContractAddress());
-                    return ResponseEntity.ok(response);
-                });
+        String contractAddress = jymTokenService.getContractAddress();
+        return jymTokenService.approve(contractAddress, spender, amountBigInt)
+                .thenApply(receipt -> ResponseEntity.ok(
+                        TransactionResponse.of(receipt, contractAddress)
+                                .spender(spender)
+                                .amount(amount)
+                                .build()));
     }
 
     /**
@@ -203,24 +197,19 @@ public class JYMTokenController {
      * @return 交易回执
      */
     @PostMapping("/transferFrom")
-    public CompletableFuture<ResponseEntity<Map<String, String>>> transferFrom(
+    public CompletableFuture<ResponseEntity<TransactionResponse>> transferFrom(
             @RequestParam String from,
             @RequestParam String to,
             @RequestParam String amount) {
         BigInteger amountBigInt = new BigInteger(amount);
-        return jymTokenService.transferFrom(from, to, amountBigInt)
-                .thenApply(receipt -> {
-                    Map<String, String> response = new HashMap<>();
-                    response.put("transactionHash", receipt.getTransactionHash());
-                    response.put("blockNumber", receipt.getBlockNumber().toString());
-                    response.put("gasUsed", receipt.getGasUsed().toString());
-                    response.put("status", receipt.getStatus());
-                    response.put("from", from);
-                    response.put("to", to);
-                    response.put("amount", amount);
-                    response.put("contractAddress", jymTokenService.getContractAddress());
-                    return ResponseEntity.ok(response);
-                });
+        String contractAddress = jymTokenService.getContractAddress();
+        return jymTokenService.transferFrom(contractAddress, from, to, amountBigInt)
+                .thenApply(receipt -> ResponseEntity.ok(
+                        TransactionResponse.of(receipt, contractAddress)
+                                .from(from)
+                                .to(to)
+                                .amount(amount)
+                                .build()));
     }
 
     // ========== 额外功能 ==========
@@ -233,20 +222,62 @@ public class JYMTokenController {
      * @return 交易回执
      */
     @PostMapping("/burn")
-    public CompletableFuture<ResponseEntity<Map<String, String>>> burn(@RequestParam String amount) {
+    public CompletableFuture<ResponseEntity<TransactionResponse>> burn(@RequestParam String amount) {
         BigInteger amountBigInt = new BigInteger(amount);
-        return jymTokenService.burn(amountBigInt)
-                .thenApply(receipt -> {
-                    Map<String, String> response = new HashMap<>();
-                    response.put("transactionHash", receipt.getTransactionHash());
-                    response.put("blockNumber", receipt.getBlockNumber().toString());
-                    response.put("gasUsed", receipt.getGasUsed().toString());
-                    response.put("status", receipt.getStatus());
-                    response.put("amount", amount);
-                    response.put("message", "Tokens burned from caller address");
-                    response.put("contractAddress", jymTokenService.getContractAddress());
-                    return ResponseEntity.ok(response);
-                });
+        String contractAddress = jymTokenService.getContractAddress();
+        return jymTokenService.burn(contractAddress, amountBigInt)
+                .thenApply(receipt -> ResponseEntity.ok(
+                        TransactionResponse.of(receipt, contractAddress)
+                                .amount(amount)
+                                .message(TransactionResponse.BURNED)
+                                .build()));
+    }
+
+    /**
+     * EIP-2612 permit：以服务托管地址为 owner 离线签名，并提交 permit 交易
+     * POST /api/jym/permit?spender=0x...&amount=1000&deadline=1767225600
+     *
+     * 一笔交易完成授权，代替 approve 两步流程；签名不查询节点（域分隔符和 nonce 均在本地缓存）
+     *
+     * @param spender  被授权地址
+     * @param amount   授权数量
+     * @param deadline 过期时间（Unix 秒），缺省为当前时间 + web3j.permit.ttl-seconds
+     * @return 交易回执，附带使用的 nonce 和 deadline
+     */
+    @PostMapping("/permit")
+    public CompletableFuture<ResponseEntity<TransactionResponse>> permit(
+            @RequestParam String spender,
+            @RequestParam String amount,
+            @RequestParam(required = false) BigInteger deadline) {
+        BigInteger amountBigInt = new BigInteger(amount);
+        String contractAddress = jymTokenService.getContractAddress();
+        return permitService.permit(contractAddress, spender, amountBigInt, deadline)
+                .thenApply(submitted -> ResponseEntity.ok(
+                        TransactionResponse.of(submitted.receipt(), contractAddress)
+                                .from(submitted.owner())
+                                .spender(spender)
+                                .amount(amount)
+                                .nonce(submitted.nonce().toString())
+                                .deadline(submitted.deadline().toString())
+                                .message(TransactionResponse.PERMITTED)
+                                .build()));
+    }
+
+    /**
+     * 批量离线校验用户签名的 permit，转发前筛掉无效的
+     * POST /api/jym/permits/verify
+     *
+     * 请求体为 permit 数组，每条包含 owner/spender/value/nonce/deadline 和签名（signature 或 v/r/s）。
+     * 签名在本地并行校验，不为每条 permit 调用节点；只按 owner 批量读取一次当前 nonce。
+     *
+     * @param permits 待校验的 permit
+     * @return 每条 permit 的校验结果，与请求顺序一致
+     */
+    @PostMapping("/permits/verify")
+    public CompletableFuture<ResponseEntity<List<PermitVerdict>>> verifyPermits(
+            @RequestBody List<PermitRequest> permits) {
+        return permitService.verify(jymTokenService.getContractAddress(), permits)
+                .thenApply(ResponseEntity::ok);
     }
 
     /**
@@ -258,19 +289,13 @@ public class JYMTokenController {
      * @return 授权额度
      */
     @GetMapping("/allowance")
-    public CompletableFuture<ResponseEntity<Map<String, String>>> allowance(
+    public CompletableFuture<ResponseEntity<AllowanceResponse>> allowance(
             @RequestParam String owner,
-            @RequestParam String spender) {
-        return jymTokenService.allowance(owner, spender)
-                .thenApply(allowance -> {
-                    Map<String, String> response = new HashMap<>();
-                    response.put("owner", owner);
-                    response.put("spender", spender);
-                    response.put("allowance", allowance.toString());
-                    response.put("allowanceReadable", allowance.divide(BigInteger.TEN.pow(18)).toString() + " JYM");
-                    response.put("contractAddress", jymTokenService.getContractAddress());
-                    return ResponseEntity.ok(response);
-                });
+            @RequestParam String spender,
+            WebRequest webRequest) {
+        String contractAddress = jymTokenService.getContractAddress();
+        return blockETags.conditional(webRequest, contractAddress, block -> jymTokenService.allowance(contractAddress, owner, spender, block)
+                .thenApply(allowance -> new AllowanceResponse(owner, spender, allowance, contractAddress)));
     }
 
     /**
@@ -280,15 +305,10 @@ public class JYMTokenController {
      * @return 总供应量
      */
     @GetMapping("/totalSupply")
-    public CompletableFuture<ResponseEntity<Map<String, String>>> getTotalSupply() {
-        return jymTokenService.totalSupply()
-                .thenApply(totalSupply -> {
-                    Map<String, String> response = new HashMap<>();
-                    response.put("totalSupply", totalSupply.toString());
-                    response.put("totalSupplyReadable", totalSupply.divide(BigInteger.TEN.pow(18)).toString() + " JYM");
-                    response.put("contractAddress", jymTokenService.getContractAddress());
-                    return ResponseEntity.ok(response);
-                });
+    public CompletableFuture<ResponseEntity<TotalSupplyResponse>> getTotalSupply(WebRequest webRequest) {
+        String contractAddress = jymTokenService.getContractAddress();
+        return blockETags.conditional(webRequest, contractAddress, block -> jymTokenService.totalSupply(contractAddress, block)
+                .thenApply(totalSupply -> new TotalSupplyResponse(totalSupply, contractAddress)));
     }
 
     /**
@@ -298,17 +318,88 @@ public class JYMTokenController {
      * @return 代币元数据
      */
     @GetMapping("/info")
-    public CompletableFuture<ResponseEntity<Map<String, String>>> getTokenInfo() {
-        return jymTokenService.name()
-                .thenCompose(name -> jymTokenService.symbol()
-                        .thenCompose(symbol -> jymTokenService.decimals()
-                                .thenApply(decimals -> {
-                                    Map<String, String> response = new HashMap<>();
-                                    response.put("name", name);
-                                    response.put("symbol", symbol);
-                                    response.put("decimals", decimals.toString());
-                                    response.put("contractAddress", jymTokenService.getContractAddress());
-                                    return ResponseEntity.ok(response);
-                                })));
+    public CompletableFuture<ResponseEntity<TokenInfoResponse>> getTokenInfo(WebRequest webRequest) {
+        String contractAddress = jymTokenService.getContractAddress();
+        return blockETags.conditional(webRequest, contractAddress, block -> jymTokenService.name(contractAddress)
+                .thenCompose(name -> jymTokenService.symbol(contractAddress)
+                        .thenCompose(symbol -> jymTokenService.decimals(contractAddress)
+                                .thenApply(decimals -> new TokenInfoResponse(name, symbol, decimals, contractAddress)))));
+    }
+
+    /**
+     * 查询本服务发出的交易状态
+     * GET /api/jym/tx/{hash}
+     *
+     * 状态依次为 SIGNED、BROADCAST、PENDING、MINED、CONFIRMED，或 FAILED（附 revert reason）、REPLACED。
+     * 发起交易的请求断开后，仍可以通过交易哈希查询结果。
+     *
+     * @param hash 交易哈希
+     * @return 交易状态，不存在或已过保留期时返回 404
+     */
+    @GetMapping("/tx/{hash}")
+    public ResponseEntity<TransactionStatusResponse> getTransaction(@PathVariable String hash) {
+        return transactionRegistry.find(hash, jymTokenService.getContractAddress())
+                .map(tx -> ResponseEntity.ok(TransactionStatusResponse.of(tx, transactionRegistry.getHead())))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 列出最近发往当前合约的交易，最新的在前
+     * GET /api/jym/tx
+     *
+     * @return 交易状态列表
+     */
+    @GetMapping("/tx")
+    public ResponseEntity<List<TransactionStatusResponse>> listTransactions() {
+        long head = transactionRegistry.getHead();
+        return ResponseEntity.ok(transactionRegistry.findByContract(jymTokenService.getContractAddress()).stream()
+                .map(tx -> TransactionStatusResponse.of(tx, head))
+                .toList());
+    }
+
+    /**
+     * 导出历史 Transfer 事件
+     * GET /api/jym/events/transfer/history?fromBlock=0&toBlock=latest
+     *
+     * 以 NDJSON 返回，每行一个事件，边从节点读取边输出
+     *
+     * @param fromBlock 起始区块（earliest / 区块号）
+     * @param toBlock   结束区块（latest / 区块号）
+     * @return 事件流
+     */
+    @GetMapping(value = "/events/transfer/history", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> transferHistory(
+            @RequestParam(defaultValue = "earliest") String fromBlock,
+            @RequestParam(defaultValue = "latest") String toBlock) {
+        DefaultBlockParameter from = BlockParameters.parse(fromBlock);
+        DefaultBlockParameter to = BlockParameters.parse(toBlock);
+        String contractAddress = jymTokenService.getContractAddress();
+        return ResponseEntity.ok(streamingExports.ndjson(sink -> jymTokenService.streamTransferEvents(
+                contractAddress, from, to, event -> sink.accept(TransferEvent.of(event)))));
+    }
+
+    /**
+     * 批量导出余额（月度持有人对账）
+     * POST /api/jym/balances/export?format=ndjson&block=latest
+     *
+     * 请求体为地址列表，每行一个；也可以直接上传首列为地址的 CSV，表头和空行会被跳过。
+     * 结果按输入顺序边查询边输出，所有余额取自同一区块，区块号见响应头 X-Block-Number。
+     *
+     * @param body   地址列表
+     * @param format ndjson 或 csv
+     * @param block  快照区块（latest / 区块号）
+     * @return 余额流
+     */
+    @PostMapping(value = "/balances/export", consumes = {MediaType.TEXT_PLAIN_VALUE, "text/csv"})
+    public ResponseEntity<StreamingResponseBody> exportBalances(
+            InputStream body,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "latest") String block) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        BalanceExportService.Snapshot snapshot = balanceExportService.snapshot(BlockParameters.parse(block));
+        return streamingExports.balances(snapshot, body, csv);
     }
 }
\ No newline at end of file
@@ -0,0 +1,262 @@
+package com.wetech.demo.web3j.controller;
+
+import com.wetech.demo.web3j.dto.AllowanceResponse;
+import com.wetech.demo.web3j.dto.BalanceResponse;
+import com.wetech.demo.web3j.dto.ContractResponse;
+import com.wetech.demo.web3j.dto.DeployResponse;
+import com.wetech.demo.web3j.dto.PermitRequest;
+import com.wetech.demo.web3j.dto.PermitVerdict;
+import com.wetech.demo.web3j.dto.TokenInfoResponse;
+import com.wetech.demo.web3j.dto.TotalSupplyResponse;
+import com.wetech.demo.web3j.dto.TransactionResponse;
+import com.wetech.demo.web3j.dto.TransferEvent;
+import com.wetech.demo.web3j.service.JYMTokenService;
+import com.wetech.demo.web3j.service.PermitService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * JYMToken REST API Controller（WebFlux 版本）
+ *
+ * 接口与 {@link JYMTokenController} 一致，仅在 reactive profile 下启用。
+ * web3j 的 CompletableFuture 通过 Mono.fromFuture 桥接，事件流通过 Flux.from(Flowable) 桥接，
+ * 事件循环线程上不做任何阻塞调用。
+ *
+ * 额外功能：
+ * - 事件流：GET /api/jym/events/transfer（Server-Sent Events）
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/jym")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveJYMTokenController {
+
+    private final JYMTokenService jymTokenService;
+    private final PermitService permitService;
+
+    /**
+     * 部署 JYMToken 合约
+     * POST /api/jym/deploy
+     */
+    @PostMapping("/deploy")
+    public Mono<ResponseEntity<DeployResponse>> deployContract() {
+        log.info("Deploying JYMToken contract");
+        return Mono.fromFuture(jymTokenService::deployContract)
+                .map(address -> ResponseEntity.ok(DeployResponse.of(address)));
+    }
+
+    /**
+     * 加载已部署的合约
+     * POST /api/jym/load?address=0x...
+     */
+    @PostMapping("/load")
+    public Mono<ResponseEntity<ContractResponse>> loadContract(@RequestParam String address) {
+        log.info("Loading JYMToken contract from: {}", address);
+        return Mono.fromRunnable(() -> jymTokenService.loadContract(address))
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok(ContractResponse.loaded(address))));
+    }
+
+    /**
+     * 获取当前合约地址
+     * GET /api/jym/address
+     */
+    @GetMapping("/address")
+    public Mono<ResponseEntity<ContractResponse>> getContractAddress() {
+        return Mono.fromSupplier(() -> ResponseEntity.ok(ContractResponse.current(jymTokenService.getContractAddress())));
+    }
+
+    // ========== 核心接口（大作业要求） ==========
+
+    /**
+     * 【必需接口1】铸造代币
+     * POST /api/jym/mint?amount=1000
+     */
+    @PostMapping("/mint")
+    public Mono<ResponseEntity<TransactionResponse>> mint(@RequestParam String amount) {
+        BigInteger amountBigInt = new BigInteger(amount);
+        String contractAddress = jymTokenService.getContractAddress();
+        return Mono.fromFuture(() -> jymTokenService.mint(contractAddress, amountBigInt))
+                .map(receipt -> ResponseEntity.ok(TransactionResponse.of(receipt, contractAddress)
+                        .amount(amount)
+                        .message(TransactionResponse.MINTED)
+                        .build()));
+    }
+
+    /**
+     * 【必需接口2】转账
+     * POST /api/jym/transfer?to=0x...&amount=1000
+     */
+    @PostMapping("/transfer")
+    public Mono<ResponseEntity<TransactionResponse>> transfer(
+            @RequestParam String to,
+            @RequestParam String amount) {
+        BigInteger amountBigInt = new BigInteger(amount);
+        String contractAddress = jymTokenService.getContractAddress();
+        return Mono.fromFuture(() -> jymTokenService.transfer(contractAddress, to, amountBigInt))
+                .map(receipt -> ResponseEntity.ok(TransactionResponse.of(receipt, contractAddress)
+                        .to(to)
+                        .amount(amount)
+                        .build()));
+    }
+
+    /**
+     * 【必需接口3】查询余额
+     * GET /api/jym/balanceOf?address=0x...
+     */
+    @GetMapping("/balanceOf")
+    public Mono<ResponseEntity<BalanceResponse>> balanceOf(@RequestParam String address) {
+        String contractAddress = jymTokenService.getContractAddress();
+        return Mono.fromFuture(() -> jymTokenService.balanceOf(contractAddress, address))
+                .map(balance -> ResponseEntity.ok(new BalanceResponse(address, balance, contractAddress)));
+    }
+
+    /**
+     * 【必需接口4】授权
+     * POST /api/jym/approve?spender=0x...&amount=1000
+     */
+    @PostMapping("/approve")
+    public Mono<ResponseEntity<TransactionResponse>> approve(
+            @RequestParam String spender,
+            @RequestParam String amount) {
+        BigInteger amountBigInt = new BigInteger(amount);
+        String contractAddress = jymTokenService.getContractAddress();
+        return Mono.fromFuture(() -> jymTokenService.approve(contractAddress, spender, amountBigInt))
+                .map(receipt -> ResponseEntity.ok(TransactionResponse.of(receipt, contractAddress)
+                        .spender(spender)
+                        .amount(amount)
+                        .build()));
+    }
+
+    /**
+     * 【必需接口5】授权转账
+     * POST /api/jym/transferFrom?from=0x...&to=0x...&amount=1000
+     */
+    @PostMapping("/transferFrom")
+    public Mono<ResponseEntity<TransactionResponse>> transferFrom(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam String amount) {
+        BigInteger amountBigInt = new BigInteger(amount);
+        String contractAddress = jymTokenService.getContractAddress();
+        return Mono.fromFuture(() -> jymTokenService.transferFrom(contractAddress, from, to, amountBigInt))
+                .map(receipt -> ResponseEntity.ok(TransactionResponse.of(receipt, contractAddress)
+                        .from(from)
+                        .to(to)
+                        .amount(amount)
+                        .build()));
+    }
+
+    // ========== 额外功能 ==========
+
+    /**
+     * 销毁代币
+     * POST /api/jym/burn?amount=1000
+     */
+    @PostMapping("/burn")
+    public Mono<ResponseEntity<TransactionResponse>> burn(@RequestParam String amount) {
+        BigInteger amountBigInt = new BigInteger(amount);
+        String contractAddress = jymTokenService.getContractAddress();
+        return Mono.fromFuture(() -> jymTokenService.burn(contractAddress, amountBigInt))
+                .map(receipt -> ResponseEntity.ok(TransactionResponse.of(receipt, contractAddress)
+                        .amount(amount)
+                        .message(TransactionResponse.BURNED)
+                        .build()));
+    }
+
+    /**
+     * EIP-2612 permit：以服务托管地址为 owner 离线签名并提交
+     * POST /api/jym/permit?spender=0x...&amount=1000&deadline=1767225600
+     */
+    @PostMapping("/permit")
+    public Mono<ResponseEntity<TransactionResponse>> permit(
+            @RequestParam String spender,
+            @RequestParam String amount,
+            @RequestParam(required = false) BigInteger deadline) {
+        BigInteger amountBigInt = new BigInteger(amount);
+        String contractAddress = jymTokenService.getContractAddress();
+        return Mono.fromFuture(() -> permitService.permit(contractAddress, spender, amountBigInt, deadline))
+                .map(submitted -> ResponseEntity.ok(TransactionResponse.of(submitted.receipt(), contractAddress)
+                        .from(submitted.owner())
+                        .spender(spender)
+                        .amount(amount)
+                        .nonce(submitted.nonce().toString())
+                        .deadline(submitted.deadline().toString())
+                        .message(TransactionResponse.PERMITTED)
+                        .build()));
+    }
+
+    /**
+     * 批量离线校验用户签名的 permit
+     * POST /api/jym/permits/verify
+     */
+    @PostMapping("/permits/verify")
+    public Mono<ResponseEntity<List<PermitVerdict>>> verifyPermits(@RequestBody List<PermitRequest> permits) {
+        String contractAddress = jymTokenService.getContractAddress();
+        return Mono.fromFuture(() -> permitService.verify(contractAddress, permits))
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * 查询授权额度
+     * GET /api/jym/allowance?owner=0x...&spender=0x...
+     */
+    @GetMapping("/allowance")
+    public Mono<ResponseEntity<AllowanceResponse>> allowance(
+            @RequestParam String owner,
+            @RequestParam String spender) {
+        String contractAddress = jymTokenService.getContractAddress();
+        return Mono.fromFuture(() -> jymTokenService.allowance(contractAddress, owner, spender))
+                .map(allowance -> ResponseEntity.ok(new AllowanceResponse(owner, spender, allowance, contractAddress)));
+    }
+
+    /**
+     * 获取总供应量
+     * GET /api/jym/totalSupply
+     */
+    @GetMapping("/totalSupply")
+    public Mono<ResponseEntity<TotalSupplyResponse>> getTotalSupply() {
+        String contractAddress = jymTokenService.getContractAddress();
+        return Mono.fromFuture(() -> jymTokenService.totalSupply(contractAddress))
+                .map(totalSupply -> ResponseEntity.ok(new TotalSupplyResponse(totalSupply, contractAddress)));
+    }
+
+    /**
+     * 获取代币信息，三个查询并发执行
+     * GET /api/jym/info
+     */
+    @GetMapping("/info")
+    public Mono<ResponseEntity<TokenInfoResponse>> getTokenInfo() {
+        String contractAddress = jymTokenService.getContractAddress();
+        return Mono.zip(
+                        Mono.fromFuture(() -> jymTokenService.name(contractAddress)),
+                        Mono.fromFuture(() -> jymTokenService.symbol(contractAddress)),
+                        Mono.fromFuture(() -> jymTokenService.decimals(contractAddress)))
+                .map(info -> ResponseEntity.ok(new TokenInfoResponse(
+                        info.getT1(), info.getT2(), info.getT3(), contractAddress)));
+    }
+
+    /**
+     * Transfer 事件流
+     * GET /api/jym/events/transfer?fromBlock=latest
+     *
+     * @param fromBlock 起始区块（latest / earliest / 区块号）
+     * @return Server-Sent Events，每条事件一条消息
+     */
+    @GetMapping(value = "/events/transfer", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<TransferEvent> transferEvents(@RequestParam(defaultValue = "latest") String fromBlock) {
+        String contractAddress = jymTokenService.getContractAddress();
+        return Flux.defer(() -> Flux.from(
+                        jymTokenService.transferEvents(contractAddress, BlockParameters.parse(fromBlock))))
+                .map(TransferEvent::of);
+    }
+}
@@ -0,0 +1,131 @@
+package com.wetech.demo.web3j.controller;
+
+import com.wetech.demo.web3j.contracts.simplestorage.SimpleStorage;
+import com.wetech.demo.web3j.service.SimpleStorageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * WebFlux variant of {@link SimpleStorageController}, active only when the application runs reactive
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/storage")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSimpleStorageController {
+
+    private final SimpleStorageService storageService;
+
+    /**
+     * Deploy a new SimpleStorage contract
+     * @return the address of the deployed contract
+     */
+    @PostMapping("/deploy")
+    public Mono<ResponseEntity<Map<String, String>>> deployContract() {
+        return Mono.fromFuture(storageService::deployContract)
+                .map(address -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("contractAddress", address);
+                    return ResponseEntity.ok(response);
+                });
+    }
+
+    /**
+     * Load an existing contract
+     * @param address the address of the contract to load
+     * @return a success message
+     */
+    @PostMapping("/load")
+    public Mono<ResponseEntity<Map<String, String>>> loadContract(@RequestParam String address) {
+        return Mono.fromRunnable(() -> storageService.loadContract(address))
+                .then(Mono.fromSupplier(() -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("message", "Contract loaded successfully");
+                    response.put("contractAddress", address);
+                    return ResponseEntity.ok(response);
+                }));
+    }
+
+    /**
+     * Get the current value stored in the contract
+     * @return the stored value
+     */
+    @GetMapping("/value/get")
+    public Mono<ResponseEntity<Map<String, String>>> getValue() {
+        return Mono.fromFuture(storageService::getValue)
+                .map(value -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("value", value.toString());
+                    response.put("contractAddress", storageService.getContractAddress());
+                    return ResponseEntity.ok(response);
+                });
+    }
+
+    /**
+     * Set a new value in the contract
+     * @param value the new value to store
+     * @return the transaction receipt details
+     */
+    @PostMapping("/value/set")
+    public Mono<ResponseEntity<Map<String, String>>> setValue(@RequestParam String value) {
+        BigInteger intValue = new BigInteger(value);
+        return Mono.fromFuture(() -> storageService.setValue(intValue))
+                .map(receipt -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("transactionHash", receipt.getTransactionHash());
+                    response.put("blockNumber", receipt.getBlockNumber().toString());
+                    response.put("gasUsed", receipt.getGasUsed().toString());
+                    response.put("status", receipt.getStatus());
+                    response.put("contractAddress", storageService.getContractAddress());
+                    return ResponseEntity.ok(response);
+                });
+    }
+
+    /**
+     * Get the address of the currently loaded contract
+     * @return the contract address
+     */
+    @GetMapping("/address")
+    public Mono<ResponseEntity<Map<String, String>>> getContractAddress() {
+        return Mono.fromSupplier(() -> {
+            String address = storageService.getContractAddress();
+            Map<String, String> response = new HashMap<>();
+            if (address != null) {
+                response.put("contractAddress", address);
+            } else {
+                response.put("message", "No contract loaded");
+            }
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    /**
+     * Stream DataChanged events as Server-Sent Events
+     * @param fromBlock the first block to include (latest, earliest or a block number)
+     * @return one message per event
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<Map<String, String>> dataChangedEvents(@RequestParam(defaultValue = "latest") String fromBlock) {
+        return Flux.defer(() -> Flux.from(storageService.dataChangedEvents(BlockParameters.parse(fromBlock))))
+                .map(this::dataChangedEventResponse);
+    }
+
+    private Map<String, String> dataChangedEventResponse(SimpleStorage.DataChangedEventResponse event) {
+        Map<String, String> response = new HashMap<>();
+        response.put("newValue", event.newValue.toString());
+        response.put("transactionHash", event.log.getTransactionHash());
+        response.put("blockNumber", event.log.getBlockNumber().toString());
+        return response;
+    }
+}
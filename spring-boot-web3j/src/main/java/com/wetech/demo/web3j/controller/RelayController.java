@@ -0,0 +1,85 @@
+package com.wetech.demo.web3j.controller;
+
+import com.wetech.demo.web3j.dto.RelayRequest;
+import com.wetech.demo.web3j.dto.RelayStatusResponse;
+import com.wetech.demo.web3j.dto.TransactionStatusResponse;
+import com.wetech.demo.web3j.relay.RelayJob;
+import com.wetech.demo.web3j.service.JYMTokenService;
+import com.wetech.demo.web3j.service.RelayService;
+import com.wetech.demo.web3j.tx.TransactionRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * JYMToken 代付接口：用户签名 permit，中继账户代为提交 permit 并执行 transferFrom
+ *
+ * - 提交：POST /api/relay
+ * - 查询：GET /api/relay/{id}
+ * - 中继账户：GET /api/relay/relayers
+ */
+@RestController
+@RequestMapping("/api/relay")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RelayController {
+
+    private final RelayService relayService;
+    private final JYMTokenService jymTokenService;
+    private final TransactionRegistry transactionRegistry;
+
+    /**
+     * 提交一批代付请求
+     * POST /api/relay
+     *
+     * 请求体为数组，每项包含 permit（spender 必须是中继账户之一）、to 和 amount。
+     * 请求立即返回：校验未通过的为 FAILED，其余为 QUEUED，之后按 id 查询进度。
+     *
+     * @param requests 代付请求
+     * @return 每个请求的任务状态，与请求顺序一致
+     */
+    @PostMapping
+    public CompletableFuture<ResponseEntity<List<RelayStatusResponse>>> submit(
+            @RequestBody List<RelayRequest> requests) {
+        return relayService.submit(jymTokenService.getContractAddress(), requests)
+                .thenApply(jobs -> ResponseEntity.ok(jobs.stream().map(this::status).toList()));
+    }
+
+    /**
+     * 查询代付进度，包括 permit 和 transferFrom 两笔交易各自的状态
+     * GET /api/relay/{id}
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<RelayStatusResponse> getStatus(@PathVariable String id) {
+        return relayService.find(id)
+                .map(job -> ResponseEntity.ok(status(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 列出中继账户，用户签名 permit 时以其中之一为 spender
+     * GET /api/relay/relayers
+     */
+    @GetMapping("/relayers")
+    public ResponseEntity<List<String>> getRelayers() {
+        return ResponseEntity.ok(relayService.getRelayers());
+    }
+
+    private RelayStatusResponse status(RelayJob job) {
+        long head = transactionRegistry.getHead();
+        return RelayStatusResponse.of(job, leg(job.getPermitHash(), head), leg(job.getTransferHash(), head));
+    }
+
+    private TransactionStatusResponse leg(String hash, long head) {
+        if (hash == null) {
+            return null;
+        }
+        return transactionRegistry.find(hash)
+                .map(tx -> TransactionStatusResponse.of(tx, head))
+                .orElse(null);
+    }
+}
@@ -0,0 +1,32 @@
+package com.wetech.demo.web3j.controller;
+
+import com.wetech.demo.web3j.rpc.RpcOverloadedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 出站 RPC 过载时返回 503 + Retry-After，而不是让请求一直挂到超时
+ */
+@Slf4j
+@RestControllerAdvice
+public class RpcExceptionHandler {
+
+    @ExceptionHandler(RpcOverloadedException.class)
+    public ResponseEntity<Map<String, String>> handleOverloaded(RpcOverloadedException e) {
+        log.warn("Shedding request: {}", e.getMessage());
+        long retryAfterSeconds = Math.max(1, e.getRetryAfter().toSeconds());
+        Map<String, String> response = new HashMap<>();
+        response.put("message", e.getMessage());
+        response.put("bulkhead", e.getBulkhead());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .body(response);
+    }
+}
@@ -1,13 +1,18 @@
 package com.wetech.demo.web3j.controller;
 
+import com.wetech.demo.web3j.dto.TransactionStatusResponse;
 import com.wetech.demo.web3j.service.SimpleStorageService;
+import com.wetech.demo.web3j.tx.TransactionRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigInteger;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -15,9 +20,12 @@ import java.util.concurrent.CompletableFuture;
 @RestController
 @RequestMapping("/api/storage")
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SimpleStorageController {
 
     private final SimpleStorageService storageService;
+    private final BlockETags blockETags;
+    private final TransactionRegistry transactionRegistry;
 
     /**
      * Deploy a new SimpleStorage contract
@@ -48,18 +56,20 @@ public class SimpleStorageController {
     }
 
     /**
-     * Get the current value stored in the contract
+     * Get the current value stored in the contract.
+     * Answers 304 to a matching If-None-Match while the chain head has not moved.
      * @return the stored value
      */
     @GetMapping("/value/get")
-    public CompletableFuture<ResponseEntity<Map<String, String>>> getValue() {
-        return storageService.getValue()
+    public CompletableFuture<ResponseEntity<Map<String, String>>> getValue(WebRequest webRequest) {
+        String contractAddress = storageService.getContractAddress();
+        return blockETags.conditional(webRequest, contractAddress, block -> storageService.getValue(block)
                 .thenApply(value -> {
                     Map<String, String> response = new HashMap<>();
                     response.put("value", value.toString());
-                    response.put("contractAddress", storageService.getContractAddress());
-                    return ResponseEntity.ok(response);
-                });
+                    response.put("contractAddress", contractAddress);
+                    return response;
+                }));
     }
 
     /**
@@ -82,6 +92,30 @@ public class SimpleStorageController {
                 });
     }
 
+    /**
+     * Look up a transaction this service submitted to the storage contract
+     * @param hash the transaction hash
+     * @return its current state, or 404 if unknown or already evicted
+     */
+    @GetMapping("/tx/{hash}")
+    public ResponseEntity<TransactionStatusResponse> getTransaction(@PathVariable String hash) {
+        return transactionRegistry.find(hash, storageService.getContractAddress())
+                .map(tx -> ResponseEntity.ok(TransactionStatusResponse.of(tx, transactionRegistry.getHead())))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * List recent transactions sent to the storage contract, newest first
+     * @return their current states
+     */
+    @GetMapping("/tx")
+    public ResponseEntity<List<TransactionStatusResponse>> listTransactions() {
+        long head = transactionRegistry.getHead();
+        return ResponseEntity.ok(transactionRegistry.findByContract(storageService.getContractAddress()).stream()
+                .map(tx -> TransactionStatusResponse.of(tx, head))
+                .toList());
+    }
+
     /**
      * Get the address of the currently loaded contract
      * @return the contract address
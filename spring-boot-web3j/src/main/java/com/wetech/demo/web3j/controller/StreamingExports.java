@@ -0,0 +1,119 @@
+package com.wetech.demo.web3j.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wetech.demo.web3j.dto.BalanceRow;
+import com.wetech.demo.web3j.service.BalanceExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * 流式导出接口的公共部分：NDJSON/CSV 逐行输出，每 FLUSH_EVERY 行刷新一次
+ *
+ * JYMToken 接口和按地址访问的 ERC20 接口共用
+ */
+@Component
+@RequiredArgsConstructor
+class StreamingExports {
+
+    private static final int FLUSH_EVERY = 256;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private final BalanceExportService balanceExportService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 数据源：把每个元素交给 sink，读取过程中可以抛出 IOException
+     */
+    @FunctionalInterface
+    interface Source<T> {
+        void forEach(Consumer<T> sink) throws IOException;
+    }
+
+    /**
+     * @param source 逐个产生元素，每个元素写成一行 JSON
+     */
+    <T> StreamingResponseBody ndjson(Source<T> source) {
+        return out -> {
+            long[] written = {0};
+            source.forEach(value -> {
+                try {
+                    writeLine(out, value);
+                    if (++written[0] % FLUSH_EVERY == 0) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+    }
+
+    /**
+     * 按快照导出请求体中每个地址的余额
+     *
+     * @param snapshot 导出快照（合约 + 区块号）
+     * @param body     地址列表，每行一个，或首列为地址的 CSV
+     * @param csv      true 时输出 CSV，否则输出 NDJSON
+     */
+    ResponseEntity<StreamingResponseBody> balances(BalanceExportService.Snapshot snapshot, InputStream body,
+                                                   boolean csv) {
+        StreamingResponseBody stream = out -> {
+            if (csv) {
+                out.write(BalanceRow.CSV_HEADER.getBytes(StandardCharsets.US_ASCII));
+            }
+            long[] written = {0};
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            balanceExportService.exportBalances(snapshot, addresses(reader), row -> {
+                try {
+                    if (csv) {
+                        out.write(row.toCsv().getBytes(StandardCharsets.UTF_8));
+                    } else {
+                        writeLine(out, row);
+                    }
+                    if (++written[0] % FLUSH_EVERY == 0) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+        return ResponseEntity.ok()
+                .contentType(csv ? CSV : NDJSON)
+                .header("X-Block-Number", snapshot.blockNumber().toString())
+                .body(stream);
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write('\n');
+    }
+
+    /**
+     * 逐行读取地址：取每行第一列，跳过空行和表头
+     */
+    private static Iterator<String> addresses(BufferedReader reader) {
+        return reader.lines()
+                .map(line -> {
+                    int comma = line.indexOf(',');
+                    String first = comma < 0 ? line : line.substring(0, comma);
+                    return first.replace("\"", "").trim();
+                })
+                .filter(address -> !address.isEmpty() && !"address".equalsIgnoreCase(address))
+                .iterator();
+    }
+}
@@ -0,0 +1,22 @@
+package com.wetech.demo.web3j.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+import java.math.BigInteger;
+
+/**
+ * 授权额度查询响应
+ */
+public record AllowanceResponse(
+        String owner,
+        String spender,
+        @JsonSerialize(using = ToStringSerializer.class) BigInteger allowance,
+        String contractAddress) {
+
+    @JsonProperty
+    public String allowanceReadable() {
+        return TokenAmounts.readable(allowance);
+    }
+}
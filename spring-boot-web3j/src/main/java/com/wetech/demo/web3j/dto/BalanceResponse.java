@@ -0,0 +1,21 @@
+package com.wetech.demo.web3j.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+import java.math.BigInteger;
+
+/**
+ * 余额查询响应
+ */
+public record BalanceResponse(
+        String address,
+        @JsonSerialize(using = ToStringSerializer.class) BigInteger balance,
+        String contractAddress) {
+
+    @JsonProperty
+    public String balanceReadable() {
+        return TokenAmounts.readable(balance);
+    }
+}
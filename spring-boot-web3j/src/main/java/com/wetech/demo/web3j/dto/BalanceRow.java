@@ -0,0 +1,30 @@
+package com.wetech.demo.web3j.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+import java.math.BigInteger;
+
+/**
+ * 批量余额导出中的一行；查询失败时 balance 为空、error 给出原因
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BalanceRow(
+        String address,
+        @JsonSerialize(using = ToStringSerializer.class) BigInteger balance,
+        String error) {
+
+    public static final String CSV_HEADER = "address,balance,error\n";
+
+    public static BalanceRow failed(String address, String error) {
+        return new BalanceRow(address, null, error);
+    }
+
+    public String toCsv() {
+        if (error == null) {
+            return address + ',' + balance + ",\n";
+        }
+        return address + ",,\"" + error.replace("\"", "\"\"") + "\"\n";
+    }
+}
@@ -0,0 +1,26 @@
+package com.wetech.demo.web3j.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * 合约加载 / 当前合约地址的响应
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ContractResponse(String contractAddress, String message) {
+
+    public static final String LOADED = "Contract loaded successfully";
+    public static final String NOT_LOADED = "No contract loaded";
+
+    private static final ContractResponse NONE = new ContractResponse(null, NOT_LOADED);
+
+    public static ContractResponse loaded(String contractAddress) {
+        return new ContractResponse(contractAddress, LOADED);
+    }
+
+    /**
+     * @param contractAddress 当前合约地址，未加载时为 null
+     */
+    public static ContractResponse current(String contractAddress) {
+        return contractAddress != null ? new ContractResponse(contractAddress, null) : NONE;
+    }
+}
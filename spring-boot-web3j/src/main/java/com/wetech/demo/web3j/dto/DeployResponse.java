@@ -0,0 +1,16 @@
+package com.wetech.demo.web3j.dto;
+
+/**
+ * 部署合约的响应，除合约地址外都是常量
+ */
+public record DeployResponse(String contractAddress, String message, String initialSupply,
+                             String tokenName, String tokenSymbol) {
+
+    public static final String DEPLOYED = "JYMToken contract deployed successfully";
+    public static final String INITIAL_SUPPLY = "1000000000000000000000000"; // 1M * 10^18
+    public static final String TOKEN_NAME = "JYMToken";
+
+    public static DeployResponse of(String contractAddress) {
+        return new DeployResponse(contractAddress, DEPLOYED, INITIAL_SUPPLY, TOKEN_NAME, TokenAmounts.SYMBOL);
+    }
+}
@@ -0,0 +1,21 @@
+package com.wetech.demo.web3j.dto;
+
+import java.math.BigInteger;
+
+/**
+ * 待校验的一条用户签名 permit（EIP-2612）
+ *
+ * 签名可以整体给出（signature，65 字节 r ‖ s ‖ v 的十六进制），也可以分别给出 v/r/s；两者都有时以 signature 为准。
+ * 数值字段既可以是 JSON 数字，也可以是十进制字符串。
+ */
+public record PermitRequest(
+        String owner,
+        String spender,
+        BigInteger value,
+        BigInteger nonce,
+        BigInteger deadline,
+        Integer v,
+        String r,
+        String s,
+        String signature) {
+}
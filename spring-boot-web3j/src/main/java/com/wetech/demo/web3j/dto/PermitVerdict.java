@@ -0,0 +1,54 @@
+package com.wetech.demo.web3j.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+import java.math.BigInteger;
+
+/**
+ * 一条 permit 的离线校验结果；无效时 reason 给出第一个不满足的条件
+ *
+ * @param index  在请求数组中的下标
+ * @param signer 从签名恢复出的地址，签名无法恢复时为空
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PermitVerdict(
+        int index,
+        String owner,
+        @JsonSerialize(using = ToStringSerializer.class) BigInteger nonce,
+        String signer,
+        boolean valid,
+        Reason reason) {
+
+    public enum Reason {
+        /** 缺少字段、地址格式错误或数值超出 uint256 */
+        MALFORMED,
+        /** deadline 早于当前时间 */
+        EXPIRED,
+        /** v 不是 27/28、r 或 s 为 0、r 不小于曲线阶、s 不在低半区（合约的 ECDSA.recover 会拒绝），或无法恢复出公钥 */
+        INVALID_SIGNATURE,
+        /** 恢复出的地址不是 owner */
+        SIGNER_MISMATCH,
+        /** nonce 小于 owner 当前的 nonce，已被使用 */
+        NONCE_USED,
+        /** 没能取得 owner 当前的 nonce */
+        NONCE_UNKNOWN,
+        /** 同一批中已有相同 owner 和 nonce 的有效 permit */
+        DUPLICATE_NONCE,
+        /** nonce 与 owner 当前的 nonce 之间有批内没有的 nonce，前面的 permit 不上链就无法提交 */
+        NONCE_GAP
+    }
+
+    public static PermitVerdict valid(int index, PermitRequest permit, String signer) {
+        return new PermitVerdict(index, permit.owner(), permit.nonce(), signer, true, null);
+    }
+
+    public static PermitVerdict invalid(int index, PermitRequest permit, String signer, Reason reason) {
+        return new PermitVerdict(index, permit.owner(), permit.nonce(), signer, false, reason);
+    }
+
+    public PermitVerdict reject(Reason reason) {
+        return new PermitVerdict(index, owner, nonce, signer, false, reason);
+    }
+}
@@ -0,0 +1,14 @@
+package com.wetech.demo.web3j.dto;
+
+import java.math.BigInteger;
+
+/**
+ * 代付请求：用户签名的 permit（spender 为某个中继账户），以及随后由中继账户执行的 transferFrom(owner, to, amount)
+ *
+ * @param amount 转出数量，不能超过 permit.value
+ */
+public record RelayRequest(
+        PermitRequest permit,
+        String to,
+        BigInteger amount) {
+}
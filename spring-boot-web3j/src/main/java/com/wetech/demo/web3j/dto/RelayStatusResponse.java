@@ -0,0 +1,42 @@
+package com.wetech.demo.web3j.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.wetech.demo.web3j.relay.RelayJob;
+import com.wetech.demo.web3j.relay.RelayState;
+
+import java.math.BigInteger;
+import java.time.Instant;
+
+/**
+ * 代付请求状态，附带 permit 和 transferFrom 两笔交易各自的状态
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RelayStatusResponse(
+        String id,
+        RelayState state,
+        String contractAddress,
+        String owner,
+        String spender,
+        String to,
+        @JsonSerialize(using = ToStringSerializer.class) BigInteger amount,
+        @JsonSerialize(using = ToStringSerializer.class) BigInteger nonce,
+        String error,
+        TransactionStatusResponse permit,
+        TransactionStatusResponse transferFrom,
+        Instant createdAt,
+        Instant updatedAt) {
+
+    /**
+     * @param permit       permit 交易的状态，尚未提交或已不在注册表中时为 null
+     * @param transferFrom transferFrom 交易的状态，同上
+     */
+    public static RelayStatusResponse of(RelayJob job, TransactionStatusResponse permit,
+                                         TransactionStatusResponse transferFrom) {
+        return new RelayStatusResponse(job.getId(), job.getState(), job.getContractAddress(), job.getOwner(),
+                job.getSpender(), job.getTo(), job.getAmount(),
+                job.getPermit() == null ? null : job.getPermit().nonce(), job.getError(),
+                permit, transferFrom, job.getCreatedAt(), job.getUpdatedAt());
+    }
+}
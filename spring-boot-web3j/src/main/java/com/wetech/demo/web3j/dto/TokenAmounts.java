@@ -0,0 +1,31 @@
+package com.wetech.demo.web3j.dto;
+
+import java.math.BigInteger;
+
+/**
+ * JYM 数量换算
+ */
+public final class TokenAmounts {
+
+    public static final int DECIMALS = 18;
+
+    /**
+     * 1 JYM = 10^18 最小单位，预先算好，避免每次换算都执行 pow
+     */
+    public static final BigInteger ONE_TOKEN = BigInteger.TEN.pow(DECIMALS);
+
+    public static final String SYMBOL = "JYM";
+
+    private static final String SUFFIX = " " + SYMBOL;
+
+    private TokenAmounts() {
+    }
+
+    /**
+     * @param raw 最小单位数量
+     * @return 整数部分 + 单位，如 "100 JYM"
+     */
+    public static String readable(BigInteger raw) {
+        return raw.divide(ONE_TOKEN) + SUFFIX;
+    }
+}
@@ -0,0 +1,16 @@
+package com.wetech.demo.web3j.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+import java.math.BigInteger;
+
+/**
+ * 代币元数据响应
+ */
+public record TokenInfoResponse(
+        String name,
+        String symbol,
+        @JsonSerialize(using = ToStringSerializer.class) BigInteger decimals,
+        String contractAddress) {
+}
@@ -0,0 +1,20 @@
+package com.wetech.demo.web3j.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+import java.math.BigInteger;
+
+/**
+ * 总供应量查询响应
+ */
+public record TotalSupplyResponse(
+        @JsonSerialize(using = ToStringSerializer.class) BigInteger totalSupply,
+        String contractAddress) {
+
+    @JsonProperty
+    public String totalSupplyReadable() {
+        return TokenAmounts.readable(totalSupply);
+    }
+}
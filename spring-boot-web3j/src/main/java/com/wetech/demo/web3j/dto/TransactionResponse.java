@@ -0,0 +1,47 @@
+package com.wetech.demo.web3j.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.Builder;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import java.math.BigInteger;
+
+/**
+ * 写操作（mint、transfer、approve、transferFrom、burn、permit）的交易回执响应
+ *
+ * 各接口只填写与自己相关的参数字段，未填写的字段不输出。
+ */
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TransactionResponse(
+        String transactionHash,
+        @JsonSerialize(using = ToStringSerializer.class) BigInteger blockNumber,
+        @JsonSerialize(using = ToStringSerializer.class) BigInteger gasUsed,
+        String status,
+        String from,
+        String to,
+        String spender,
+        String amount,
+        String nonce,
+        String deadline,
+        String message,
+        String contractAddress) {
+
+    public static final String MINTED = "Tokens minted to caller address";
+    public static final String BURNED = "Tokens burned from caller address";
+    public static final String PERMITTED = "Permit signed by managed key and submitted";
+
+    /**
+     * 以回执中的公共字段初始化 builder
+     */
+    public static TransactionResponseBuilder of(TransactionReceipt receipt, String contractAddress) {
+        return builder()
+                .transactionHash(receipt.getTransactionHash())
+                .blockNumber(receipt.getBlockNumber())
+                .gasUsed(receipt.getGasUsed())
+                .status(receipt.getStatus())
+                .contractAddress(contractAddress);
+    }
+}
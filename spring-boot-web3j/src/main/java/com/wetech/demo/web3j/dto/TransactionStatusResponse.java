@@ -0,0 +1,45 @@
+package com.wetech.demo.web3j.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.wetech.demo.web3j.tx.TrackedTransaction;
+import com.wetech.demo.web3j.tx.TransactionState;
+
+import java.math.BigInteger;
+import java.time.Instant;
+
+/**
+ * 交易状态查询响应
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TransactionStatusResponse(
+        String transactionHash,
+        TransactionState state,
+        long confirmations,
+        String from,
+        String to,
+        @JsonSerialize(using = ToStringSerializer.class) BigInteger nonce,
+        @JsonSerialize(using = ToStringSerializer.class) BigInteger blockNumber,
+        @JsonSerialize(using = ToStringSerializer.class) BigInteger gasUsed,
+        @JsonSerialize(using = ToStringSerializer.class) BigInteger gasLimit,
+        @JsonSerialize(using = ToStringSerializer.class) BigInteger effectiveGasPrice,
+        @JsonSerialize(using = ToStringSerializer.class) BigInteger fee,
+        String contractAddress,
+        String revertReason,
+        String error,
+        String replacedBy,
+        Instant submittedAt,
+        Instant updatedAt) {
+
+    /**
+     * @param head 当前链头，用于计算确认数
+     */
+    public static TransactionStatusResponse of(TrackedTransaction tx, long head) {
+        return new TransactionStatusResponse(tx.getHash(), tx.getState(), tx.confirmations(head),
+                tx.getFrom(), tx.getTo(), tx.getNonce(), tx.getBlockNumber(), tx.getGasUsed(),
+                tx.getGasLimit(), tx.getEffectiveGasPrice(), tx.fee(),
+                tx.getContractAddress(), tx.getRevertReason(), tx.getError(), tx.getReplacedBy(),
+                tx.getSubmittedAt(), tx.getUpdatedAt());
+    }
+}
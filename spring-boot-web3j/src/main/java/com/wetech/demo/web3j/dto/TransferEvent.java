@@ -0,0 +1,29 @@
+package com.wetech.demo.web3j.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.wetech.demo.web3j.contracts.ierc20metadata.IERC20Metadata;
+import com.wetech.demo.web3j.contracts.jymtoken.JYMToken;
+
+import java.math.BigInteger;
+
+/**
+ * Transfer 事件（事件流与历史导出共用）
+ */
+public record TransferEvent(
+        String from,
+        String to,
+        @JsonSerialize(using = ToStringSerializer.class) BigInteger value,
+        String transactionHash,
+        @JsonSerialize(using = ToStringSerializer.class) BigInteger blockNumber) {
+
+    public static TransferEvent of(JYMToken.TransferEventResponse event) {
+        return new TransferEvent(event.from, event.to, event.value,
+                event.log.getTransactionHash(), event.log.getBlockNumber());
+    }
+
+    public static TransferEvent of(IERC20Metadata.TransferEventResponse event) {
+        return new TransferEvent(event.from, event.to, event.value,
+                event.log.getTransactionHash(), event.log.getBlockNumber());
+    }
+}
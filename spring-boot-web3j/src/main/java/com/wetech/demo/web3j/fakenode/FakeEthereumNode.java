@@ -0,0 +1,493 @@
+package com.wetech.demo.web3j.fakenode;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.wetech.demo.web3j.contracts.jymtoken.JYMToken;
+import com.wetech.demo.web3j.fakenode.FakeChain.ChainLog;
+import com.wetech.demo.web3j.fakenode.FakeChain.FakeBlock;
+import com.wetech.demo.web3j.fakenode.FakeChain.FakeTransaction;
+import com.wetech.demo.web3j.fakenode.FakeChain.LogQuery;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.crypto.Sign;
+import org.web3j.crypto.transaction.type.Transaction1559;
+import org.web3j.utils.Numeric;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内的以太坊 JSON-RPC 模拟节点，只监听回环地址，用于压测和延迟测试
+ *
+ * 实现 JYMToken 的 ERC20 / permit 语义（见 {@link FakeToken}）以及应用用到的 RPC 方法：
+ * eth_call、eth_estimateGas、eth_sendRawTransaction、交易和回执查询、区块查询、eth_getLogs 和过滤器。
+ * 交易签名会被校验并恢复发送方，nonce 规则与 geth 一致；部署 JYMToken 的交易会创建一个模拟合约。
+ *
+ * 可配置出块间隔、延迟分布、错误注入和限流（{@link FakeNodeSettings}），请求在虚拟线程上处理，
+ * 延迟用 sleep 模拟，不占用平台线程。测试中直接使用：
+ * <pre>
+ * try (FakeEthereumNode node = new FakeEthereumNode(FakeNodeSettings.builder().build()).start()) {
+ *     Web3j web3j = Web3j.build(new HttpService(node.getUrl()));
+ * }
+ * </pre>
+ */
+@Slf4j
+public class FakeEthereumNode implements AutoCloseable {
+
+    private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+    private static final String CLIENT_VERSION = "FakeEthereumNode/1.0";
+    private static final BigInteger PRIORITY_FEE = BigInteger.valueOf(1_000_000_000L);
+    private static final String EMPTY_BLOOM = Numeric.toHexString(new byte[256]);
+    private static final String EMPTY_ROOT = Numeric.toHexString(new byte[32]);
+    private static final String ZERO_ADDRESS = "0x0000000000000000000000000000000000000000";
+    private static final long BLOCK_GAS_LIMIT = 30_000_000;
+
+    private static final int PARSE_ERROR = -32700;
+    private static final int METHOD_NOT_FOUND = -32601;
+    private static final int INTERNAL_ERROR = -32603;
+    private static final int LIMIT_EXCEEDED = -32005;
+
+    /**
+     * p99 在标准正态分布中的分位点
+     */
+    private static final double Z_99 = 2.3263;
+
+    private final FakeNodeSettings settings;
+    private final FakeChain chain;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonNodeFactory nodes = JsonNodeFactory.instance;
+    private final double latencySigma;
+
+    private HttpServer server;
+    private ExecutorService handlers;
+    private ScheduledExecutorService miner;
+
+    /**
+     * 限流令牌桶，容量为一秒的配额
+     */
+    private double tokens;
+    private long refilledAt;
+
+    @Getter
+    private int port;
+
+    public FakeEthereumNode(FakeNodeSettings settings) {
+        this.settings = settings;
+        this.chain = new FakeChain(settings.getChainId(), settings.getBaseFeePerGas(),
+                settings.getBlockTime().isZero());
+        long median = settings.getLatencyMedian().toNanos();
+        long p99 = settings.getLatencyP99().toNanos();
+        this.latencySigma = median > 0 && p99 > median ? Math.log((double) p99 / median) / Z_99 : 0;
+        this.tokens = settings.getMaxRequestsPerSecond();
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * 开始监听并按出块间隔出块
+     */
+    public FakeEthereumNode start() throws IOException {
+        // JDK HttpServer 分两次写响应头和响应体，不关 Nagle 时每个响应都要等对端的延迟 ACK（约 40ms）；
+        // 该属性在 HttpServer 首次使用时读取
+        if (System.getProperty(NODELAY_PROPERTY) == null) {
+            System.setProperty(NODELAY_PROPERTY, "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), settings.getPort()), 1024);
+        handlers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("fake-node-", 0).factory());
+        server.setExecutor(handlers);
+        server.createContext("/", this::handle);
+        server.start();
+        port = server.getAddress().getPort();
+
+        Duration blockTime = settings.getBlockTime();
+        if (!blockTime.isZero()) {
+            miner = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("fake-node-miner").daemon(true).factory());
+            miner.scheduleAtFixedRate(chain::mine, blockTime.toMillis(), blockTime.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        log.info("Fake Ethereum node listening on {} (chainId {}, block time {}, latency p50/p99 {}/{}, "
+                        + "error rate {}, http error rate {}, max {} req/s)", getUrl(), settings.getChainId(),
+                blockTime.isZero() ? "automine" : blockTime, settings.getLatencyMedian(), settings.getLatencyP99(),
+                settings.getErrorRate(), settings.getHttpErrorRate(), settings.getMaxRequestsPerSecond());
+        return this;
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + port;
+    }
+
+    public long getBlockNumber() {
+        return chain.blockNumber();
+    }
+
+    /**
+     * 立即打包待打包交易出一个块，供测试控制出块时机
+     */
+    public void mine() {
+        chain.mine();
+    }
+
+    @Override
+    public void close() {
+        if (miner != null) {
+            miner.shutdownNow();
+        }
+        if (server != null) {
+            server.stop(0);
+        }
+        if (handlers != null) {
+            handlers.shutdownNow();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            JsonNode request;
+            try {
+                request = objectMapper.readTree(exchange.getRequestBody());
+            } catch (IOException e) {
+                respond(exchange, 200, error(NullNode.getInstance(), PARSE_ERROR, "parse error", null));
+                return;
+            }
+            int calls = request.isArray() ? Math.max(request.size(), 1) : 1;
+            if (!acquire(calls)) {
+                JsonNode id = request.isArray() ? NullNode.getInstance() : request.path("id");
+                respond(exchange, 429, error(id, LIMIT_EXCEEDED, "rate limit exceeded", null));
+                return;
+            }
+            if (chance(settings.getHttpErrorRate())) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            sleepLatency();
+
+            JsonNode response;
+            if (request.isArray()) {
+                ArrayNode responses = nodes.arrayNode(request.size());
+                request.forEach(call -> responses.add(call(call)));
+                response = responses;
+            } else {
+                response = call(request);
+            }
+            respond(exchange, 200, response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private synchronized boolean acquire(int calls) {
+        int limit = settings.getMaxRequestsPerSecond();
+        if (limit <= 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        tokens = Math.min(limit, tokens + (now - refilledAt) * limit / 1e9);
+        refilledAt = now;
+        // 超过桶容量的批量请求最多扣满一秒的配额，否则永远拿不到足够的令牌
+        int cost = Math.min(calls, limit);
+        if (tokens < cost) {
+            return false;
+        }
+        tokens -= cost;
+        return true;
+    }
+
+    private void sleepLatency() throws InterruptedException {
+        long median = settings.getLatencyMedian().toNanos();
+        if (median <= 0) {
+            return;
+        }
+        double factor = latencySigma > 0 ? Math.exp(latencySigma * ThreadLocalRandom.current().nextGaussian()) : 1;
+        TimeUnit.NANOSECONDS.sleep((long) (median * factor));
+    }
+
+    private static boolean chance(double probability) {
+        return probability > 0 && ThreadLocalRandom.current().nextDouble() < probability;
+    }
+
+    private JsonNode call(JsonNode call) {
+        JsonNode id = call.path("id");
+        if (chance(settings.getErrorRate())) {
+            return error(id, INTERNAL_ERROR, "injected error", null);
+        }
+        String method = call.path("method").asText();
+        try {
+            ObjectNode response = nodes.objectNode();
+            response.put("jsonrpc", "2.0");
+            response.set("id", id);
+            response.set("result", dispatch(method, call.path("params")));
+            return response;
+        } catch (FakeRpcException e) {
+            return error(id, e.getCode(), e.getMessage(), e.getData());
+        } catch (RuntimeException e) {
+            log.debug("Fake node failed to handle {}", method, e);
+            return error(id, INTERNAL_ERROR, String.valueOf(e.getMessage()), null);
+        }
+    }
+
+    private ObjectNode error(JsonNode id, int code, String message, String data) {
+        ObjectNode error = nodes.objectNode();
+        error.put("code", code);
+        error.put("message", message);
+        if (data != null) {
+            error.put("data", data);
+        }
+        ObjectNode response = nodes.objectNode();
+        response.put("jsonrpc", "2.0");
+        response.set("id", id.isMissingNode() ? NullNode.getInstance() : id);
+        response.set("error", error);
+        return response;
+    }
+
+    private JsonNode dispatch(String method, JsonNode params) throws FakeRpcException {
+        return switch (method) {
+            case "web3_clientVersion" -> text(CLIENT_VERSION);
+            case "net_version" -> text(String.valueOf(settings.getChainId()));
+            case "eth_chainId" -> quantity(BigInteger.valueOf(settings.getChainId()));
+            case "eth_blockNumber" -> quantity(BigInteger.valueOf(chain.blockNumber()));
+            case "eth_syncing" -> nodes.booleanNode(false);
+            case "eth_gasPrice" -> quantity(settings.getBaseFeePerGas().add(PRIORITY_FEE));
+            case "eth_maxPriorityFeePerGas" -> quantity(PRIORITY_FEE);
+            case "eth_getBalance" -> quantity(settings.getAccountBalance());
+            case "eth_getCode" -> text(chain.isContract(param(params, 0)) ? JYMToken.BINARY : "0x");
+            case "eth_getTransactionCount" -> quantity(chain.nonce(param(params, 0), optional(params, 1, "latest")));
+            case "eth_call" -> text(execute(params).output());
+            case "eth_estimateGas" -> quantity(BigInteger.valueOf(execute(params).gasUsed()));
+            case "eth_sendRawTransaction" -> text(chain.submit(param(params, 0)));
+            case "eth_getTransactionByHash" -> transaction(chain.transaction(param(params, 0)));
+            case "eth_getTransactionReceipt" -> receipt(chain.transaction(param(params, 0)));
+            case "eth_getBlockByNumber" -> block(chain.block(param(params, 0)), params.path(1).asBoolean());
+            case "eth_getBlockByHash" -> block(chain.blockByHash(param(params, 0)), params.path(1).asBoolean());
+            case "eth_getLogs" -> logs(chain.logs(logQuery(params.path(0))));
+            case "eth_newFilter" -> text(chain.newLogFilter(logQuery(params.path(0))));
+            case "eth_newBlockFilter" -> text(chain.newBlockFilter());
+            case "eth_newPendingTransactionFilter" -> text(chain.newPendingTransactionFilter());
+            case "eth_getFilterChanges" -> filterChanges(chain.filterChanges(param(params, 0)));
+            case "eth_getFilterLogs" -> logs(chain.filterLogs(param(params, 0)));
+            case "eth_uninstallFilter" -> nodes.booleanNode(chain.uninstallFilter(param(params, 0)));
+            default -> throw new FakeRpcException(METHOD_NOT_FOUND,
+                    "the method " + method + " does not exist/is not available");
+        };
+    }
+
+    /**
+     * eth_call / eth_estimateGas：回滚时按 geth 的格式返回错误码 3 和回滚数据
+     */
+    private FakeToken.Outcome execute(JsonNode params) throws FakeRpcException {
+        JsonNode call = params.path(0);
+        if (!call.isObject()) {
+            throw new FakeRpcException(FakeRpcException.INVALID_PARAMS, "missing value for required argument 0");
+        }
+        String data = call.hasNonNull("input") ? call.get("input").asText() : call.path("data").asText("0x");
+        FakeToken.Outcome outcome = chain.call(textOrNull(call, "from"), textOrNull(call, "to"), data);
+        if (!outcome.success()) {
+            throw new FakeRpcException(FakeRpcException.EXECUTION_REVERTED, "execution reverted",
+                    outcome.output());
+        }
+        return outcome;
+    }
+
+    private static LogQuery logQuery(JsonNode filter) {
+        Set<String> addresses = new HashSet<>();
+        JsonNode address = filter.path("address");
+        if (address.isArray()) {
+            address.forEach(value -> addresses.add(value.asText().toLowerCase()));
+        } else if (address.isTextual()) {
+            addresses.add(address.asText().toLowerCase());
+        }
+        List<Set<String>> topics = new ArrayList<>();
+        for (JsonNode topic : filter.path("topics")) {
+            if (topic.isNull()) {
+                topics.add(null);
+            } else if (topic.isArray()) {
+                Set<String> any = new HashSet<>();
+                topic.forEach(value -> any.add(value.asText().toLowerCase()));
+                topics.add(any);
+            } else {
+                topics.add(Set.of(topic.asText().toLowerCase()));
+            }
+        }
+        return new LogQuery(textOrNull(filter, "fromBlock"), textOrNull(filter, "toBlock"),
+                textOrNull(filter, "blockHash"), addresses, topics);
+    }
+
+    private JsonNode filterChanges(List<?> changes) {
+        ArrayNode result = nodes.arrayNode(changes.size());
+        for (Object change : changes) {
+            result.add(change instanceof ChainLog log ? log(log) : text((String) change));
+        }
+        return result;
+    }
+
+    private JsonNode logs(List<ChainLog> logs) {
+        ArrayNode result = nodes.arrayNode(logs.size());
+        logs.forEach(log -> result.add(log(log)));
+        return result;
+    }
+
+    private ObjectNode log(ChainLog log) {
+        FakeTransaction transaction = log.transaction();
+        FakeBlock block = transaction.getBlock();
+        ObjectNode node = nodes.objectNode();
+        node.put("address", log.address());
+        ArrayNode topics = node.putArray("topics");
+        log.topics().forEach(topics::add);
+        node.put("data", log.data());
+        node.put("blockNumber", Numeric.encodeQuantity(BigInteger.valueOf(block.number())));
+        node.put("blockHash", block.hash());
+        node.put("transactionHash", transaction.getHash());
+        node.put("transactionIndex", Numeric.encodeQuantity(BigInteger.valueOf(transaction.getIndex())));
+        node.put("logIndex", Numeric.encodeQuantity(BigInteger.valueOf(log.logIndex())));
+        node.put("removed", false);
+        return node;
+    }
+
+    private JsonNode block(FakeBlock block, boolean fullTransactions) {
+        if (block == null) {
+            return NullNode.getInstance();
+        }
+        ObjectNode node = nodes.objectNode();
+        node.put("number", Numeric.encodeQuantity(BigInteger.valueOf(block.number())));
+        node.put("hash", block.hash());
+        node.put("parentHash", block.parentHash());
+        node.put("nonce", "0x0000000000000000");
+        node.put("mixHash", EMPTY_ROOT);
+        node.put("sha3Uncles", EMPTY_ROOT);
+        node.put("logsBloom", EMPTY_BLOOM);
+        node.put("transactionsRoot", EMPTY_ROOT);
+        node.put("stateRoot", EMPTY_ROOT);
+        node.put("receiptsRoot", EMPTY_ROOT);
+        node.put("miner", ZERO_ADDRESS);
+        node.put("difficulty", "0x0");
+        node.put("totalDifficulty", "0x0");
+        node.put("extraData", "0x");
+        node.put("size", "0x0");
+        node.put("gasLimit", Numeric.encodeQuantity(BigInteger.valueOf(BLOCK_GAS_LIMIT)));
+        node.put("gasUsed", Numeric.encodeQuantity(BigInteger.valueOf(block.gasUsed())));
+        node.put("timestamp", Numeric.encodeQuantity(BigInteger.valueOf(block.timestamp())));
+        node.put("baseFeePerGas", Numeric.encodeQuantity(block.baseFeePerGas()));
+        ArrayNode transactions = node.putArray("transactions");
+        for (FakeTransaction transaction : block.transactions()) {
+            transactions.add(fullTransactions ? transaction(transaction) : text(transaction.getHash()));
+        }
+        node.putArray("uncles");
+        return node;
+    }
+
+    private JsonNode transaction(FakeTransaction transaction) {
+        if (transaction == null) {
+            return NullNode.getInstance();
+        }
+        FakeBlock block = transaction.getBlock();
+        ObjectNode node = nodes.objectNode();
+        node.put("hash", transaction.getHash());
+        node.put("nonce", Numeric.encodeQuantity(transaction.getRaw().getNonce()));
+        node.put("blockHash", block == null ? null : block.hash());
+        node.put("blockNumber", block == null ? null : Numeric.encodeQuantity(BigInteger.valueOf(block.number())));
+        node.put("transactionIndex",
+                block == null ? null : Numeric.encodeQuantity(BigInteger.valueOf(transaction.getIndex())));
+        node.put("from", transaction.getFrom());
+        node.put("to", transaction.getTo());
+        node.put("value", Numeric.encodeQuantity(transaction.getRaw().getValue()));
+        node.put("gas", Numeric.encodeQuantity(transaction.getRaw().getGasLimit()));
+        node.put("input", Numeric.prependHexPrefix(transaction.getRaw().getData()));
+        if (transaction.getRaw().getTransaction() instanceof Transaction1559 eip1559) {
+            node.put("type", "0x2");
+            node.put("chainId", Numeric.encodeQuantity(BigInteger.valueOf(eip1559.getChainId())));
+            node.put("maxFeePerGas", Numeric.encodeQuantity(eip1559.getMaxFeePerGas()));
+            node.put("maxPriorityFeePerGas", Numeric.encodeQuantity(eip1559.getMaxPriorityFeePerGas()));
+            node.put("gasPrice", Numeric.encodeQuantity(transaction.getEffectiveGasPrice() != null
+                    ? transaction.getEffectiveGasPrice() : eip1559.getMaxFeePerGas()));
+        } else {
+            node.put("type", "0x0");
+            node.put("gasPrice", Numeric.encodeQuantity(transaction.getRaw().getGasPrice()));
+        }
+        Sign.SignatureData signature = transaction.getRaw().getSignatureData();
+        node.put("v", Numeric.encodeQuantity(Numeric.toBigInt(signature.getV())));
+        node.put("r", Numeric.toHexString(signature.getR()));
+        node.put("s", Numeric.toHexString(signature.getS()));
+        return node;
+    }
+
+    private JsonNode receipt(FakeTransaction transaction) {
+        if (transaction == null || transaction.getBlock() == null) {
+            return NullNode.getInstance();
+        }
+        FakeBlock block = transaction.getBlock();
+        ObjectNode node = nodes.objectNode();
+        node.put("transactionHash", transaction.getHash());
+        node.put("transactionIndex", Numeric.encodeQuantity(BigInteger.valueOf(transaction.getIndex())));
+        node.put("blockHash", block.hash());
+        node.put("blockNumber", Numeric.encodeQuantity(BigInteger.valueOf(block.number())));
+        node.put("from", transaction.getFrom());
+        node.put("to", transaction.getTo());
+        node.put("cumulativeGasUsed", Numeric.encodeQuantity(BigInteger.valueOf(transaction.getCumulativeGasUsed())));
+        node.put("gasUsed", Numeric.encodeQuantity(BigInteger.valueOf(transaction.getGasUsed())));
+        node.put("effectiveGasPrice", Numeric.encodeQuantity(transaction.getEffectiveGasPrice()));
+        node.put("contractAddress", transaction.getContractAddress());
+        node.set("logs", logs(transaction.getLogs()));
+        node.put("logsBloom", EMPTY_BLOOM);
+        node.put("status", transaction.isSuccess() ? "0x1" : "0x0");
+        node.put("type", transaction.isEip1559() ? "0x2" : "0x0");
+        return node;
+    }
+
+    private static String param(JsonNode params, int index) throws FakeRpcException {
+        JsonNode value = params.path(index);
+        if (!value.isTextual()) {
+            throw new FakeRpcException(FakeRpcException.INVALID_PARAMS,
+                    "missing value for required argument " + index);
+        }
+        return value.asText();
+    }
+
+    private static String optional(JsonNode params, int index, String defaultValue) {
+        JsonNode value = params.path(index);
+        return value.isTextual() ? value.asText() : defaultValue;
+    }
+
+    private static String textOrNull(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static TextNode text(String value) {
+        return TextNode.valueOf(value);
+    }
+
+    private static TextNode quantity(BigInteger value) {
+        return TextNode.valueOf(Numeric.encodeQuantity(value));
+    }
+}
@@ -0,0 +1,66 @@
+package com.wetech.demo.web3j.fakenode;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigInteger;
+import java.time.Duration;
+
+/**
+ * 本地模拟节点的参数，默认值对应一个没有延迟、不出错、不限流的 Hardhat 风格节点
+ */
+@Value
+@Builder
+public class FakeNodeSettings {
+
+    /**
+     * 监听端口，0 表示随机端口；只绑定回环地址
+     */
+    @Builder.Default
+    int port = 0;
+
+    @Builder.Default
+    long chainId = 31337;
+
+    /**
+     * 出块间隔；为 0 时每笔交易到达后立即单独出块（Hardhat automine）
+     */
+    @Builder.Default
+    Duration blockTime = Duration.ofSeconds(1);
+
+    /**
+     * 每次请求的模拟延迟中位数和 p99，按对数正态分布抽样；p99 不大于中位数时延迟固定为中位数
+     */
+    @Builder.Default
+    Duration latencyMedian = Duration.ZERO;
+
+    @Builder.Default
+    Duration latencyP99 = Duration.ZERO;
+
+    /**
+     * 单个 JSON-RPC 调用返回 -32603 错误的概率
+     */
+    @Builder.Default
+    double errorRate = 0;
+
+    /**
+     * 整个 HTTP 请求返回 503 的概率
+     */
+    @Builder.Default
+    double httpErrorRate = 0;
+
+    /**
+     * 每秒最多处理的 JSON-RPC 调用数（批量请求按条计，单个批量最多扣一秒的配额），超出时返回 HTTP 429；0 表示不限流
+     */
+    @Builder.Default
+    int maxRequestsPerSecond = 0;
+
+    @Builder.Default
+    BigInteger baseFeePerGas = BigInteger.valueOf(1_000_000_000L);
+
+    /**
+     * eth_getBalance 对所有账户返回的固定余额，模拟节点不扣除 ETH
+     */
+    @Builder.Default
+    BigInteger accountBalance = new BigInteger("10000000000000000000000");
+}
@@ -0,0 +1,27 @@
+package com.wetech.demo.web3j.fakenode;
+
+import lombok.Getter;
+
+/**
+ * 模拟节点拒绝一个 JSON-RPC 调用，按 code / message / data 原样写入错误响应
+ */
+@Getter
+class FakeRpcException extends Exception {
+
+    static final int INVALID_PARAMS = -32602;
+    static final int SERVER_ERROR = -32000;
+    static final int EXECUTION_REVERTED = 3;
+
+    private final int code;
+    private final String data;
+
+    FakeRpcException(int code, String message) {
+        this(code, message, null);
+    }
+
+    FakeRpcException(int code, String message, String data) {
+        super(message);
+        this.code = code;
+        this.data = data;
+    }
+}
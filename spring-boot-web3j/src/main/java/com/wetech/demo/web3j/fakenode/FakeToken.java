@@ -0,0 +1,406 @@
+package com.wetech.demo.web3j.fakenode;
+
+import com.wetech.demo.web3j.contracts.jymtoken.JYMToken;
+import com.wetech.demo.web3j.permit.PermitDigest;
+import org.web3j.abi.EventEncoder;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Bytes1;
+import org.web3j.abi.datatypes.generated.Bytes32;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.crypto.ECDSASignature;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.Keys;
+import org.web3j.crypto.Sign;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 模拟节点上的一个 JYMToken 合约：按 OpenZeppelin ERC20 / ERC20Permit 的语义维护余额、授权和 permit nonce
+ *
+ * 不执行 EVM 字节码，按函数选择器分派；失败时返回与合约相同的自定义错误编码（如 ERC20InsufficientBalance），
+ * 这样 web3j 解析出的回滚原因与真实节点一致。gasUsed 是按函数取的固定近似值。
+ * 不是线程安全的，由 {@link FakeChain} 在持锁时调用。
+ */
+class FakeToken {
+
+    static final BigInteger INITIAL_SUPPLY = BigInteger.TEN.pow(24);
+    static final long DEPLOY_GAS = 1_250_000;
+
+    private static final String NAME = "JYMToken";
+    private static final String SYMBOL = "JYM";
+    private static final String VERSION = "1";
+    private static final BigInteger MAX_UINT256 = BigInteger.TWO.pow(256).subtract(BigInteger.ONE);
+    private static final BigInteger HALF_CURVE_ORDER = Sign.CURVE_PARAMS.getN().shiftRight(1);
+    private static final String ZERO_ADDRESS = Address.DEFAULT.toString();
+
+    private static final String TRANSFER_TOPIC = EventEncoder.encode(JYMToken.TRANSFER_EVENT);
+    private static final String APPROVAL_TOPIC = EventEncoder.encode(JYMToken.APPROVAL_EVENT);
+    private static final byte[] DOMAIN_TYPEHASH = Hash.sha3(
+            "EIP712Domain(string name,string version,uint256 chainId,address verifyingContract)"
+                    .getBytes(StandardCharsets.US_ASCII));
+
+    private static final String NAME_SELECTOR = selector("name()");
+    private static final String SYMBOL_SELECTOR = selector("symbol()");
+    private static final String DECIMALS_SELECTOR = selector("decimals()");
+    private static final String TOTAL_SUPPLY_SELECTOR = selector("totalSupply()");
+    private static final String BALANCE_OF_SELECTOR = selector("balanceOf(address)");
+    private static final String ALLOWANCE_SELECTOR = selector("allowance(address,address)");
+    private static final String NONCES_SELECTOR = selector("nonces(address)");
+    private static final String DOMAIN_SEPARATOR_SELECTOR = selector("DOMAIN_SEPARATOR()");
+    private static final String EIP712_DOMAIN_SELECTOR = selector("eip712Domain()");
+    private static final String TRANSFER_SELECTOR = selector("transfer(address,uint256)");
+    private static final String APPROVE_SELECTOR = selector("approve(address,uint256)");
+    private static final String TRANSFER_FROM_SELECTOR = selector("transferFrom(address,address,uint256)");
+    private static final String MINT_SELECTOR = selector("mint(uint256)");
+    private static final String BURN_SELECTOR = selector("burn(uint256)");
+    private static final String PERMIT_SELECTOR =
+            selector("permit(address,address,uint256,uint256,uint8,bytes32,bytes32)");
+
+    private static final String INSUFFICIENT_BALANCE = "ERC20InsufficientBalance(address,uint256,uint256)";
+    private static final String INSUFFICIENT_ALLOWANCE = "ERC20InsufficientAllowance(address,uint256,uint256)";
+    private static final String INVALID_SENDER = "ERC20InvalidSender(address)";
+    private static final String INVALID_RECEIVER = "ERC20InvalidReceiver(address)";
+    private static final String INVALID_APPROVER = "ERC20InvalidApprover(address)";
+    private static final String INVALID_SPENDER = "ERC20InvalidSpender(address)";
+    private static final String EXPIRED_SIGNATURE = "ERC2612ExpiredSignature(uint256)";
+    private static final String INVALID_SIGNER = "ERC2612InvalidSigner(address,address)";
+    private static final String INVALID_SIGNATURE = "ECDSAInvalidSignature()";
+    private static final String INVALID_SIGNATURE_S = "ECDSAInvalidSignatureS(bytes32)";
+
+    private static final Map<String, Long> GAS_USED = Map.of(
+            TRANSFER_SELECTOR, 51_500L,
+            APPROVE_SELECTOR, 46_300L,
+            TRANSFER_FROM_SELECTOR, 59_800L,
+            MINT_SELECTOR, 53_900L,
+            BURN_SELECTOR, 36_100L,
+            PERMIT_SELECTOR, 76_400L);
+    private static final long VIEW_GAS = 24_000;
+    private static final long REVERT_GAS = 27_000;
+
+    /**
+     * 一次调用的结果：成功时 output 为返回值，失败时为回滚数据
+     */
+    record Outcome(boolean success, String output, List<EventLog> logs, long gasUsed) {
+    }
+
+    record EventLog(List<String> topics, String data) {
+    }
+
+    private final String nameOutput;
+    private final String symbolOutput;
+    private final String domainSeparatorOutput;
+    private final String eip712DomainOutput;
+    private final byte[] domainSeparator;
+
+    private final Map<String, BigInteger> balances = new HashMap<>();
+    private final Map<String, Map<String, BigInteger>> allowances = new HashMap<>();
+    private final Map<String, BigInteger> nonces = new HashMap<>();
+    private BigInteger totalSupply = BigInteger.ZERO;
+
+    FakeToken(String address, long chainId) {
+        this.nameOutput = abi(new Utf8String(NAME));
+        this.symbolOutput = abi(new Utf8String(SYMBOL));
+        byte[] domain = new byte[5 * 32];
+        System.arraycopy(DOMAIN_TYPEHASH, 0, domain, 0, 32);
+        System.arraycopy(Hash.sha3(NAME.getBytes(StandardCharsets.UTF_8)), 0, domain, 32, 32);
+        System.arraycopy(Hash.sha3(VERSION.getBytes(StandardCharsets.UTF_8)), 0, domain, 64, 32);
+        System.arraycopy(Numeric.toBytesPadded(BigInteger.valueOf(chainId), 32), 0, domain, 96, 32);
+        System.arraycopy(Numeric.toBytesPadded(Numeric.toBigInt(address), 32), 0, domain, 128, 32);
+        this.domainSeparator = Hash.sha3(domain);
+        this.domainSeparatorOutput = Numeric.toHexString(domainSeparator);
+        this.eip712DomainOutput = abi(
+                new Bytes1(new byte[]{0x0f}),
+                new Utf8String(NAME),
+                new Utf8String(VERSION),
+                new Uint256(chainId),
+                new Address(address),
+                new Bytes32(new byte[32]),
+                new DynamicArray<>(Uint256.class, List.of()));
+    }
+
+    /**
+     * 执行构造函数：向部署者铸造 {@link #INITIAL_SUPPLY}
+     */
+    Outcome construct(String deployer) {
+        EventLog minted = credit(ZERO_ADDRESS, deployer, INITIAL_SUPPLY);
+        return new Outcome(true, "0x", List.of(minted), DEPLOY_GAS);
+    }
+
+    /**
+     * @param from      交易或调用的发送方（小写地址）
+     * @param input     calldata
+     * @param timestamp 当前区块时间（Unix 秒），用于 permit 的 deadline
+     * @param commit    为 false 时只计算结果不修改状态（eth_call / eth_estimateGas）
+     */
+    Outcome execute(String from, String input, long timestamp, boolean commit) {
+        String data = Numeric.cleanHexPrefix(input == null ? "" : input).toLowerCase();
+        if (data.length() < 8) {
+            return revert("0x");
+        }
+        Calldata call = new Calldata(data);
+        try {
+            String selector = data.substring(0, 8);
+            if (selector.equals(BALANCE_OF_SELECTOR)) {
+                return view(uint(balanceOf(call.address(0))));
+            } else if (selector.equals(ALLOWANCE_SELECTOR)) {
+                return view(uint(allowance(call.address(0), call.address(1))));
+            } else if (selector.equals(NONCES_SELECTOR)) {
+                return view(uint(nonces.getOrDefault(call.address(0), BigInteger.ZERO)));
+            } else if (selector.equals(TOTAL_SUPPLY_SELECTOR)) {
+                return view(uint(totalSupply));
+            } else if (selector.equals(DECIMALS_SELECTOR)) {
+                return view(uint(BigInteger.valueOf(18)));
+            } else if (selector.equals(NAME_SELECTOR)) {
+                return view(nameOutput);
+            } else if (selector.equals(SYMBOL_SELECTOR)) {
+                return view(symbolOutput);
+            } else if (selector.equals(DOMAIN_SEPARATOR_SELECTOR)) {
+                return view(domainSeparatorOutput);
+            } else if (selector.equals(EIP712_DOMAIN_SELECTOR)) {
+                return view(eip712DomainOutput);
+            } else if (selector.equals(TRANSFER_SELECTOR)) {
+                return transfer(from, call.address(0), call.uint(1), commit, selector);
+            } else if (selector.equals(APPROVE_SELECTOR)) {
+                return approve(from, call.address(0), call.uint(1), commit, selector);
+            } else if (selector.equals(TRANSFER_FROM_SELECTOR)) {
+                return transferFrom(from, call.address(0), call.address(1), call.uint(2), commit, selector);
+            } else if (selector.equals(MINT_SELECTOR)) {
+                return mint(from, call.uint(0), commit, selector);
+            } else if (selector.equals(BURN_SELECTOR)) {
+                return burn(from, call.uint(0), commit, selector);
+            } else if (selector.equals(PERMIT_SELECTOR)) {
+                return permit(call, timestamp, commit, selector);
+            }
+            return revert("0x");
+        } catch (IndexOutOfBoundsException e) {
+            // calldata 长度不足，合约的 ABI 解码会直接回滚
+            return revert("0x");
+        }
+    }
+
+    private Outcome transfer(String from, String to, BigInteger value, boolean commit, String selector) {
+        Outcome failure = checkTransfer(from, to, value);
+        if (failure != null) {
+            return failure;
+        }
+        List<EventLog> logs = List.of(commit ? move(from, to, value) : transferLog(from, to, value));
+        return success(selector, logs);
+    }
+
+    private Outcome approve(String owner, String spender, BigInteger value, boolean commit, String selector) {
+        if (owner.equals(ZERO_ADDRESS)) {
+            return revert(INVALID_APPROVER, ZERO_ADDRESS);
+        }
+        if (spender.equals(ZERO_ADDRESS)) {
+            return revert(INVALID_SPENDER, ZERO_ADDRESS);
+        }
+        if (commit) {
+            setAllowance(owner, spender, value);
+        }
+        return success(selector, List.of(approvalLog(owner, spender, value)));
+    }
+
+    private Outcome transferFrom(String spender, String from, String to, BigInteger value, boolean commit,
+                                 String selector) {
+        BigInteger allowance = allowance(from, spender);
+        boolean infinite = allowance.equals(MAX_UINT256);
+        if (!infinite && allowance.compareTo(value) < 0) {
+            return revert(INSUFFICIENT_ALLOWANCE, spender, allowance, value);
+        }
+        Outcome failure = checkTransfer(from, to, value);
+        if (failure != null) {
+            return failure;
+        }
+        if (!commit) {
+            return success(selector, List.of(transferLog(from, to, value)));
+        }
+        if (!infinite) {
+            setAllowance(from, spender, allowance.subtract(value));
+        }
+        return success(selector, List.of(move(from, to, value)));
+    }
+
+    private Outcome mint(String to, BigInteger value, boolean commit, String selector) {
+        if (totalSupply.add(value).compareTo(MAX_UINT256) > 0) {
+            // Solidity 0.8 的算术溢出 Panic(0x11)
+            return revert("Panic(uint256)", BigInteger.valueOf(0x11));
+        }
+        EventLog minted = commit ? credit(ZERO_ADDRESS, to, value) : transferLog(ZERO_ADDRESS, to, value);
+        return success(selector, List.of(minted));
+    }
+
+    private Outcome burn(String from, BigInteger value, boolean commit, String selector) {
+        BigInteger balance = balanceOf(from);
+        if (balance.compareTo(value) < 0) {
+            return revert(INSUFFICIENT_BALANCE, from, balance, value);
+        }
+        if (!commit) {
+            return success(selector, List.of(transferLog(from, ZERO_ADDRESS, value)));
+        }
+        balances.put(from, balance.subtract(value));
+        totalSupply = totalSupply.subtract(value);
+        return success(selector, List.of(transferLog(from, ZERO_ADDRESS, value)));
+    }
+
+    private Outcome permit(Calldata call, long timestamp, boolean commit, String selector) {
+        String owner = call.address(0);
+        String spender = call.address(1);
+        BigInteger value = call.uint(2);
+        BigInteger deadline = call.uint(3);
+        int v = call.uint(4).intValue();
+        BigInteger r = call.uint(5);
+        BigInteger s = call.uint(6);
+        if (BigInteger.valueOf(timestamp).compareTo(deadline) > 0) {
+            return revert(EXPIRED_SIGNATURE, deadline);
+        }
+        if (s.compareTo(HALF_CURVE_ORDER) > 0) {
+            return revert(INVALID_SIGNATURE_S, s);
+        }
+        BigInteger nonce = nonces.getOrDefault(owner, BigInteger.ZERO);
+        byte[] digest = PermitDigest.digest(domainSeparator, owner, spender, value, nonce, deadline);
+        BigInteger publicKey = v == 27 || v == 28 ? recover(v - 27, r, s, digest) : null;
+        if (publicKey == null) {
+            return revert(INVALID_SIGNATURE);
+        }
+        String signer = Numeric.prependHexPrefix(Keys.getAddress(publicKey));
+        if (!signer.equals(owner)) {
+            return revert(INVALID_SIGNER, signer, owner);
+        }
+        Outcome approved = approve(owner, spender, value, commit, selector);
+        if (approved.success() && commit) {
+            nonces.put(owner, nonce.add(BigInteger.ONE));
+        }
+        return approved;
+    }
+
+    /**
+     * r 不在曲线上时 Sign.recoverFromSignature 抛出异常，合约中 ecrecover 返回零地址，统一按无效签名处理
+     */
+    private static BigInteger recover(int recId, BigInteger r, BigInteger s, byte[] digest) {
+        if (r.signum() == 0 || s.signum() == 0 || r.compareTo(Sign.CURVE_PARAMS.getN()) >= 0) {
+            return null;
+        }
+        try {
+            return Sign.recoverFromSignature(recId, new ECDSASignature(r, s), digest);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private Outcome checkTransfer(String from, String to, BigInteger value) {
+        if (from.equals(ZERO_ADDRESS)) {
+            return revert(INVALID_SENDER, ZERO_ADDRESS);
+        }
+        if (to.equals(ZERO_ADDRESS)) {
+            return revert(INVALID_RECEIVER, ZERO_ADDRESS);
+        }
+        BigInteger balance = balanceOf(from);
+        if (balance.compareTo(value) < 0) {
+            return revert(INSUFFICIENT_BALANCE, from, balance, value);
+        }
+        return null;
+    }
+
+    private EventLog move(String from, String to, BigInteger value) {
+        balances.put(from, balanceOf(from).subtract(value));
+        balances.put(to, balanceOf(to).add(value));
+        return transferLog(from, to, value);
+    }
+
+    private EventLog credit(String from, String to, BigInteger value) {
+        balances.put(to, balanceOf(to).add(value));
+        totalSupply = totalSupply.add(value);
+        return transferLog(from, to, value);
+    }
+
+    private BigInteger balanceOf(String account) {
+        return balances.getOrDefault(account, BigInteger.ZERO);
+    }
+
+    private BigInteger allowance(String owner, String spender) {
+        Map<String, BigInteger> granted = allowances.get(owner);
+        return granted == null ? BigInteger.ZERO : granted.getOrDefault(spender, BigInteger.ZERO);
+    }
+
+    private void setAllowance(String owner, String spender, BigInteger value) {
+        allowances.computeIfAbsent(owner, key -> new HashMap<>()).put(spender, value);
+    }
+
+    private static EventLog transferLog(String from, String to, BigInteger value) {
+        return new EventLog(List.of(TRANSFER_TOPIC, topic(from), topic(to)), uint(value));
+    }
+
+    private static EventLog approvalLog(String owner, String spender, BigInteger value) {
+        return new EventLog(List.of(APPROVAL_TOPIC, topic(owner), topic(spender)), uint(value));
+    }
+
+    private static Outcome view(String output) {
+        return new Outcome(true, output, List.of(), VIEW_GAS);
+    }
+
+    private static Outcome success(String selector, List<EventLog> logs) {
+        return new Outcome(true, uint(BigInteger.ONE), logs, GAS_USED.get(selector));
+    }
+
+    private static Outcome revert(String data) {
+        return new Outcome(false, data, List.of(), REVERT_GAS);
+    }
+
+    /**
+     * 按自定义错误签名编码回滚数据，参数为地址（String）或整数（BigInteger）
+     */
+    private static Outcome revert(String error, Object... arguments) {
+        StringBuilder data = new StringBuilder("0x").append(selector(error));
+        for (Object argument : arguments) {
+            data.append(argument instanceof String account
+                    ? Numeric.toHexStringNoPrefixZeroPadded(Numeric.toBigInt(account), 64)
+                    : Numeric.toHexStringNoPrefixZeroPadded((BigInteger) argument, 64));
+        }
+        return revert(data.toString());
+    }
+
+    private static String selector(String signature) {
+        return Hash.sha3String(signature).substring(2, 10);
+    }
+
+    private static String uint(BigInteger value) {
+        return Numeric.toHexStringWithPrefixZeroPadded(value, 64);
+    }
+
+    private static String topic(String account) {
+        return Numeric.toHexStringWithPrefixZeroPadded(Numeric.toBigInt(account), 64);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static String abi(Type... values) {
+        return "0x" + FunctionEncoder.encodeConstructor(List.of(values));
+    }
+
+    /**
+     * 按 32 字节槽位读取 calldata 参数
+     */
+    private record Calldata(String data) {
+
+        String word(int index) {
+            int start = 8 + index * 64;
+            return data.substring(start, start + 64);
+        }
+
+        BigInteger uint(int index) {
+            return new BigInteger(word(index), 16);
+        }
+
+        String address(int index) {
+            return "0x" + word(index).substring(24);
+        }
+    }
+}
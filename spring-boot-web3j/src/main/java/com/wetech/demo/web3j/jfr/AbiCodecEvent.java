@@ -0,0 +1,35 @@
+package com.wetech.demo.web3j.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * ABI 编码 calldata 或解码合约调用的返回值
+ */
+@Name("com.wetech.web3j.AbiCodec")
+@Label("ABI Encode/Decode")
+@Category({"Web3j", "ABI"})
+@Description("ABI encoding of calldata or decoding of a contract call result")
+@StackTrace(false)
+public class AbiCodecEvent extends Event {
+
+    public static final String ENCODE = "encode";
+    public static final String DECODE = "decode";
+
+    @Label("Operation")
+    @Description("encode or decode")
+    public String operation;
+
+    @Label("Function")
+    @Description("Function name when encoding, output types when decoding")
+    public String function;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,35 @@
+package com.wetech.demo.web3j.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JSON-RPC 请求的 Jackson 序列化或响应的反序列化
+ */
+@Name("com.wetech.web3j.JsonCodec")
+@Label("JSON-RPC Encode/Decode")
+@Category({"Web3j", "RPC"})
+@Description("Jackson serialization of a JSON-RPC request or deserialization of its response")
+@StackTrace(false)
+public class JsonCodecEvent extends Event {
+
+    public static final String SERIALIZE = "serialize";
+    public static final String DESERIALIZE = "deserialize";
+
+    @Label("Operation")
+    @Description("serialize or deserialize")
+    public String operation;
+
+    @Label("Method")
+    @Description("JSON-RPC method, or batch for batch requests")
+    public String method;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,67 @@
+package com.wetech.demo.web3j.jfr;
+
+import org.web3j.abi.DefaultFunctionEncoder;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.spi.FunctionEncoderProvider;
+
+import java.util.List;
+
+/**
+ * 记录 {@link AbiCodecEvent} 的 ABI 编码器
+ *
+ * 通过 META-INF/services 中的 {@link Provider} 替换 web3j 默认的编码器，
+ * 合约包装类里的 FunctionEncoder.encode 调用因此也会被记录；编码结果与默认编码器相同。
+ */
+public class RecordingFunctionEncoder extends DefaultFunctionEncoder {
+
+    static final String CONSTRUCTOR = "constructor";
+
+    @Override
+    public String encodeFunction(Function function) {
+        AbiCodecEvent event = new AbiCodecEvent();
+        event.begin();
+        String encoded = super.encodeFunction(function);
+        commit(event, function.getName(), encoded);
+        return encoded;
+    }
+
+    @Override
+    public String encodeParameters(List<Type> parameters) {
+        AbiCodecEvent event = new AbiCodecEvent();
+        event.begin();
+        String encoded = super.encodeParameters(parameters);
+        commit(event, CONSTRUCTOR, encoded);
+        return encoded;
+    }
+
+    private static void commit(AbiCodecEvent event, String function, String encoded) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = AbiCodecEvent.ENCODE;
+            event.function = function;
+            event.bytes = hexBytes(encoded);
+            event.commit();
+        }
+    }
+
+    /**
+     * @return 十六进制字符串（可带 0x 前缀）表示的字节数
+     */
+    static long hexBytes(String hex) {
+        if (hex == null) {
+            return 0;
+        }
+        int digits = hex.startsWith("0x") ? hex.length() - 2 : hex.length();
+        return digits / 2;
+    }
+
+    public static class Provider implements FunctionEncoderProvider {
+
+        @Override
+        public FunctionEncoder get() {
+            return new RecordingFunctionEncoder();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.wetech.demo.web3j.jfr;
+
+import org.web3j.abi.DefaultFunctionReturnDecoder;
+import org.web3j.abi.FunctionReturnDecoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.spi.FunctionReturnDecoderProvider;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 记录 {@link AbiCodecEvent} 的返回值解码器，通过 META-INF/services 中的 {@link Provider} 替换 web3j 默认的解码器
+ *
+ * 解码时拿不到函数名，事件中记录输出类型（如 uint256）
+ */
+public class RecordingFunctionReturnDecoder extends DefaultFunctionReturnDecoder {
+
+    @Override
+    public List<Type> decodeFunctionResult(String rawInput, List<TypeReference<Type>> outputParameters) {
+        AbiCodecEvent event = new AbiCodecEvent();
+        event.begin();
+        List<Type> decoded = super.decodeFunctionResult(rawInput, outputParameters);
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = AbiCodecEvent.DECODE;
+            event.function = outputParameters.stream()
+                    .map(RecordingFunctionReturnDecoder::typeName)
+                    .collect(Collectors.joining(",", "(", ")"));
+            event.bytes = RecordingFunctionEncoder.hexBytes(rawInput);
+            event.commit();
+        }
+        return decoded;
+    }
+
+    private static String typeName(TypeReference<Type> parameter) {
+        String name = parameter.getType().getTypeName();
+        int generic = name.indexOf('<');
+        if (generic >= 0) {
+            name = name.substring(0, generic);
+        }
+        return name.substring(name.lastIndexOf('.') + 1).toLowerCase();
+    }
+
+    public static class Provider implements FunctionReturnDecoderProvider {
+
+        @Override
+        public FunctionReturnDecoder get() {
+            return new RecordingFunctionReturnDecoder();
+        }
+    }
+}
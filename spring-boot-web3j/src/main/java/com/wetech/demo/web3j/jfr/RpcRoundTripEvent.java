@@ -0,0 +1,45 @@
+package com.wetech.demo.web3j.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次 JSON-RPC 网络往返：从发出请求到读完响应体，不含 JSON 序列化和反序列化（见 {@link JsonCodecEvent}）
+ */
+@Name("com.wetech.web3j.RpcRoundTrip")
+@Label("JSON-RPC Round Trip")
+@Category({"Web3j", "RPC"})
+@Description("Network round trip of a JSON-RPC request, excluding JSON encoding and decoding")
+@StackTrace(false)
+public class RpcRoundTripEvent extends Event {
+
+    @Label("Method")
+    @Description("JSON-RPC method, or batch for batch requests")
+    public String method;
+
+    @Label("Function")
+    @Description("Contract function decoded from calldata")
+    public String function;
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Batch Size")
+    public int batchSize;
+
+    @Label("Request Size")
+    @DataAmount
+    public long requestBytes;
+
+    @Label("Response Size")
+    @DataAmount
+    public long responseBytes;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,39 @@
+package com.wetech.demo.web3j.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 一次 secp256k1 签名：交易签名（含 RLP 编码）或 EIP-2612 permit 签名
+ */
+@Name("com.wetech.web3j.Sign")
+@Label("Sign")
+@Category({"Web3j", "Signing"})
+@Description("secp256k1 signing of a transaction (including RLP encoding) or a permit digest")
+@StackTrace(false)
+public class SignEvent extends Event {
+
+    public static final String TRANSACTION = "transaction";
+    public static final String PERMIT = "permit";
+
+    @Label("Kind")
+    @Description("transaction or permit")
+    public String kind;
+
+    @Label("Function")
+    @Description("Contract function decoded from calldata")
+    public String function;
+
+    @Label("Signer")
+    public String signer;
+
+    @Label("Size")
+    @Description("Size of the signed transaction, or of the digest for permits")
+    @DataAmount
+    public long bytes;
+}
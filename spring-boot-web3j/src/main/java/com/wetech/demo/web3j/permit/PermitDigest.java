@@ -0,0 +1,66 @@
+package com.wetech.demo.web3j.permit;
+
+import org.web3j.crypto.Hash;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * EIP-2612 permit 的 EIP-712 摘要
+ *
+ * digest = keccak256(0x1901 ‖ DOMAIN_SEPARATOR ‖ keccak256(abi.encode(PERMIT_TYPEHASH, owner, spender, value, nonce, deadline)))
+ *
+ * 直接按 32 字节槽位拼接编码，不经过 web3j 的 ABI 编码器；域分隔符由调用方按合约缓存后传入。
+ */
+public final class PermitDigest {
+
+    public static final byte[] PERMIT_TYPEHASH = Hash.sha3(
+            "Permit(address owner,address spender,uint256 value,uint256 nonce,uint256 deadline)"
+                    .getBytes(StandardCharsets.US_ASCII));
+
+    private static final int WORD = 32;
+    private static final int ADDRESS_LENGTH = 20;
+
+    private PermitDigest() {
+    }
+
+    /**
+     * @param domainSeparator 合约的 DOMAIN_SEPARATOR()
+     * @throws IllegalArgumentException 地址格式不正确，或数值不在 uint256 范围内
+     */
+    public static byte[] digest(byte[] domainSeparator, String owner, String spender, BigInteger value,
+                                BigInteger nonce, BigInteger deadline) {
+        byte[] struct = new byte[6 * WORD];
+        System.arraycopy(PERMIT_TYPEHASH, 0, struct, 0, WORD);
+        putAddress(struct, WORD, owner);
+        putAddress(struct, 2 * WORD, spender);
+        putUint(struct, 3 * WORD, value);
+        putUint(struct, 4 * WORD, nonce);
+        putUint(struct, 5 * WORD, deadline);
+
+        byte[] message = new byte[2 + 2 * WORD];
+        message[0] = 0x19;
+        message[1] = 0x01;
+        System.arraycopy(domainSeparator, 0, message, 2, WORD);
+        System.arraycopy(Hash.sha3(struct), 0, message, 2 + WORD, WORD);
+        return Hash.sha3(message);
+    }
+
+    private static void putAddress(byte[] target, int offset, String address) {
+        byte[] bytes = Numeric.hexStringToByteArray(address);
+        if (bytes.length != ADDRESS_LENGTH) {
+            throw new IllegalArgumentException("Invalid address: " + address);
+        }
+        System.arraycopy(bytes, 0, target, offset + WORD - ADDRESS_LENGTH, ADDRESS_LENGTH);
+    }
+
+    private static void putUint(byte[] target, int offset, BigInteger value) {
+        if (value.signum() < 0 || value.bitLength() > 256) {
+            throw new IllegalArgumentException("Value out of uint256 range: " + value);
+        }
+        byte[] bytes = value.toByteArray();
+        int length = Math.min(bytes.length, WORD);
+        System.arraycopy(bytes, bytes.length - length, target, offset + WORD - length, length);
+    }
+}
@@ -0,0 +1,83 @@
+package com.wetech.demo.web3j.permit;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 本地维护的 permit nonce
+ *
+ * 每个 (合约, owner) 第一次签名时调用一次 nonces() 取得链上的值，之后在本地递增，不再为每个 permit 查询节点。
+ *
+ * 同一 (合约, owner) 的 permit 排队串行提交：上一个 permit 的回执返回之后才为下一个分配 nonce。
+ * 成功时本地 nonce 加一；失败时丢弃本地记录，下一个 permit 重新从链上读取。
+ * 这样某个 permit 失败时，不会有已经用后续 nonce 签好名、注定失败的 permit 在途。
+ */
+public class PermitNonceTracker {
+
+    /**
+     * 下一个可用的 nonce
+     */
+    private final Map<String, BigInteger> nonces = new ConcurrentHashMap<>();
+
+    /**
+     * 每个 (合约, owner) 队尾 permit 结束时完成，只会正常完成
+     */
+    private final Map<String, CompletableFuture<Void>> queues = new ConcurrentHashMap<>();
+
+    /**
+     * 排队提交一个 permit
+     *
+     * @param onChain 读取链上 nonces(owner)，只在本地没有记录时调用
+     * @param submit  用分配到的 nonce 签名并提交，返回的 future 在回执返回后完成
+     */
+    public <T> CompletableFuture<T> submit(String contractAddress, String owner,
+                                           Supplier<CompletableFuture<BigInteger>> onChain,
+                                           Function<BigInteger, CompletableFuture<T>> submit) {
+        String key = key(contractAddress, owner);
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        CompletableFuture<Void> previous = queues.put(key, done);
+        CompletableFuture<Void> start = previous != null ? previous : CompletableFuture.completedFuture(null);
+        CompletableFuture<T> result = start
+                .thenCompose(ignored -> current(key, onChain))
+                .thenCompose(nonce -> submit.apply(nonce).thenApply(value -> {
+                    nonces.put(key, nonce.add(BigInteger.ONE));
+                    return value;
+                }));
+        result.whenComplete((value, error) -> {
+            if (error != null) {
+                // 失败的 permit 是否消耗了 nonce 无法确定，下一个重新从链上读取
+                nonces.remove(key);
+            }
+            done.complete(null);
+            queues.remove(key, done);
+        });
+        return result;
+    }
+
+    /**
+     * @return 本地记录的下一个 nonce，没有记录时为空
+     */
+    public Optional<BigInteger> peek(String contractAddress, String owner) {
+        return Optional.ofNullable(nonces.get(key(contractAddress, owner)));
+    }
+
+    private CompletableFuture<BigInteger> current(String key, Supplier<CompletableFuture<BigInteger>> onChain) {
+        BigInteger next = nonces.get(key);
+        if (next != null) {
+            return CompletableFuture.completedFuture(next);
+        }
+        return onChain.get().thenApply(nonce -> {
+            nonces.put(key, nonce);
+            return nonce;
+        });
+    }
+
+    private static String key(String contractAddress, String owner) {
+        return contractAddress.toLowerCase() + ":" + owner.toLowerCase();
+    }
+}
@@ -0,0 +1,193 @@
+package com.wetech.demo.web3j.permit;
+
+import com.wetech.demo.web3j.dto.PermitRequest;
+import com.wetech.demo.web3j.dto.PermitVerdict;
+import com.wetech.demo.web3j.dto.PermitVerdict.Reason;
+import org.web3j.crypto.ECDSASignature;
+import org.web3j.crypto.Keys;
+import org.web3j.crypto.Sign;
+import org.web3j.crypto.WalletUtils;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * 用户签名 permit 的离线校验
+ *
+ * 按合约缓存的域分隔符重新计算 EIP-712 摘要，再用 ecrecover 恢复签名者，与合约中 permit 的检查一一对应：
+ * deadline 未过期、签名者等于 owner、s 在低半区、nonce 等于 owner 当前的 nonce。
+ * 签名部分完全在本地计算，按 CPU 核数并行；nonce 部分由调用方提供 owner 当前 nonce 的本地视图。
+ */
+public final class PermitVerifier {
+
+    private static final BigInteger CURVE_ORDER = Sign.CURVE_PARAMS.getN();
+    private static final BigInteger HALF_CURVE_ORDER = CURVE_ORDER.shiftRight(1);
+    private static final int SIGNATURE_LENGTH = 65;
+    private static final int WORD = 32;
+
+    private PermitVerifier() {
+    }
+
+    /**
+     * 并行校验签名和 deadline，结果按输入顺序排列
+     *
+     * @param domainSeparator 合约的 DOMAIN_SEPARATOR()
+     * @param now             当前时间（Unix 秒）
+     */
+    public static List<PermitVerdict> verifySignatures(byte[] domainSeparator, List<PermitRequest> permits, long now) {
+        return IntStream.range(0, permits.size())
+                .parallel()
+                .mapToObj(i -> verifySignature(domainSeparator, i, permits.get(i), now))
+                .toList();
+    }
+
+    /**
+     * 校验单个 permit 的签名和 deadline，不检查 nonce
+     */
+    public static PermitVerdict verifySignature(byte[] domainSeparator, int index, PermitRequest permit, long now) {
+        if (permit == null) {
+            return new PermitVerdict(index, null, null, null, false, Reason.MALFORMED);
+        }
+        if (!wellFormed(permit)) {
+            return PermitVerdict.invalid(index, permit, null, Reason.MALFORMED);
+        }
+        if (permit.deadline().compareTo(BigInteger.valueOf(now)) < 0) {
+            return PermitVerdict.invalid(index, permit, null, Reason.EXPIRED);
+        }
+        Sign.SignatureData signature = signature(permit);
+        if (signature == null) {
+            return PermitVerdict.invalid(index, permit, null, Reason.MALFORMED);
+        }
+        int v = signature.getV()[0] & 0xff;
+        BigInteger r = Numeric.toBigInt(signature.getR());
+        BigInteger s = Numeric.toBigInt(signature.getS());
+        if ((v != 27 && v != 28) || r.signum() == 0 || r.compareTo(CURVE_ORDER) >= 0
+                || s.signum() == 0 || s.compareTo(HALF_CURVE_ORDER) > 0) {
+            return PermitVerdict.invalid(index, permit, null, Reason.INVALID_SIGNATURE);
+        }
+        byte[] digest;
+        try {
+            digest = PermitDigest.digest(domainSeparator, permit.owner(), permit.spender(), permit.value(),
+                    permit.nonce(), permit.deadline());
+        } catch (IllegalArgumentException e) {
+            return PermitVerdict.invalid(index, permit, null, Reason.MALFORMED);
+        }
+        BigInteger publicKey;
+        try {
+            publicKey = Sign.recoverFromSignature(v - 27, new ECDSASignature(r, s), digest);
+        } catch (IllegalArgumentException e) {
+            // r 不是曲线上某个点的 x 坐标（Invalid point compression）
+            publicKey = null;
+        }
+        if (publicKey == null) {
+            return PermitVerdict.invalid(index, permit, null, Reason.INVALID_SIGNATURE);
+        }
+        String signer = Numeric.prependHexPrefix(Keys.getAddress(publicKey));
+        if (!signer.equalsIgnoreCase(permit.owner())) {
+            return PermitVerdict.invalid(index, permit, signer, Reason.SIGNER_MISMATCH);
+        }
+        return PermitVerdict.valid(index, permit, signer);
+    }
+
+    /**
+     * 用 owner 当前 nonce 的视图检查签名有效的 permit
+     *
+     * 合约按 nonce 顺序消费 permit，所以只有从当前 nonce 开始连续的一段可以依次提交：
+     * 当前 nonce 为 5 时，批内的 5、6、7 有效；缺少 6 时 7 及之后的 permit 永远无法上链，标为 NONCE_GAP。
+     * 连续段按批内出现过的 nonce 计算，与顺序无关；同一 (owner, nonce) 在批内出现多次时只保留第一条。
+     *
+     * @param nonces owner（小写）到当前 nonce 的映射
+     */
+    public static List<PermitVerdict> checkNonces(List<PermitVerdict> verdicts, Map<String, BigInteger> nonces) {
+        Map<String, Set<BigInteger>> present = new HashMap<>();
+        for (PermitVerdict verdict : verdicts) {
+            if (verdict.valid()) {
+                present.computeIfAbsent(verdict.owner().toLowerCase(), owner -> new HashSet<>()).add(verdict.nonce());
+            }
+        }
+        Map<String, BigInteger> runEnd = new HashMap<>();
+        present.forEach((owner, owned) -> {
+            BigInteger current = nonces.get(owner);
+            if (current != null) {
+                BigInteger next = current;
+                while (owned.contains(next)) {
+                    next = next.add(BigInteger.ONE);
+                }
+                runEnd.put(owner, next);
+            }
+        });
+
+        Set<String> seen = new HashSet<>();
+        List<PermitVerdict> checked = new ArrayList<>(verdicts.size());
+        for (PermitVerdict verdict : verdicts) {
+            if (!verdict.valid()) {
+                checked.add(verdict);
+                continue;
+            }
+            String owner = verdict.owner().toLowerCase();
+            BigInteger current = nonces.get(owner);
+            if (current == null) {
+                checked.add(verdict.reject(Reason.NONCE_UNKNOWN));
+            } else if (verdict.nonce().compareTo(current) < 0) {
+                checked.add(verdict.reject(Reason.NONCE_USED));
+            } else if (!seen.add(owner + ":" + verdict.nonce())) {
+                checked.add(verdict.reject(Reason.DUPLICATE_NONCE));
+            } else if (verdict.nonce().compareTo(runEnd.get(owner)) >= 0) {
+                checked.add(verdict.reject(Reason.NONCE_GAP));
+            } else {
+                checked.add(verdict);
+            }
+        }
+        return checked;
+    }
+
+    private static boolean wellFormed(PermitRequest permit) {
+        return permit.owner() != null && WalletUtils.isValidAddress(permit.owner())
+                && permit.spender() != null && WalletUtils.isValidAddress(permit.spender())
+                && permit.value() != null && permit.nonce() != null && permit.deadline() != null;
+    }
+
+    /**
+     * @return 签名（v 已规范为 27/28），格式不正确时为 null
+     */
+    public static Sign.SignatureData signature(PermitRequest permit) {
+        try {
+            if (permit.signature() != null) {
+                byte[] bytes = Numeric.hexStringToByteArray(permit.signature());
+                if (bytes.length != SIGNATURE_LENGTH) {
+                    return null;
+                }
+                return new Sign.SignatureData(normalizeV(bytes[2 * WORD] & 0xff),
+                        Arrays.copyOfRange(bytes, 0, WORD),
+                        Arrays.copyOfRange(bytes, WORD, 2 * WORD));
+            }
+            if (permit.v() == null || permit.r() == null || permit.s() == null) {
+                return null;
+            }
+            byte[] r = Numeric.hexStringToByteArray(permit.r());
+            byte[] s = Numeric.hexStringToByteArray(permit.s());
+            if (r.length != WORD || s.length != WORD || permit.v() < 0 || permit.v() > 0xff) {
+                return null;
+            }
+            return new Sign.SignatureData(normalizeV(permit.v()), r, s);
+        } catch (RuntimeException e) {
+            // 十六进制格式错误
+            return null;
+        }
+    }
+
+    /**
+     * 部分钱包输出的 v 为 0/1
+     */
+    private static byte normalizeV(int v) {
+        return (byte) (v < 27 ? v + 27 : v);
+    }
+}
@@ -0,0 +1,85 @@
+package com.wetech.demo.web3j.relay;
+
+import com.wetech.demo.web3j.dto.PermitRequest;
+import lombok.Getter;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * 一个代付请求：先提交用户签名的 permit，再由 spender（中继账户）调用 transferFrom 把代币转给 to
+ *
+ * 状态字段只由 {@link Relayer} 更新
+ */
+@Getter
+public class RelayJob {
+
+    private final String id = UUID.randomUUID().toString();
+    private final String contractAddress;
+    private final PermitRequest permit;
+    private final String to;
+    private final BigInteger amount;
+    private final Instant createdAt;
+
+    private volatile RelayState state = RelayState.QUEUED;
+    private volatile Instant updatedAt;
+    private volatile String permitHash;
+    private volatile String transferHash;
+    private volatile String error;
+
+    public RelayJob(String contractAddress, PermitRequest permit, String to, BigInteger amount) {
+        this.contractAddress = contractAddress;
+        this.permit = permit;
+        this.to = to;
+        this.amount = amount;
+        this.createdAt = Instant.now();
+        this.updatedAt = createdAt;
+    }
+
+    public String getOwner() {
+        return permit == null ? null : permit.owner();
+    }
+
+    public String getSpender() {
+        return permit == null ? null : permit.spender();
+    }
+
+    void submitted(String permitHash, String transferHash) {
+        this.permitHash = permitHash;
+        this.transferHash = transferHash;
+        update(RelayState.SUBMITTED);
+    }
+
+    /**
+     * permit 打包后重新发送的 transferFrom
+     */
+    void transferResubmitted(String transferHash) {
+        this.transferHash = transferHash;
+        this.updatedAt = Instant.now();
+    }
+
+    /**
+     * permit 已执行但 transferFrom 没有成功
+     */
+    void permitted(String error) {
+        this.error = error;
+        update(RelayState.PERMITTED);
+    }
+
+    void completed() {
+        update(RelayState.COMPLETED);
+    }
+
+    void failed(String error) {
+        this.error = error;
+        update(RelayState.FAILED);
+    }
+
+    private void update(RelayState state) {
+        if (!this.state.isTerminal()) {
+            this.state = state;
+            this.updatedAt = Instant.now();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.wetech.demo.web3j.relay;
+
+/**
+ * 代付请求（permit + transferFrom）所处的阶段
+ */
+public enum RelayState {
+    /** 已入队，等待同一 owner 之前的 permit 完成 */
+    QUEUED,
+    /** permit 和 transferFrom 已用连续的 nonce 广播 */
+    SUBMITTED,
+    /** 两笔交易都已打包且执行成功 */
+    COMPLETED,
+    /** permit 已执行（额度已授权给中继账户），但重试后 transferFrom 仍被拒绝或回滚，代币没有转出 */
+    PERMITTED,
+    /** 校验未通过、permit 被节点拒绝、执行回滚或过期 */
+    FAILED;
+
+    public boolean isTerminal() {
+        return this == COMPLETED || this == PERMITTED || this == FAILED;
+    }
+}
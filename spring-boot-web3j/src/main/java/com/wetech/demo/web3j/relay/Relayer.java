@@ -0,0 +1,367 @@
+package com.wetech.demo.web3j.relay;
+
+import com.wetech.demo.web3j.dto.PermitRequest;
+import com.wetech.demo.web3j.permit.PermitVerifier;
+import com.wetech.demo.web3j.rpc.HeadTracker;
+import com.wetech.demo.web3j.rpc.Web3jExecutor;
+import com.wetech.demo.web3j.tx.PipelinedTransactionManager;
+import com.wetech.demo.web3j.tx.ReceiptWatcher;
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.generated.Bytes32;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.abi.datatypes.generated.Uint8;
+import org.web3j.crypto.Sign;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.tx.gas.ContractGasProvider;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * permit + transferFrom 代付流水线
+ *
+ * 用户签名的 permit 把额度授权给某个中继账户（spender），中继账户用连续的两个 nonce 依次广播 permit 和
+ * transferFrom，两笔交易在同一账户的 nonce 序列中相邻，节点必然先执行 permit；不等待 permit 打包，
+ * 一个区块内可以完成一次代付。
+ *
+ * 同一 owner 的 permit nonce 必须按顺序被消费，因此每个 (合约, owner) 一条队列，按 permit nonce 排序，
+ * 前一个 permit 打包后才提交下一个；不同 owner 之间互不等待，分散在多个中继账户上并行提交。
+ * 回执由 {@link ReceiptWatcher} 每个区块批量查询一次；超时未打包时中继账户重新读取 pending nonce。
+ *
+ * permit 被接受而 transferFrom 被拒绝时，等 permit 打包后单独重发一次 transferFrom（额度此时已在链上），
+ * 仍不成功则以 {@link RelayState#PERMITTED} 结束，表示额度已授权给中继账户但代币没有转出。
+ *
+ * 链头每前进一次：重试等待链上 nonce 的队列，过期的排队请求标记为失败，超过 retention 的已结束请求从表中移除。
+ */
+@Slf4j
+public class Relayer {
+
+    private final Map<String, PipelinedTransactionManager> relayers = new LinkedHashMap<>();
+    private final Map<String, RelayJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, OwnerLane> lanes = new ConcurrentHashMap<>();
+    private final ReceiptWatcher receiptWatcher;
+    private final Web3jExecutor executor;
+    private final ContractGasProvider gasProvider;
+    private final BiFunction<String, String, CompletableFuture<BigInteger>> nonces;
+    private final Duration retention;
+
+    /**
+     * @param relayers 中继账户的交易管理器
+     * @param nonces   读取 (合约, owner) 链上当前的 permit nonce
+     */
+    public Relayer(List<PipelinedTransactionManager> relayers, ReceiptWatcher receiptWatcher,
+                   HeadTracker headTracker, Web3jExecutor executor, ContractGasProvider gasProvider,
+                   BiFunction<String, String, CompletableFuture<BigInteger>> nonces, Duration retention) {
+        for (PipelinedTransactionManager relayer : relayers) {
+            this.relayers.put(relayer.getFromAddress().toLowerCase(), relayer);
+        }
+        this.receiptWatcher = receiptWatcher;
+        this.executor = executor;
+        this.gasProvider = gasProvider;
+        this.nonces = nonces;
+        this.retention = retention;
+        headTracker.addListener(this::onHead);
+    }
+
+    /**
+     * @return 中继账户地址，用户签名 permit 时以其中之一为 spender
+     */
+    public List<String> getRelayers() {
+        return List.copyOf(relayers.keySet());
+    }
+
+    public boolean isRelayer(String address) {
+        return address != null && relayers.containsKey(address.toLowerCase());
+    }
+
+    public Optional<RelayJob> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * 登记一个未通过校验的请求，直接以失败结束
+     */
+    public RelayJob reject(RelayJob job, String error) {
+        job.failed(error);
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    /**
+     * 把已通过离线校验的请求放入 owner 的队列
+     */
+    public RelayJob enqueue(RelayJob job) {
+        jobs.put(job.getId(), job);
+        String key = laneKey(job);
+        OwnerLane lane = lanes.compute(key, (ignored, existing) -> {
+            OwnerLane target = existing != null ? existing : new OwnerLane(job.getContractAddress(), job.getOwner());
+            synchronized (target) {
+                RelayJob previous = target.queued.putIfAbsent(job.getPermit().nonce(), job);
+                if (previous != null) {
+                    job.failed("Duplicate permit nonce, already queued as " + previous.getId());
+                }
+            }
+            return target;
+        });
+        drain(lane);
+        return job;
+    }
+
+    private void drain(OwnerLane lane) {
+        RelayJob next;
+        synchronized (lane) {
+            if (lane.inFlight || lane.queued.isEmpty()) {
+                return;
+            }
+            if (lane.nonce == null) {
+                if (!lane.loading) {
+                    lane.loading = true;
+                    load(lane);
+                }
+                return;
+            }
+            // 链上 nonce 已经越过的 permit 不可能再执行
+            while (!lane.queued.isEmpty() && lane.queued.firstKey().compareTo(lane.nonce) < 0) {
+                lane.queued.pollFirstEntry().getValue().failed("Permit nonce already used");
+            }
+            if (lane.queued.isEmpty() || !lane.queued.firstKey().equals(lane.nonce)) {
+                // 等待缺失的 nonce 到达、链上 nonce 前进或排队请求过期
+                return;
+            }
+            next = lane.queued.pollFirstEntry().getValue();
+            lane.inFlight = true;
+        }
+        executor.run(() -> {
+            dispatch(lane, next);
+            return null;
+        });
+    }
+
+    private void load(OwnerLane lane) {
+        nonces.apply(lane.contractAddress, lane.owner).whenComplete((nonce, error) -> {
+            synchronized (lane) {
+                lane.loading = false;
+                if (error != null) {
+                    // 下一个区块重试
+                    log.warn("Failed to read permit nonce of {}: {}", lane.owner, error.getMessage());
+                    return;
+                }
+                lane.nonce = nonce;
+            }
+            drain(lane);
+        });
+    }
+
+    private void dispatch(OwnerLane lane, RelayJob job) {
+        PermitRequest permit = job.getPermit();
+        PipelinedTransactionManager relayer = relayers.get(permit.spender().toLowerCase());
+        BigInteger gasPrice = gasProvider.getGasPrice();
+        BigInteger gasLimit = gasProvider.getGasLimit();
+        List<EthSendTransaction> sent;
+        try {
+            sent = relayer.sendAll(List.of(
+                    new PipelinedTransactionManager.Call(job.getContractAddress(), permitData(permit), gasPrice, gasLimit),
+                    new PipelinedTransactionManager.Call(job.getContractAddress(), transferFromData(job), gasPrice, gasLimit)));
+        } catch (Exception e) {
+            job.failed("Failed to assign relayer nonce: " + e.getMessage());
+            release(lane, null);
+            return;
+        }
+        EthSendTransaction permitSent = sent.get(0);
+        if (permitSent.hasError()) {
+            job.failed("Permit rejected: " + permitSent.getError().getMessage());
+            release(lane, null);
+            return;
+        }
+        String permitHash = permitSent.getTransactionHash();
+        EthSendTransaction transferSent = sent.size() > 1 ? sent.get(1) : null;
+        boolean transferAccepted = transferSent != null && !transferSent.hasError();
+        job.submitted(permitHash, transferAccepted ? transferSent.getTransactionHash() : null);
+        log.debug("Relayed permit of {} (nonce {}) via {}: {}", permit.owner(), permit.nonce(),
+                relayer.getFromAddress(), permitHash);
+
+        CompletableFuture<TransactionReceipt> permitReceipt = receiptWatcher.watch(permitHash);
+        // permit 打包后这个 owner 的下一个 permit 才能提交
+        permitReceipt.whenComplete((receipt, error) -> {
+            if (error != null) {
+                // 超时未打包的 permit 可能已被节点丢弃，中继账户的 nonce 序列以节点为准
+                relayer.resync();
+            }
+            release(lane, error == null && receipt.isStatusOK() ? permit.nonce().add(BigInteger.ONE) : null);
+        });
+        if (!transferAccepted) {
+            // permit 上链后额度已经授权给中继账户，transferFrom 单独重发一次即可
+            String rejected = transferSent == null ? "not sent" : transferSent.getError().getMessage();
+            permitReceipt.thenAccept(permitMined -> {
+                if (permitMined.isStatusOK()) {
+                    executor.run(() -> {
+                        resendTransfer(relayer, job, rejected);
+                        return null;
+                    });
+                } else {
+                    job.failed("Permit reverted");
+                }
+            }).exceptionally(error -> failed(job, error));
+            return;
+        }
+        CompletableFuture<TransactionReceipt> transferReceipt = watchTransfer(relayer, job.getTransferHash());
+        permitReceipt.thenAccept(permitMined -> {
+            if (permitMined.isStatusOK()) {
+                settleTransfer(job, transferReceipt);
+            } else {
+                job.failed("Permit reverted");
+            }
+        }).exceptionally(error -> failed(job, error));
+    }
+
+    /**
+     * permit 已执行、首次发送的 transferFrom 没有被节点接受时重发一次，仍不成功则以 PERMITTED 结束
+     */
+    private void resendTransfer(PipelinedTransactionManager relayer, RelayJob job, String rejected) {
+        BigInteger gasPrice = gasProvider.getGasPrice();
+        BigInteger gasLimit = gasProvider.getGasLimit();
+        EthSendTransaction resent;
+        try {
+            resent = relayer.sendAll(List.of(new PipelinedTransactionManager.Call(
+                    job.getContractAddress(), transferFromData(job), gasPrice, gasLimit))).get(0);
+        } catch (Exception e) {
+            job.permitted("transferFrom rejected: " + rejected + "; retry failed: " + e.getMessage());
+            return;
+        }
+        if (resent.hasError()) {
+            job.permitted("transferFrom rejected: " + rejected + "; retry rejected: " + resent.getError().getMessage());
+            return;
+        }
+        job.transferResubmitted(resent.getTransactionHash());
+        settleTransfer(job, watchTransfer(relayer, resent.getTransactionHash()));
+    }
+
+    /**
+     * permit 已执行后，按 transferFrom 的结果结束请求
+     */
+    private static void settleTransfer(RelayJob job, CompletableFuture<TransactionReceipt> transferReceipt) {
+        transferReceipt.whenComplete((transferMined, error) -> {
+            if (error != null) {
+                job.permitted(cause(error).getMessage());
+            } else if (transferMined.isStatusOK()) {
+                job.completed();
+            } else {
+                job.permitted("transferFrom reverted");
+            }
+        });
+    }
+
+    private CompletableFuture<TransactionReceipt> watchTransfer(PipelinedTransactionManager relayer, String hash) {
+        return receiptWatcher.watch(hash).whenComplete((receipt, error) -> {
+            if (error != null) {
+                relayer.resync();
+            }
+        });
+    }
+
+    private static Void failed(RelayJob job, Throwable error) {
+        job.failed(cause(error).getMessage());
+        return null;
+    }
+
+    private static Throwable cause(Throwable error) {
+        return error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * @param nonce 这个 owner 链上的下一个 nonce，为 null 时重新读取
+     */
+    private void release(OwnerLane lane, BigInteger nonce) {
+        synchronized (lane) {
+            lane.inFlight = false;
+            lane.nonce = nonce;
+        }
+        drain(lane);
+    }
+
+    private void onHead(long head) {
+        long now = Instant.now().getEpochSecond();
+        for (Map.Entry<String, OwnerLane> entry : lanes.entrySet()) {
+            OwnerLane lane = entry.getValue();
+            synchronized (lane) {
+                lane.queued.values().removeIf(job -> {
+                    if (job.getPermit().deadline().compareTo(BigInteger.valueOf(now)) < 0) {
+                        job.failed("Permit expired before it could be relayed");
+                        return true;
+                    }
+                    return false;
+                });
+                if (!lane.inFlight && !lane.queued.isEmpty() && !lane.queued.firstKey().equals(lane.nonce)) {
+                    // 队首在等待缺失的 nonce，它可能已由别处提交上链，重新读取
+                    lane.nonce = null;
+                }
+            }
+            lanes.computeIfPresent(entry.getKey(), (key, current) -> current.isIdle() ? null : current);
+            drain(lane);
+        }
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.getState().isTerminal() && job.getUpdatedAt().isBefore(cutoff));
+    }
+
+    private static String laneKey(RelayJob job) {
+        return job.getContractAddress().toLowerCase() + ":" + job.getOwner().toLowerCase();
+    }
+
+    private static String permitData(PermitRequest permit) {
+        Sign.SignatureData signature = PermitVerifier.signature(permit);
+        return FunctionEncoder.encode(new Function("permit", Arrays.asList(
+                new Address(permit.owner()),
+                new Address(permit.spender()),
+                new Uint256(permit.value()),
+                new Uint256(permit.deadline()),
+                new Uint8(Numeric.toBigInt(signature.getV())),
+                new Bytes32(signature.getR()),
+                new Bytes32(signature.getS())), Collections.emptyList()));
+    }
+
+    private static String transferFromData(RelayJob job) {
+        return FunctionEncoder.encode(new Function("transferFrom", Arrays.asList(
+                new Address(job.getOwner()),
+                new Address(job.getTo()),
+                new Uint256(job.getAmount())), Collections.emptyList()));
+    }
+
+    /**
+     * 一个 (合约, owner) 的 permit 队列，字段在持有自身锁时访问
+     */
+    private static final class OwnerLane {
+
+        private final String contractAddress;
+        private final String owner;
+        private final TreeMap<BigInteger, RelayJob> queued = new TreeMap<>();
+        /** owner 链上的下一个 permit nonce，未知时为 null */
+        private BigInteger nonce;
+        private boolean loading;
+        private boolean inFlight;
+
+        private OwnerLane(String contractAddress, String owner) {
+            this.contractAddress = contractAddress;
+            this.owner = owner;
+        }
+
+        private synchronized boolean isIdle() {
+            return queued.isEmpty() && !inFlight && !loading;
+        }
+    }
+}
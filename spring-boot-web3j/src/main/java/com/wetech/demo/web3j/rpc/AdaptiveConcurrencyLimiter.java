@@ -0,0 +1,151 @@
+package com.wetech.demo.web3j.rpc;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AIMD 自适应并发限制器
+ *
+ * - 请求成功且并发已接近上限时，上限加 1/limit（约每轮加 1）
+ * - 节点限流（HTTP 429 / 限流错误码）时上限乘以 {@link #BACKOFF_RATIO}，冷却期内只降一次
+ * - 超出上限的请求进入有界队列，等待超过排队时限或队列已满时以 {@link RpcOverloadedException} 失败
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Outcome {
+        SUCCESS,
+        THROTTLED,
+        /**
+         * 与节点容量无关的失败（连接错误、业务错误），不调整上限
+         */
+        IGNORED
+    }
+
+    private static final double BACKOFF_RATIO = 0.5;
+    private static final Duration BACKOFF_COOLDOWN = Duration.ofMillis(250);
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final Duration queueTimeout;
+    private final ScheduledExecutorService scheduler;
+
+    private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private long lastBackoffNanos;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      int maxQueue, Duration queueTimeout, ScheduledExecutorService scheduler) {
+        this.name = name;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueue = maxQueue;
+        this.queueTimeout = queueTimeout;
+        this.scheduler = scheduler;
+        this.lastBackoffNanos = System.nanoTime() - BACKOFF_COOLDOWN.toNanos();
+    }
+
+    /**
+     * 申请一个并发名额，返回的 future 在拿到名额后完成；拿到名额后必须调用 {@link #release(Outcome)}
+     */
+    public CompletableFuture<Void> acquire() {
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        synchronized (this) {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                permit.complete(null);
+                return permit;
+            }
+            if (waiters.size() >= maxQueue) {
+                permit.completeExceptionally(overloaded("queue is full"));
+                return permit;
+            }
+            waiters.addLast(permit);
+        }
+        // 放行或超时后都取消定时任务，避免已放行的许可在调度队列里堆积
+        ScheduledFuture<?> expiry = scheduler.schedule(
+                () -> expire(permit), queueTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        permit.whenComplete((ignored, error) -> expiry.cancel(false));
+        return permit;
+    }
+
+    public void release(Outcome outcome) {
+        synchronized (this) {
+            inFlight--;
+            switch (outcome) {
+                case SUCCESS -> {
+                    if (inFlight + 1 >= (int) limit) {
+                        limit = Math.min(maxLimit, limit + 1.0 / limit);
+                    }
+                }
+                case THROTTLED -> {
+                    long now = System.nanoTime();
+                    if (now - lastBackoffNanos >= BACKOFF_COOLDOWN.toNanos()) {
+                        lastBackoffNanos = now;
+                        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                        log.warn("RPC provider throttled {} requests, concurrency limit lowered to {}", name, (int) limit);
+                    }
+                }
+                case IGNORED -> {
+                }
+            }
+        }
+        dispatch();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return waiters.size();
+    }
+
+    private void dispatch() {
+        while (true) {
+            CompletableFuture<Void> next;
+            synchronized (this) {
+                if (inFlight >= (int) limit || waiters.isEmpty()) {
+                    return;
+                }
+                next = waiters.pollFirst();
+                inFlight++;
+            }
+            if (!next.complete(null)) {
+                // 已经超时的等待者不占用名额
+                synchronized (this) {
+                    inFlight--;
+                }
+            }
+        }
+    }
+
+    private void expire(CompletableFuture<Void> permit) {
+        synchronized (this) {
+            if (!waiters.remove(permit)) {
+                return;
+            }
+        }
+        permit.completeExceptionally(overloaded("queued longer than " + queueTimeout.toMillis() + " ms"));
+    }
+
+    private RpcOverloadedException overloaded(String reason) {
+        return new RpcOverloadedException(name, queueTimeout,
+                "Too many concurrent " + name + " RPC requests: " + reason);
+    }
+}
@@ -0,0 +1,161 @@
+package com.wetech.demo.web3j.rpc;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.reactivex.Flowable;
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.websocket.events.Notification;
+import org.web3j.utils.Numeric;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 为已过最终性深度的不可变响应加一层磁盘缓存
+ *
+ * 可缓存的方法：eth_getTransactionReceipt、eth_getBlockByNumber（显式区块号）、eth_getBlockByHash，
+ * 以及区块范围显式给出的 eth_getLogs。只有所在区块不晚于 head - finalityDepth 的结果才会写入缓存；
+ * 链头未知时只读不写。
+ */
+@Slf4j
+public class CachingWeb3jService implements Web3jService {
+
+    private static final Set<String> CACHEABLE_METHODS = Set.of(
+            "eth_getTransactionReceipt",
+            "eth_getBlockByNumber",
+            "eth_getBlockByHash",
+            "eth_getLogs");
+
+    private final Web3jService delegate;
+    private final FinalizedResponseCache cache;
+    private final HeadTracker headTracker;
+    private final long finalityDepth;
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+
+    public CachingWeb3jService(Web3jService delegate, FinalizedResponseCache cache,
+                               HeadTracker headTracker, long finalityDepth) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.headTracker = headTracker;
+        this.finalityDepth = finalityDepth;
+    }
+
+    @Override
+    public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+        return RoutingWeb3jService.await(sendAsync(request, responseType));
+    }
+
+    @Override
+    public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+        if (!CACHEABLE_METHODS.contains(request.getMethod())) {
+            return delegate.sendAsync(request, responseType);
+        }
+        JsonNode params = objectMapper.valueToTree(request.getParams());
+        String key = FinalizedResponseCache.key(request.getMethod(), params.toString());
+        byte[] cached = cache.get(key);
+        if (cached != null) {
+            try {
+                return CompletableFuture.completedFuture(
+                        toResponse(request, objectMapper.readTree(cached), null, responseType));
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable cached response for {}: {}", request.getMethod(), e.getMessage());
+            }
+        }
+        return delegate.sendAsync(request, RawResponse.class).thenApply(raw -> {
+            JsonNode result = raw.getResult();
+            if (!raw.hasError() && isFinalized(request.getMethod(), params, result)) {
+                try {
+                    cache.put(key, objectMapper.writeValueAsBytes(result));
+                } catch (JsonProcessingException e) {
+                    log.warn("Failed to serialize {} response for caching: {}", request.getMethod(), e.getMessage());
+                }
+            }
+            return toResponse(request, result, raw.getError(), responseType);
+        });
+    }
+
+    @Override
+    public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        return delegate.sendBatch(batchRequest);
+    }
+
+    @Override
+    public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+        return delegate.sendBatchAsync(batchRequest);
+    }
+
+    @Override
+    public <T extends Notification<?>> Flowable<T> subscribe(Request request, String unsubscribeMethod,
+                                                             Class<T> responseType) {
+        return delegate.subscribe(request, unsubscribeMethod, responseType);
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    private boolean isFinalized(String method, JsonNode params, JsonNode result) {
+        long head = headTracker.getHead();
+        if (head < 0 || result == null || result.isNull()) {
+            return false;
+        }
+        long finalized = head - finalityDepth;
+        return switch (method) {
+            case "eth_getTransactionReceipt" -> atOrBelow(result.path("blockNumber"), finalized);
+            case "eth_getBlockByNumber" -> atOrBelow(params.path(0), finalized);
+            case "eth_getBlockByHash" -> atOrBelow(result.path("number"), finalized);
+            case "eth_getLogs" -> {
+                JsonNode filter = params.path(0);
+                if (filter.hasNonNull("blockHash")) {
+                    yield result.size() > 0 && atOrBelow(result.path(0).path("blockNumber"), finalized);
+                }
+                yield atOrBelow(filter.path("fromBlock"), finalized) && atOrBelow(filter.path("toBlock"), finalized);
+            }
+            default -> false;
+        };
+    }
+
+    /**
+     * 节点值必须是十六进制区块号（latest、pending 等标签永远不可缓存）
+     */
+    private static boolean atOrBelow(JsonNode quantity, long finalized) {
+        if (!quantity.isTextual() || !quantity.asText().startsWith("0x")) {
+            return false;
+        }
+        return Numeric.decodeQuantity(quantity.asText()).longValueExact() <= finalized;
+    }
+
+    private <T extends Response> T toResponse(Request<?, ?> request, JsonNode result, Response.Error error,
+                                              Class<T> responseType) {
+        ObjectNode envelope = objectMapper.createObjectNode();
+        envelope.put("jsonrpc", "2.0");
+        envelope.put("id", request.getId());
+        if (error != null) {
+            envelope.set("error", objectMapper.valueToTree(error));
+        } else {
+            envelope.set("result", result);
+        }
+        try {
+            return objectMapper.treeToValue(envelope, responseType);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 结果保留为 JSON 树，便于写入缓存后再转换为调用方要求的响应类型
+     */
+    public static class RawResponse extends Response<JsonNode> {
+    }
+}
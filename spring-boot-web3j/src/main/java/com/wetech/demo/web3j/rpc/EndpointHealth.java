@@ -0,0 +1,114 @@
+package com.wetech.demo.web3j.rpc;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * 单个节点的健康状况，由 {@link HeadTracker} 每轮轮询时刷新，请求路径上只读取
+ *
+ * - head / headObservedAt：该节点报告的区块号，以及它最近一次前进的时间
+ * - lag：落后于所有节点中最高区块号的块数
+ * - syncing：eth_syncing 是否报告正在同步
+ * - errorRate：最近的传输层失败率（指数移动平均）
+ *
+ * 节点探测失败、正在同步或落后超过阈值时不可用，路由会先选其他节点，读不到落后节点上的旧余额。
+ * 尚未探测过的节点视为可用。
+ */
+@Getter
+public class EndpointHealth {
+
+    /**
+     * 失败率估计值的平滑系数（指数移动平均中新样本的权重）
+     */
+    private static final double ERROR_RATE_WEIGHT = 0.2;
+
+    private volatile long head = -1;
+    private volatile Instant headObservedAt;
+    private volatile long lag = -1;
+    private volatile boolean syncing;
+    private volatile boolean lagging;
+    private volatile boolean failing;
+    private volatile String lastError;
+    private volatile double errorRate;
+
+    @Getter(AccessLevel.NONE)
+    private long lastRequests;
+    @Getter(AccessLevel.NONE)
+    private long lastFailures;
+
+    /**
+     * @return 节点可以接收读请求：最近一次探测成功、没有在同步、落后不超过阈值
+     */
+    public boolean isAvailable() {
+        return !failing && !syncing && !lagging;
+    }
+
+    /**
+     * @return 距该节点区块号最近一次前进的时间，尚未探测成功时为 null
+     */
+    public Duration getHeadAge() {
+        Instant observedAt = headObservedAt;
+        return observedAt == null ? null : Duration.between(observedAt, Instant.now());
+    }
+
+    /**
+     * @return 不可用的原因，可用时为 null
+     */
+    public String getReason() {
+        if (failing) {
+            return "unreachable: " + lastError;
+        }
+        if (syncing) {
+            return "syncing";
+        }
+        if (lagging) {
+            return lag + " blocks behind";
+        }
+        return null;
+    }
+
+    void probed(long latest, boolean nodeSyncing) {
+        if (latest > head) {
+            head = latest;
+            headObservedAt = Instant.now();
+        }
+        syncing = nodeSyncing;
+        failing = false;
+        lastError = null;
+    }
+
+    void failed(String message) {
+        failing = true;
+        lastError = message;
+    }
+
+    /**
+     * @param chainHead    所有节点中最高的区块号
+     * @param maxLagBlocks 落后超过该块数视为不可用
+     */
+    void updateLag(long chainHead, long maxLagBlocks) {
+        if (head < 0 || chainHead < 0) {
+            return;
+        }
+        lag = Math.max(chainHead - head, 0);
+        lagging = lag > maxLagBlocks;
+    }
+
+    /**
+     * 按两次轮询之间新增的请求数和失败数更新失败率，期间没有请求时保持不变
+     */
+    void updateErrorRate(long requests, long failures) {
+        long requestDelta = requests - lastRequests;
+        long failureDelta = failures - lastFailures;
+        lastRequests = requests;
+        lastFailures = failures;
+        if (requestDelta <= 0) {
+            return;
+        }
+        double sample = (double) failureDelta / requestDelta;
+        errorRate = errorRate * (1 - ERROR_RATE_WEIGHT) + sample * ERROR_RATE_WEIGHT;
+    }
+}
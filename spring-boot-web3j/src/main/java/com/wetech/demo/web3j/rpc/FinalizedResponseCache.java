@@ -0,0 +1,224 @@
+package com.wetech.demo.web3j.rpc;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 已最终确定（不可变）RPC 响应的磁盘缓存
+ *
+ * 每个条目是一个文件，文件名为 (method, params) 的 SHA-256。内存中只保存条目大小和最近访问时间，
+ * 总大小超过上限时按最近最少使用淘汰到上限的 90%。启动时扫描目录重建索引，重启后缓存仍然有效。
+ */
+@Slf4j
+public class FinalizedResponseCache {
+
+    private static final String SUFFIX = ".json";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public FinalizedResponseCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> walk = Files.walk(directory)) {
+                files = walk.filter(Files::isRegularFile).toList();
+            }
+            // 上次进程在写入和改名之间退出时留下的临时文件，不计入索引也不会再被改名，直接删掉
+            int staleTemps = 0;
+            for (Path file : files) {
+                if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                    staleTemps++;
+                }
+            }
+            if (staleTemps > 0) {
+                log.info("Deleted {} stale temporary files from RPC cache {}", staleTemps, directory);
+            }
+            files.stream()
+                    .filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparing(FinalizedResponseCache::lastModified))
+                    .forEach(file -> {
+                        String name = file.getFileName().toString();
+                        long size = size(file);
+                        index.put(name.substring(0, name.length() - SUFFIX.length()),
+                                new Entry(size, clock.incrementAndGet()));
+                        totalBytes.addAndGet(size);
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open RPC cache directory " + directory, e);
+        }
+        log.info("RPC response cache at {} holds {} entries ({} bytes)", directory, index.size(), totalBytes.get());
+        evictIfNeeded();
+    }
+
+    public static String key(String method, String params) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(method.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return HEX.formatHex(digest.digest(params.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return 缓存的响应内容，未命中时为 null
+     */
+    public byte[] get(String key) {
+        Entry entry = index.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        try {
+            byte[] content = Files.readAllBytes(path(key));
+            entry.lastAccess = clock.incrementAndGet();
+            hits.incrementAndGet();
+            return content;
+        } catch (NoSuchFileException e) {
+            remove(key);
+        } catch (IOException e) {
+            log.warn("Failed to read cached RPC response {}: {}", key, e.getMessage());
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(String key, byte[] content) {
+        if (content.length > maxBytes || index.containsKey(key)) {
+            return;
+        }
+        Path target = path(key);
+        Path temp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(target.getParent(), key, TEMP_SUFFIX);
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Failed to cache RPC response {}: {}", key, e.getMessage());
+            deleteQuietly(temp);
+            return;
+        }
+        if (index.putIfAbsent(key, new Entry(content.length, clock.incrementAndGet())) == null) {
+            totalBytes.addAndGet(content.length);
+        }
+        evictIfNeeded();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int getEntries() {
+        return index.size();
+    }
+
+    public long getTotalBytes() {
+        return totalBytes.get();
+    }
+
+    private synchronized void evictIfNeeded() {
+        if (totalBytes.get() <= maxBytes) {
+            return;
+        }
+        long target = maxBytes / 10 * 9;
+        List<Map.Entry<String, Entry>> entries = new ArrayList<>(index.entrySet());
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+        int evicted = 0;
+        for (Map.Entry<String, Entry> entry : entries) {
+            if (totalBytes.get() <= target) {
+                break;
+            }
+            remove(entry.getKey());
+            evicted++;
+        }
+        log.debug("Evicted {} cached RPC responses, {} bytes remain", evicted, totalBytes.get());
+    }
+
+    private void remove(String key) {
+        Entry entry = index.remove(key);
+        if (entry == null) {
+            return;
+        }
+        totalBytes.addAndGet(-entry.size);
+        try {
+            Files.deleteIfExists(path(key));
+        } catch (IOException e) {
+            log.warn("Failed to delete cached RPC response {}: {}", key, e.getMessage());
+        }
+    }
+
+    private Path path(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + SUFFIX);
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Failed to delete temporary RPC cache file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static final class Entry {
+        private final long size;
+        private volatile long lastAccess;
+
+        private Entry(long size, long lastAccess) {
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
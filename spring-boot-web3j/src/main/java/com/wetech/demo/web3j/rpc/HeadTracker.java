@@ -0,0 +1,224 @@
+package com.wetech.demo.web3j.rpc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthSyncing;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongConsumer;
+
+/**
+ * 后台轮询链头区块号和各节点的健康状况
+ *
+ * 需要当前区块高度的地方（最终性判断、缓存校验等）读取这里的值，而不是每次请求都发一次 eth_blockNumber。
+ * 同时根据链头前进的间隔估算出块时间。
+ *
+ * 每轮向每个节点各发一次 eth_blockNumber 和 eth_syncing，结果写入节点的 {@link EndpointHealth}；
+ * 链头取所有节点中最高的区块号，各节点的落后块数相对它计算。探测直接发往节点，不经过限流隔板，
+ * 高负载时也能及时发现落后的节点。每次探测最多等待一个轮询间隔，超时按失败处理，
+ * 卡住的节点不会拖住整轮轮询，其他节点的链头照常更新。
+ */
+@Slf4j
+public class HeadTracker implements AutoCloseable {
+
+    /**
+     * 出块间隔估计值的平滑系数（指数移动平均中新样本的权重）
+     */
+    private static final double INTERVAL_WEIGHT = 0.2;
+
+    private final List<RpcEndpoint> endpoints;
+    private final long maxLagBlocks;
+    private final Duration pollInterval;
+    private final ScheduledFuture<?> task;
+    private final List<LongConsumer> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile long head = -1;
+    private volatile long servableHead = -1;
+    private volatile Instant headObservedAt;
+    private volatile Duration blockInterval;
+    private volatile boolean failing;
+
+    /**
+     * @param maxLagBlocks 节点落后链头超过该块数时标记为不可用
+     */
+    public HeadTracker(List<RpcEndpoint> endpoints, ScheduledExecutorService scheduler, Duration pollInterval,
+                       long maxLagBlocks) {
+        this.endpoints = List.copyOf(endpoints);
+        this.maxLagBlocks = maxLagBlocks;
+        this.pollInterval = pollInterval;
+        this.task = scheduler.scheduleWithFixedDelay(
+                this::poll, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return 最近一次观察到的链头区块号，尚未成功获取时为 -1
+     */
+    public long getHead() {
+        return head;
+    }
+
+    /**
+     * 所有可用节点都已有的最高区块：可用节点中最低的区块号
+     *
+     * 路由会把读请求发给落后链头不超过 maxLagBlocks 的节点，固定在 {@link #getHead()} 上的读取
+     * 发到稍落后的节点时会得到 header not found；需要指定区块读取时用这个值，任何可用节点都能回答。
+     *
+     * @return 区块号，尚未成功获取时为 -1
+     */
+    public long getServableHead() {
+        return servableHead;
+    }
+
+    /**
+     * @return 链头最近一次前进的时间，尚未成功获取时为 null
+     */
+    public Instant getHeadObservedAt() {
+        return headObservedAt;
+    }
+
+    /**
+     * @return 估算的平均出块间隔，链头尚未前进过两次时为 null
+     */
+    public Duration getBlockInterval() {
+        return blockInterval;
+    }
+
+    /**
+     * @return 被探测的节点，健康状况见 {@link RpcEndpoint#getHealth()}
+     */
+    public List<RpcEndpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * 注册链头前进时的回调，回调在轮询线程上执行，不应阻塞
+     */
+    public void addListener(LongConsumer listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        task.cancel(false);
+    }
+
+    void poll() {
+        List<Boolean> wasAvailable = endpoints.stream()
+                .map(endpoint -> endpoint.getHealth().isAvailable())
+                .toList();
+        CompletableFuture.allOf(endpoints.stream()
+                        .map(this::probe)
+                        .toArray(CompletableFuture[]::new))
+                .join();
+        long latest = -1;
+        for (RpcEndpoint endpoint : endpoints) {
+            EndpointHealth health = endpoint.getHealth();
+            if (!health.isFailing()) {
+                latest = Math.max(latest, health.getHead());
+            }
+        }
+        for (int i = 0; i < endpoints.size(); i++) {
+            RpcEndpoint endpoint = endpoints.get(i);
+            endpoint.getHealth().updateLag(latest, maxLagBlocks);
+            endpoint.getHealth().updateErrorRate(endpoint.getRequests().get(), endpoint.getFailures().get());
+            logTransition(endpoint, wasAvailable.get(i));
+        }
+        if (latest < 0) {
+            onFailure(endpoints.get(0).getHealth().getLastError());
+            return;
+        }
+        failing = false;
+        long lowest = Long.MAX_VALUE;
+        for (RpcEndpoint endpoint : endpoints) {
+            EndpointHealth health = endpoint.getHealth();
+            if (health.isAvailable()) {
+                lowest = Math.min(lowest, health.getHead());
+            }
+        }
+        servableHead = lowest == Long.MAX_VALUE ? latest : lowest;
+        if (latest > head) {
+            Instant now = Instant.now();
+            if (head >= 0) {
+                updateBlockInterval(Duration.between(headObservedAt, now).dividedBy(latest - head));
+            }
+            head = latest;
+            headObservedAt = now;
+            for (LongConsumer listener : listeners) {
+                try {
+                    listener.accept(latest);
+                } catch (RuntimeException e) {
+                    log.warn("Head listener failed at block {}", latest, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 向一个节点同时查询区块号和同步状态，失败时记入该节点的健康状况，返回的 future 总是正常完成
+     *
+     * 可达性只看 eth_blockNumber：部分托管节点不支持 eth_syncing，这时按未在同步处理
+     */
+    private CompletableFuture<Void> probe(RpcEndpoint endpoint) {
+        EndpointHealth health = endpoint.getHealth();
+        CompletableFuture<EthBlockNumber> blockNumber = endpoint.sendAsync(new Request<>(
+                "eth_blockNumber",
+                Collections.<String>emptyList(),
+                endpoint.getTransport(),
+                EthBlockNumber.class), EthBlockNumber.class)
+                .orTimeout(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        CompletableFuture<Boolean> syncing = endpoint.sendAsync(new Request<>(
+                        "eth_syncing",
+                        Collections.<String>emptyList(),
+                        endpoint.getTransport(),
+                        EthSyncing.class), EthSyncing.class)
+                .orTimeout(pollInterval.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(response -> !response.hasError() && response.isSyncing())
+                .exceptionally(error -> false);
+        return blockNumber.thenAcceptBoth(syncing, (number, nodeSyncing) -> {
+            if (number.hasError()) {
+                health.failed(number.getError().getMessage());
+            } else {
+                health.probed(number.getBlockNumber().longValueExact(), nodeSyncing);
+            }
+        }).exceptionally(error -> {
+            Throwable cause = error.getCause() != null ? error.getCause() : error;
+            health.failed(cause instanceof TimeoutException
+                    ? "eth_blockNumber timed out after " + pollInterval.toMillis() + " ms"
+                    : cause.getMessage());
+            return null;
+        });
+    }
+
+    private void logTransition(RpcEndpoint endpoint, boolean wasAvailable) {
+        EndpointHealth health = endpoint.getHealth();
+        if (wasAvailable && !health.isAvailable()) {
+            log.warn("RPC endpoint {} is unavailable: {}", endpoint.getMetricsTag(), health.getReason());
+        } else if (!wasAvailable && health.isAvailable()) {
+            log.info("RPC endpoint {} is available again", endpoint.getMetricsTag());
+        }
+    }
+
+    private void updateBlockInterval(Duration sample) {
+        Duration previous = blockInterval;
+        blockInterval = previous == null
+                ? sample
+                : Duration.ofNanos((long) (previous.toNanos() * (1 - INTERVAL_WEIGHT) + sample.toNanos() * INTERVAL_WEIGHT));
+    }
+
+    private void onFailure(String message) {
+        if (!failing) {
+            log.warn("Failed to refresh chain head: {}", message);
+        }
+        failing = true;
+    }
+}
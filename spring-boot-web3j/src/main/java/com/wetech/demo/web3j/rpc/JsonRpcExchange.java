@@ -0,0 +1,160 @@
+package com.wetech.demo.web3j.rpc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wetech.demo.web3j.jfr.JsonCodecEvent;
+import com.wetech.demo.web3j.jfr.RpcRoundTripEvent;
+import org.web3j.protocol.Service;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 带 JFR 事件的 JSON-RPC 收发
+ *
+ * 与 {@link Service#send} / {@link Service#sendBatch} 的逻辑相同，只是把 Jackson 序列化、网络往返和反序列化
+ * 拆开，各记一个事件（{@link JsonCodecEvent}、{@link RpcRoundTripEvent}），这样录制里能分清时间花在
+ * JSON 上还是等节点上。HTTP 和 IPC 传输都用它替换父类的实现。
+ */
+final class JsonRpcExchange {
+
+    private static final String BATCH = "batch";
+
+    @FunctionalInterface
+    interface Transport {
+        InputStream performIO(String payload) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Reader<T> {
+        T read(InputStream input) throws IOException;
+    }
+
+    private final ObjectMapper objectMapper;
+    private final String endpoint;
+    private final Transport transport;
+
+    /**
+     * @param endpoint 事件中的节点地址，不含路径中可能携带的 API key
+     */
+    JsonRpcExchange(ObjectMapper objectMapper, String endpoint, Transport transport) {
+        this.objectMapper = objectMapper;
+        this.endpoint = endpoint;
+        this.transport = transport;
+    }
+
+    <T extends Response> T send(Request<?, ?> request, Class<T> responseType) throws IOException {
+        String payload = serialize(request.getMethod(), request);
+        try (InputStream result = roundTrip(request.getMethod(), request, 1, payload)) {
+            if (result == null) {
+                return null;
+            }
+            return deserialize(request.getMethod(), result, input -> objectMapper.readValue(input, responseType));
+        }
+    }
+
+    BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        List<Request<?, ? extends Response<?>>> requests = batchRequest.getRequests();
+        if (requests.isEmpty()) {
+            return new BatchResponse(Collections.emptyList(), Collections.emptyList());
+        }
+        String payload = serialize(BATCH, requests);
+        try (InputStream result = roundTrip(BATCH, null, requests.size(), payload)) {
+            if (result == null) {
+                return null;
+            }
+            List<Response<?>> responses = deserialize(BATCH, result, input -> {
+                JsonNode nodes = objectMapper.readTree(input);
+                List<Response<?>> parsed = new ArrayList<>(nodes.size());
+                for (int i = 0; i < nodes.size(); i++) {
+                    parsed.add(objectMapper.treeToValue(nodes.get(i), requests.get(i).getResponseType()));
+                }
+                return parsed;
+            });
+            return new BatchResponse(requests, responses);
+        }
+    }
+
+    /**
+     * 开始记录一次不经过 {@link #send} 的网络往返（如边读边解析的流式请求），读完后调用 {@link #end}
+     */
+    static RpcRoundTripEvent begin() {
+        RpcRoundTripEvent event = new RpcRoundTripEvent();
+        event.begin();
+        return event;
+    }
+
+    void end(RpcRoundTripEvent event, Request<?, ?> request, long requestBytes, long responseBytes,
+             boolean succeeded) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = request.getMethod();
+            event.function = RpcFunctions.of(request);
+            event.endpoint = endpoint;
+            event.batchSize = 1;
+            event.requestBytes = requestBytes;
+            event.responseBytes = responseBytes;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+
+    String serialize(String method, Object value) throws IOException {
+        JsonCodecEvent event = new JsonCodecEvent();
+        event.begin();
+        String payload = objectMapper.writeValueAsString(value);
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = JsonCodecEvent.SERIALIZE;
+            event.method = method;
+            event.bytes = payload.length();
+            event.commit();
+        }
+        return payload;
+    }
+
+    private InputStream roundTrip(String method, Request<?, ?> request, int batchSize, String payload)
+            throws IOException {
+        RpcRoundTripEvent event = new RpcRoundTripEvent();
+        event.begin();
+        InputStream result = null;
+        try {
+            result = transport.performIO(payload);
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = method;
+                event.function = request != null ? RpcFunctions.of(request) : RpcFunctions.NONE;
+                event.endpoint = endpoint;
+                event.batchSize = batchSize;
+                event.requestBytes = payload.length();
+                event.responseBytes = result != null ? result.available() : 0;
+                event.succeeded = result != null;
+                event.commit();
+            }
+        }
+    }
+
+    private <T> T deserialize(String method, InputStream input, Reader<T> reader) throws IOException {
+        JsonCodecEvent event = new JsonCodecEvent();
+        long bytes = input.available();
+        event.begin();
+        T value = reader.read(input);
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = JsonCodecEvent.DESERIALIZE;
+            event.method = method;
+            event.bytes = bytes;
+            event.commit();
+        }
+        return value;
+    }
+}
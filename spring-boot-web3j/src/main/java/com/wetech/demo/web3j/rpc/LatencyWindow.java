@@ -0,0 +1,65 @@
+package com.wetech.demo.web3j.rpc;
+
+import java.util.Arrays;
+
+/**
+ * 最近 N 次请求耗时的滑动窗口
+ *
+ * 每记录 {@link #REFRESH_EVERY} 个样本重新计算一次 p50/p95，
+ * 读取分位数时不加锁，路由选择的开销与窗口大小无关。
+ */
+public class LatencyWindow {
+
+    /**
+     * 样本数少于该值时认为窗口尚未预热
+     */
+    public static final int MIN_SAMPLES = 10;
+
+    private static final int REFRESH_EVERY = 8;
+
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    private volatile long p50Nanos;
+    private volatile long p95Nanos;
+
+    public LatencyWindow(int size) {
+        if (size < MIN_SAMPLES) {
+            throw new IllegalArgumentException("Latency window must hold at least " + MIN_SAMPLES + " samples");
+        }
+        this.samples = new long[size];
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        if (count <= MIN_SAMPLES || next % REFRESH_EVERY == 0) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            p50Nanos = sorted[(count - 1) / 2];
+            p95Nanos = sorted[(int) Math.ceil(count * 0.95) - 1];
+        }
+    }
+
+    public synchronized boolean isWarm() {
+        return count >= MIN_SAMPLES;
+    }
+
+    /**
+     * @return 最近窗口内的中位数耗时（纳秒），无样本时为 0
+     */
+    public long p50Nanos() {
+        return p50Nanos;
+    }
+
+    /**
+     * @return 最近窗口内的 p95 耗时（纳秒），无样本时为 0
+     */
+    public long p95Nanos() {
+        return p95Nanos;
+    }
+}
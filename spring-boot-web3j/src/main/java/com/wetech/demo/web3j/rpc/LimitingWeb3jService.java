@@ -0,0 +1,135 @@
+package com.wetech.demo.web3j.rpc;
+
+import com.wetech.demo.web3j.rpc.AdaptiveConcurrencyLimiter.Outcome;
+import io.micrometer.context.ContextSnapshot;
+import io.reactivex.Flowable;
+import lombok.Getter;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.exceptions.ClientConnectionException;
+import org.web3j.protocol.websocket.events.Notification;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * 为所有出站 JSON-RPC 请求加上自适应并发限制，读写请求分别使用独立的隔板
+ */
+public class LimitingWeb3jService implements Web3jService {
+
+    private static final Set<String> WRITE_METHODS = Set.of("eth_sendRawTransaction", "eth_sendTransaction");
+
+    private static final Set<Integer> RATE_LIMIT_CODES = Set.of(429, -32005);
+
+    private final Web3jService delegate;
+    @Getter
+    private final AdaptiveConcurrencyLimiter readLimiter;
+    @Getter
+    private final AdaptiveConcurrencyLimiter writeLimiter;
+    private final ScheduledExecutorService scheduler;
+
+    public LimitingWeb3jService(Web3jService delegate, int initialLimit, int maxLimit,
+                                int maxQueue, Duration queueTimeout) {
+        this.delegate = delegate;
+        // 排队请求拿到许可后会取消其超时任务，取消的任务要立即移出队列，否则会一直堆积到超时时刻
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "rpc-limiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        this.scheduler = scheduler;
+        this.readLimiter = new AdaptiveConcurrencyLimiter(
+                "read", initialLimit, 1, maxLimit, maxQueue, queueTimeout, scheduler);
+        this.writeLimiter = new AdaptiveConcurrencyLimiter(
+                "write", initialLimit, 1, maxLimit, maxQueue, queueTimeout, scheduler);
+    }
+
+    @Override
+    public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+        return RoutingWeb3jService.await(sendAsync(request, responseType));
+    }
+
+    @Override
+    public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+        AdaptiveConcurrencyLimiter limiter = WRITE_METHODS.contains(request.getMethod()) ? writeLimiter : readLimiter;
+        return limited(limiter, () -> delegate.sendAsync(request, responseType));
+    }
+
+    @Override
+    public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        return RoutingWeb3jService.await(sendBatchAsync(batchRequest));
+    }
+
+    @Override
+    public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+        return limited(readLimiter, () -> delegate.sendBatchAsync(batchRequest));
+    }
+
+    @Override
+    public <T extends Notification<?>> Flowable<T> subscribe(Request request, String unsubscribeMethod,
+                                                             Class<T> responseType) {
+        return delegate.subscribe(request, unsubscribeMethod, responseType);
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        delegate.close();
+    }
+
+    /**
+     * 排队的请求在释放许可的线程上继续执行，先恢复调用方的上下文，请求的 span 仍然挂在调用方的 span 下
+     */
+    private <T> CompletableFuture<T> limited(AdaptiveConcurrencyLimiter limiter, Supplier<CompletableFuture<T>> call) {
+        ContextSnapshot context = RpcTracing.capture();
+        return limiter.acquire().thenCompose(ignored -> {
+            CompletableFuture<T> future;
+            try (ContextSnapshot.Scope scope = context.setThreadLocals()) {
+                future = call.get();
+            } catch (RuntimeException e) {
+                limiter.release(Outcome.IGNORED);
+                throw e;
+            }
+            return future.whenComplete((result, error) -> limiter.release(classify(result, error)));
+        });
+    }
+
+    private static Outcome classify(Object result, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof ClientConnectionException && cause.getMessage() != null
+                    && cause.getMessage().startsWith("Invalid response received: 429")) {
+                return Outcome.THROTTLED;
+            }
+            return Outcome.IGNORED;
+        }
+        if (result instanceof Response<?> response && response.hasError()) {
+            return isRateLimited(response.getError()) ? Outcome.THROTTLED : Outcome.SUCCESS;
+        }
+        if (result instanceof BatchResponse batch) {
+            boolean throttled = batch.getResponses().stream()
+                    .anyMatch(response -> response.hasError() && isRateLimited(response.getError()));
+            return throttled ? Outcome.THROTTLED : Outcome.SUCCESS;
+        }
+        return Outcome.SUCCESS;
+    }
+
+    private static boolean isRateLimited(Response.Error error) {
+        if (RATE_LIMIT_CODES.contains(error.getCode())) {
+            return true;
+        }
+        String message = error.getMessage() == null ? "" : error.getMessage().toLowerCase(Locale.ROOT);
+        return message.contains("rate limit") || message.contains("too many requests");
+    }
+}
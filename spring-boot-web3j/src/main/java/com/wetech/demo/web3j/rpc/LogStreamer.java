@@ -0,0 +1,118 @@
+package com.wetech.demo.web3j.rpc;
+
+import com.wetech.demo.web3j.rpc.AdaptiveConcurrencyLimiter.Outcome;
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.DefaultBlockParameterNumber;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.protocol.exceptions.JsonRpcError;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * 按区块分段流式读取 eth_getLogs
+ *
+ * 区块范围按 chunkBlocks 切分，每段一次请求；HTTP 节点上边收边解析，日志逐条交给调用方，
+ * 峰值内存只与单条日志大小有关。其他传输（如 IPC）退化为逐段整体读取。
+ * 每段请求占用一个读限流许可，经 {@link RpcEndpoint#streamResult} 发出，和其他请求一样计入指标、追踪和节点健康；
+ * 首选节点传输失败时按路由排序换下一个节点。
+ */
+@Slf4j
+public class LogStreamer {
+
+    private final RoutingWeb3jService routingWeb3jService;
+    private final LimitingWeb3jService limitingWeb3jService;
+    private final HeadTracker headTracker;
+    private final Web3j web3j;
+    private final long chunkBlocks;
+
+    public LogStreamer(RoutingWeb3jService routingWeb3jService, LimitingWeb3jService limitingWeb3jService,
+                       HeadTracker headTracker, Web3j web3j, long chunkBlocks) {
+        this.routingWeb3jService = routingWeb3jService;
+        this.limitingWeb3jService = limitingWeb3jService;
+        this.headTracker = headTracker;
+        this.web3j = web3j;
+        this.chunkBlocks = chunkBlocks;
+    }
+
+    /**
+     * @param fromBlock     起始区块（含）
+     * @param toBlock       结束区块（含）
+     * @param filterFactory 根据一段区块范围构造过滤条件
+     * @param consumer      接收每条日志
+     * @return 日志条数
+     */
+    public long streamLogs(DefaultBlockParameter fromBlock, DefaultBlockParameter toBlock,
+                           BiFunction<DefaultBlockParameter, DefaultBlockParameter, EthFilter> filterFactory,
+                           Consumer<Log> consumer) throws IOException {
+        long from = resolve(fromBlock);
+        long to = resolve(toBlock);
+        long count = 0;
+        for (long start = from; start <= to; start += chunkBlocks) {
+            long end = Math.min(to, start + chunkBlocks - 1);
+            EthFilter filter = filterFactory.apply(
+                    DefaultBlockParameter.valueOf(BigInteger.valueOf(start)),
+                    DefaultBlockParameter.valueOf(BigInteger.valueOf(end)));
+            count += streamChunk(filter, consumer);
+        }
+        log.debug("Streamed {} logs from blocks {}..{}", count, from, to);
+        return count;
+    }
+
+    /**
+     * 按路由排序依次尝试各节点：连接失败等传输错误时换下一个节点重试，节点返回的 JSON-RPC 错误直接抛出。
+     * 已经有日志交给调用方后不再重试，避免输出重复的日志
+     */
+    private long streamChunk(EthFilter filter, Consumer<Log> consumer) throws IOException {
+        AdaptiveConcurrencyLimiter limiter = limitingWeb3jService.getReadLimiter();
+        RoutingWeb3jService.await(limiter.acquire());
+        Outcome outcome = Outcome.IGNORED;
+        try {
+            Request<?, EthLog> request = web3j.ethGetLogs(filter);
+            IOException failure = null;
+            for (RpcEndpoint endpoint : routingWeb3jService.rank()) {
+                long[] delivered = {0};
+                try {
+                    long count = endpoint.streamResult(request, Log.class, result -> {
+                        delivered[0]++;
+                        consumer.accept(result);
+                    });
+                    outcome = Outcome.SUCCESS;
+                    return count;
+                } catch (IOException e) {
+                    if (delivered[0] > 0 || e.getCause() instanceof JsonRpcError) {
+                        throw e;
+                    }
+                    log.warn("eth_getLogs on {} failed, trying the next endpoint: {}", endpoint, e.getMessage());
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            throw failure;
+        } finally {
+            limiter.release(outcome);
+        }
+    }
+
+    private long resolve(DefaultBlockParameter block) throws IOException {
+        if (block instanceof DefaultBlockParameterNumber number) {
+            return number.getBlockNumber().longValueExact();
+        }
+        if (block == DefaultBlockParameterName.EARLIEST) {
+            return 0;
+        }
+        long head = headTracker.getHead();
+        return head >= 0 ? head : web3j.ethBlockNumber().send().getBlockNumber().longValueExact();
+    }
+}
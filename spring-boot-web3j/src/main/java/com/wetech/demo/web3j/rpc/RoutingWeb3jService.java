@@ -0,0 +1,276 @@
+package com.wetech.demo.web3j.rpc;
+
+import io.micrometer.context.ContextSnapshot;
+import io.reactivex.Flowable;
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.websocket.events.Notification;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 多节点 RPC 路由
+ *
+ * - 读请求发往最近 p50 耗时最低的节点，超过该节点 p95 仍未返回时对冲到第二个节点，先返回者胜出
+ * - 不可用的节点（探测失败、正在同步、落后链头，见 {@link EndpointHealth}）排在所有可用节点之后，
+ *   也不作为对冲目标；所有节点都不可用时按落后块数从少到多选择
+ * - eth_sendRawTransaction 广播到所有节点，任一节点接受即返回
+ * - 过滤器和 eth_sendTransaction 依赖节点本地状态，固定发往第一个节点
+ */
+@Slf4j
+public class RoutingWeb3jService implements Web3jService {
+
+    private static final Set<String> BROADCAST_METHODS = Set.of("eth_sendRawTransaction");
+
+    private static final Set<String> STICKY_METHODS = Set.of(
+            "eth_sendTransaction",
+            "eth_newFilter",
+            "eth_newBlockFilter",
+            "eth_newPendingTransactionFilter",
+            "eth_getFilterChanges",
+            "eth_getFilterLogs",
+            "eth_uninstallFilter");
+
+    /**
+     * 每隔若干次读请求按轮询挑选节点，让被冷落的节点也能刷新耗时样本
+     */
+    private static final int EXPLORE_EVERY = 64;
+
+    /**
+     * 耗时窗口未预热时使用的对冲等待时间
+     */
+    private static final Duration COLD_HEDGE_DELAY = Duration.ofSeconds(1);
+
+    private static final Comparator<RpcEndpoint> AVAILABLE_FIRST =
+            Comparator.comparing(endpoint -> !endpoint.getHealth().isAvailable());
+
+    private final List<RpcEndpoint> endpoints;
+    private final Duration hedgeMinDelay;
+    private final ScheduledExecutorService hedgeScheduler;
+    private final AtomicLong readCounter = new AtomicLong();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    public RoutingWeb3jService(List<RpcEndpoint> endpoints, Duration hedgeMinDelay) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("At least one RPC endpoint is required");
+        }
+        this.endpoints = List.copyOf(endpoints);
+        this.hedgeMinDelay = hedgeMinDelay;
+        this.hedgeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rpc-hedge");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public List<RpcEndpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    @Override
+    public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+        return await(sendAsync(request, responseType));
+    }
+
+    @Override
+    public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+        String method = request.getMethod();
+        if (BROADCAST_METHODS.contains(method)) {
+            return broadcast(request, responseType);
+        }
+        if (STICKY_METHODS.contains(method)) {
+            return endpoints.get(0).sendAsync(request, responseType);
+        }
+        return read(request, responseType);
+    }
+
+    @Override
+    public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        return await(sendBatchAsync(batchRequest));
+    }
+
+    @Override
+    public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+        return rank().get(0).sendBatchAsync(batchRequest);
+    }
+
+    @Override
+    public <T extends Notification<?>> Flowable<T> subscribe(Request request, String unsubscribeMethod,
+                                                             Class<T> responseType) {
+        return endpoints.get(0).getTransport().subscribe(request, unsubscribeMethod, responseType);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        hedgeScheduler.shutdownNow();
+        for (RpcEndpoint endpoint : endpoints) {
+            endpoint.close();
+        }
+    }
+
+    /**
+     * 可用节点在前，按最近 p50 耗时从低到高排序；不可用节点在后，按落后块数从少到多排序
+     */
+    List<RpcEndpoint> rank() {
+        if (endpoints.size() == 1) {
+            return endpoints;
+        }
+        List<RpcEndpoint> ranked = new ArrayList<>(endpoints);
+        ranked.sort(AVAILABLE_FIRST
+                .thenComparingLong(endpoint -> endpoint.getHealth().isAvailable()
+                        ? endpoint.getLatency().p50Nanos()
+                        : endpoint.getHealth().getLag()));
+        long n = readCounter.incrementAndGet();
+        if (n % EXPLORE_EVERY == 0) {
+            RpcEndpoint probe = endpoints.get((int) ((n / EXPLORE_EVERY) % endpoints.size()));
+            if (probe.getHealth().isAvailable()) {
+                ranked.remove(probe);
+                ranked.add(0, probe);
+            }
+        }
+        return ranked;
+    }
+
+    private <T extends Response> CompletableFuture<T> read(Request<?, ?> request, Class<T> responseType) {
+        List<RpcEndpoint> ranked = rank();
+        if (ranked.size() == 1
+                || ranked.get(0).getHealth().isAvailable() && !ranked.get(1).getHealth().isAvailable()) {
+            return ranked.get(0).sendAsync(request, responseType);
+        }
+        return new HedgedCall<>(request, responseType, ranked.get(0), ranked.get(1)).start();
+    }
+
+    private <T extends Response> CompletableFuture<T> broadcast(Request<?, ?> request, Class<T> responseType) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(endpoints.size());
+        AtomicReference<T> firstRejection = new AtomicReference<>();
+        for (RpcEndpoint endpoint : endpoints) {
+            endpoint.sendAsync(request, responseType).whenComplete((response, error) -> {
+                if (error == null && !response.hasError()) {
+                    result.complete(response);
+                    return;
+                }
+                if (error == null) {
+                    firstRejection.compareAndSet(null, response);
+                } else {
+                    log.warn("Broadcast of {} to {} failed: {}", request.getMethod(), endpoint, error.getMessage());
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    if (firstRejection.get() != null) {
+                        result.complete(firstRejection.get());
+                    } else {
+                        result.completeExceptionally(error);
+                    }
+                }
+            });
+        }
+        return result;
+    }
+
+    private Duration hedgeDelay(RpcEndpoint primary) {
+        LatencyWindow latency = primary.getLatency();
+        if (!latency.isWarm()) {
+            return COLD_HEDGE_DELAY;
+        }
+        long p95 = latency.p95Nanos();
+        return p95 > hedgeMinDelay.toNanos() ? Duration.ofNanos(p95) : hedgeMinDelay;
+    }
+
+    static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for RPC response", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * 一次可对冲的读请求：主节点超时或失败时再发给备用节点，两者都失败才返回失败
+     */
+    private final class HedgedCall<T extends Response> {
+
+        private final Request<?, ?> request;
+        private final Class<T> responseType;
+        private final RpcEndpoint primary;
+        private final RpcEndpoint backup;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final AtomicBoolean hedged = new AtomicBoolean();
+        private final AtomicInteger outstanding = new AtomicInteger(1);
+
+        /**
+         * 发起调用时的上下文：对冲在定时器或其他请求的回调线程上发出，需要恢复它才能挂在同一个父 span 下
+         */
+        private final ContextSnapshot context = RpcTracing.capture();
+
+        HedgedCall(Request<?, ?> request, Class<T> responseType, RpcEndpoint primary, RpcEndpoint backup) {
+            this.request = request;
+            this.responseType = responseType;
+            this.primary = primary;
+            this.backup = backup;
+        }
+
+        CompletableFuture<T> start() {
+            primary.sendAsync(request, responseType).whenComplete(this::onComplete);
+            if (!result.isDone()) {
+                ScheduledFuture<?> timer = hedgeScheduler.schedule(
+                        this::hedge, hedgeDelay(primary).toNanos(), TimeUnit.NANOSECONDS);
+                result.whenComplete((response, error) -> timer.cancel(false));
+            }
+            return result;
+        }
+
+        private void hedge() {
+            if (result.isDone() || !hedged.compareAndSet(false, true)) {
+                return;
+            }
+            log.debug("Hedging {} from {} to {}", request.getMethod(), primary, backup);
+            outstanding.incrementAndGet();
+            try (ContextSnapshot.Scope ignored = context.setThreadLocals()) {
+                backup.sendAsync(request, responseType, 2).whenComplete(this::onComplete);
+            }
+        }
+
+        private void onComplete(T response, Throwable error) {
+            if (error == null) {
+                result.complete(response);
+                return;
+            }
+            hedge();
+            if (outstanding.decrementAndGet() == 0) {
+                result.completeExceptionally(error);
+            }
+        }
+    }
+}
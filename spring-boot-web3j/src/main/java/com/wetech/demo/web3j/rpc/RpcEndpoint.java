@@ -0,0 +1,152 @@
+package com.wetech.demo.web3j.rpc;
+
+import io.micrometer.tracing.Span;
+import lombok.Getter;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.exceptions.JsonRpcError;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 单个 RPC 节点：底层传输 + 最近耗时统计
+ *
+ * 传输层失败（连接错误、HTTP 错误码）按 {@link #FAILURE_PENALTY} 计入耗时窗口，
+ * 这样不稳定的节点会和慢节点一样被排到后面。每个请求（包括 {@link #streamResult} 流式读取的请求）
+ * 同时记录到 {@link RpcMetrics}，并作为一个 span 交给 {@link RpcTracing}。健康状况（区块号、落后块数、同步状态、失败率）由
+ * {@link HeadTracker} 在后台刷新到 {@link EndpointHealth}。
+ */
+@Getter
+public class RpcEndpoint {
+
+    static final Duration FAILURE_PENALTY = Duration.ofSeconds(2);
+
+    private final String name;
+    private final Web3jService transport;
+    private final Web3jExecutor executor;
+    private final LatencyWindow latency;
+    private final RpcMetrics metrics;
+    private final RpcTracing tracing;
+    private final String metricsTag;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final EndpointHealth health = new EndpointHealth();
+
+    public RpcEndpoint(String name, Web3jService transport, Web3jExecutor executor, int windowSize,
+                       RpcMetrics metrics, RpcTracing tracing) {
+        this.name = name;
+        this.transport = transport;
+        this.executor = executor;
+        this.latency = new LatencyWindow(windowSize);
+        this.metrics = metrics;
+        this.tracing = tracing;
+        this.metricsTag = RpcMetrics.endpointTag(name);
+    }
+
+    public <T extends Response> CompletableFuture<T> sendAsync(Request<?, ?> request, Class<T> responseType) {
+        return sendAsync(request, responseType, 1);
+    }
+
+    /**
+     * @param attempt 第几次发送，只用于追踪
+     */
+    public <T extends Response> CompletableFuture<T> sendAsync(Request<?, ?> request, Class<T> responseType,
+                                                               int attempt) {
+        long start = System.nanoTime();
+        RpcMetrics.Call call = metrics.start(metricsTag, request);
+        Span span = tracing.start(metricsTag, request, attempt);
+        return executor.run(() -> transport.send(request, responseType))
+                .whenComplete((response, error) -> {
+                    record(start, error);
+                    call.stop(response, error);
+                    RpcTracing.end(span, response, error);
+                });
+    }
+
+    public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+        long start = System.nanoTime();
+        RpcMetrics.BatchCall call = metrics.startBatch(metricsTag, batchRequest);
+        RpcTracing.BatchSpan span = tracing.startBatch(metricsTag, batchRequest);
+        return executor.run(() -> transport.sendBatch(batchRequest))
+                .whenComplete((response, error) -> {
+                    record(start, error);
+                    int errors = call.stop(response, error);
+                    RpcTracing.endBatch(span, batchRequest, response, errors, error);
+                });
+    }
+
+    /**
+     * 在调用线程上读取结果为数组的请求，元素逐个交给 consumer，和 {@link #sendAsync} 一样计入指标、追踪和耗时窗口。
+     * HTTP 节点边收边解析（{@link StreamingHttpService}），其他传输整体读取后再逐个交付。
+     * 节点返回的 JSON-RPC 错误以 cause 为 {@link JsonRpcError} 的 IOException 抛出，和 sendAsync 一样不算传输失败
+     *
+     * @return 元素个数
+     */
+    public <T> long streamResult(Request<?, ? extends Response<? extends List<?>>> request, Class<T> elementType,
+                                 Consumer<? super T> consumer) throws IOException {
+        long start = System.nanoTime();
+        RpcMetrics.Call call = metrics.start(metricsTag, request);
+        Span span = tracing.start(metricsTag, request, 1);
+        Response<?> response = new Response<>();
+        Throwable error = null;
+        try {
+            if (transport instanceof StreamingHttpService streaming) {
+                return streaming.streamResult(request, elementType, consumer);
+            }
+            return readResult(request, elementType, consumer);
+        } catch (IOException e) {
+            if (e.getCause() instanceof JsonRpcError rpcError) {
+                response.setError(new Response.Error(rpcError.getCode(), rpcError.getMessage()));
+            } else {
+                error = e;
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            record(start, error);
+            call.stop(response, error);
+            RpcTracing.end(span, response, error);
+        }
+    }
+
+    public void close() throws IOException {
+        transport.close();
+    }
+
+    private <T> long readResult(Request<?, ? extends Response<? extends List<?>>> request, Class<T> elementType,
+                                Consumer<? super T> consumer) throws IOException {
+        Response<? extends List<?>> response = transport.send(request, request.getResponseType());
+        if (response.hasError()) {
+            throw new IOException("JSON-RPC error " + response.getError().getCode()
+                    + ": " + response.getError().getMessage(), new JsonRpcError(response.getError()));
+        }
+        List<?> result = response.getResult();
+        result.forEach(element -> consumer.accept(elementType.cast(element)));
+        return result.size();
+    }
+
+    private void record(long start, Throwable error) {
+        requests.incrementAndGet();
+        if (error != null) {
+            failures.incrementAndGet();
+            latency.record(Math.max(System.nanoTime() - start, FAILURE_PENALTY.toNanos()));
+        } else {
+            latency.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
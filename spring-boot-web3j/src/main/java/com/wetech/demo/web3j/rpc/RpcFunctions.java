@@ -0,0 +1,104 @@
+package com.wetech.demo.web3j.rpc;
+
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.crypto.TransactionDecoder;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.utils.Numeric;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 从出站请求或交易中识别被调用的合约函数，用作指标的 function 标签
+ *
+ * 只识别本项目合约（JYMToken、SimpleStorage 及 ERC20 标准接口）中的函数，其他选择器统一记为 {@link #OTHER}，
+ * 避免任意 calldata 让标签基数失控。不携带 calldata 的请求（eth_blockNumber 等）记为 {@link #NONE}，
+ * 部署合约的交易记为 {@link #DEPLOY}。
+ */
+public final class RpcFunctions {
+
+    public static final String NONE = "none";
+    public static final String OTHER = "other";
+    public static final String DEPLOY = "deploy";
+
+    private static final List<String> SIGNATURES = List.of(
+            "DOMAIN_SEPARATOR()",
+            "allowance(address,address)",
+            "approve(address,uint256)",
+            "balanceOf(address)",
+            "burn(uint256)",
+            "decimals()",
+            "eip712Domain()",
+            "mint(uint256)",
+            "name()",
+            "nonces(address)",
+            "permit(address,address,uint256,uint256,uint8,bytes32,bytes32)",
+            "symbol()",
+            "totalSupply()",
+            "transfer(address,uint256)",
+            "transferFrom(address,address,uint256)",
+            "get()",
+            "set(uint256)");
+
+    /**
+     * 4 字节选择器（小写十六进制，不带 0x）到函数名
+     */
+    private static final Map<String, String> BY_SELECTOR = SIGNATURES.stream().collect(Collectors.toUnmodifiableMap(
+            signature -> Hash.sha3String(signature).substring(2, 10),
+            signature -> signature.substring(0, signature.indexOf('(')),
+            (first, second) -> first));
+
+    private RpcFunctions() {
+    }
+
+    static String of(Request<?, ?> request) {
+        List<?> params = request.getParams();
+        if (params == null || params.isEmpty()) {
+            return NONE;
+        }
+        Object first = params.get(0);
+        return switch (request.getMethod()) {
+            case "eth_call", "eth_estimateGas", "eth_sendTransaction" ->
+                    first instanceof Transaction transaction ? ofCall(transaction.getTo(), transaction.getData()) : NONE;
+            case "eth_sendRawTransaction" -> first instanceof String signed ? ofSigned(signed) : NONE;
+            default -> NONE;
+        };
+    }
+
+    private static String ofSigned(String signed) {
+        try {
+            RawTransaction transaction = TransactionDecoder.decode(signed);
+            return ofCall(transaction.getTo(), transaction.getData());
+        } catch (RuntimeException e) {
+            return OTHER;
+        }
+    }
+
+    /**
+     * @param to   交易接收方，部署交易为 null 或空
+     * @param data calldata
+     */
+    public static String ofCall(String to, String data) {
+        if (to == null || Numeric.cleanHexPrefix(to).isEmpty()) {
+            return DEPLOY;
+        }
+        return ofData(data);
+    }
+
+    private static String ofData(String data) {
+        if (data == null) {
+            return NONE;
+        }
+        String hex = Numeric.cleanHexPrefix(data);
+        if (hex.isEmpty()) {
+            return NONE;
+        }
+        if (hex.length() < 8) {
+            return OTHER;
+        }
+        return BY_SELECTOR.getOrDefault(hex.substring(0, 8).toLowerCase(), OTHER);
+    }
+}
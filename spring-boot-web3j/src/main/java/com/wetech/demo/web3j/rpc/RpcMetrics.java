@@ -0,0 +1,298 @@
+package com.wetech.demo.web3j.rpc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 出站 JSON-RPC 指标
+ *
+ * - web3j.rpc.requests：每个请求的耗时直方图，按 chain / method / endpoint / function / outcome 分组
+ * - web3j.rpc.active：正在执行的请求（LongTaskTimer，导出为 active 数量和已执行时长）
+ * - web3j.rpc.errors：节点返回的 JSON-RPC 错误（type=rpc，code 为错误码）和传输层失败（type=transport，code 为异常类型）
+ * - web3j.rpc.batch / web3j.rpc.batch.size：批量请求的耗时和每批请求数，批内每个请求的错误同样计入 web3j.rpc.errors
+ *
+ * function 标签由 {@link RpcFunctions} 从 calldata 识别，同一个节点上慢的 balanceOf 和慢的节点可以区分开。
+ * endpoint 标签只保留 scheme://host:port，URL 路径中的 API key 不会出现在指标里。
+ *
+ * 每条链一个实例，缓存、限流和链头等已有统计通过 bind* 方法注册为 gauge，同样带 chain 标签。
+ */
+public class RpcMetrics {
+
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_ERROR = "error";
+
+    private final MeterRegistry registry;
+    private final Tags chainTags;
+    private final Meter.MeterProvider<Timer> requests;
+    private final Meter.MeterProvider<LongTaskTimer> active;
+    private final Meter.MeterProvider<Counter> errors;
+    private final Meter.MeterProvider<Timer> batches;
+    private final Meter.MeterProvider<DistributionSummary> batchSizes;
+
+    public RpcMetrics(MeterRegistry registry, String chain) {
+        this.registry = registry;
+        this.chainTags = Tags.of("chain", chain);
+        this.requests = Timer.builder("web3j.rpc.requests")
+                .description("Outbound JSON-RPC request latency")
+                .tags(chainTags)
+                .publishPercentileHistogram()
+                .withRegistry(registry);
+        this.active = LongTaskTimer.builder("web3j.rpc.active")
+                .description("Outbound JSON-RPC requests in flight")
+                .tags(chainTags)
+                .withRegistry(registry);
+        this.errors = Counter.builder("web3j.rpc.errors")
+                .description("JSON-RPC error responses and transport failures")
+                .tags(chainTags)
+                .withRegistry(registry);
+        this.batches = Timer.builder("web3j.rpc.batch")
+                .description("Outbound JSON-RPC batch latency")
+                .tags(chainTags)
+                .publishPercentileHistogram()
+                .withRegistry(registry);
+        this.batchSizes = DistributionSummary.builder("web3j.rpc.batch.size")
+                .description("Requests per outbound JSON-RPC batch")
+                .tags(chainTags)
+                .publishPercentileHistogram()
+                .withRegistry(registry);
+    }
+
+    /**
+     * 开始计时一个请求，请求完成时调用返回值的 {@link Call#stop}
+     */
+    Call start(String endpoint, Request<?, ?> request) {
+        String method = request.getMethod();
+        Tags tags = Tags.of("method", method, "endpoint", endpoint);
+        return new Call(tags, RpcFunctions.of(request), active.withTags(tags).start(), System.nanoTime());
+    }
+
+    /**
+     * 开始计时一个批量请求
+     */
+    BatchCall startBatch(String endpoint, BatchRequest batchRequest) {
+        List<? extends Request<?, ? extends Response<?>>> batch = batchRequest.getRequests();
+        Tags tags = Tags.of("endpoint", endpoint);
+        batchSizes.withTags(tags).record(batch.size());
+        return new BatchCall(endpoint, batch, System.nanoTime());
+    }
+
+    /**
+     * 单个请求的计时，和 {@link #start} 的标签一一对应
+     */
+    class Call {
+
+        private final Tags tags;
+        private final String function;
+        private final LongTaskTimer.Sample activeSample;
+        private final long startNanos;
+
+        private Call(Tags tags, String function, LongTaskTimer.Sample activeSample, long startNanos) {
+            this.tags = tags;
+            this.function = function;
+            this.activeSample = activeSample;
+            this.startNanos = startNanos;
+        }
+
+        void stop(Response<?> response, Throwable error) {
+            long elapsed = System.nanoTime() - startNanos;
+            activeSample.stop();
+            Tags functionTags = tags.and("function", function);
+            boolean failed = error != null || response == null || response.hasError();
+            requests.withTags(functionTags.and("outcome", failed ? OUTCOME_ERROR : OUTCOME_SUCCESS))
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            if (error != null) {
+                errors.withTags(functionTags.and("type", "transport", "code", errorType(error))).increment();
+            } else if (response != null && response.hasError()) {
+                errors.withTags(functionTags.and("type", "rpc",
+                        "code", Integer.toString(response.getError().getCode()))).increment();
+            }
+        }
+    }
+
+    /**
+     * 批量请求的计时
+     */
+    class BatchCall {
+
+        private final String endpoint;
+        private final List<? extends Request<?, ? extends Response<?>>> batch;
+        private final long startNanos;
+
+        private BatchCall(String endpoint, List<? extends Request<?, ? extends Response<?>>> batch, long startNanos) {
+            this.endpoint = endpoint;
+            this.batch = batch;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * @return 批内返回错误的请求数
+         */
+        int stop(BatchResponse response, Throwable error) {
+            long elapsed = System.nanoTime() - startNanos;
+            Tags tags = Tags.of("endpoint", endpoint);
+            batches.withTags(tags.and("outcome", error != null ? OUTCOME_ERROR : OUTCOME_SUCCESS))
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            if (error != null) {
+                String type = errorType(error);
+                for (Request<?, ?> request : batch) {
+                    errors.withTags(tags.and("method", request.getMethod(), "function", RpcFunctions.of(request),
+                            "type", "transport", "code", type)).increment();
+                }
+                return batch.size();
+            }
+            int failed = 0;
+            for (Response<?> item : response.getResponses()) {
+                if (item.hasError()) {
+                    failed++;
+                    Request<?, ?> request = byId(item.getId());
+                    String method = request != null ? request.getMethod() : "unknown";
+                    String function = request != null ? RpcFunctions.of(request) : RpcFunctions.NONE;
+                    errors.withTags(tags.and("method", method, "function", function,
+                            "type", "rpc", "code", Integer.toString(item.getError().getCode()))).increment();
+                }
+            }
+            return failed;
+        }
+
+        /**
+         * 节点返回的批量响应不保证与请求同序，按 id 找回对应的请求
+         */
+        private Request<?, ?> byId(long id) {
+            for (Request<?, ?> request : batch) {
+                if (request.getId() == id) {
+                    return request;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 注册磁盘缓存的命中/未命中计数、条目数和占用字节数
+     */
+    public void bindCache(FinalizedResponseCache cache) {
+        FunctionCounter.builder("web3j.cache.requests", cache, FinalizedResponseCache::getHits)
+                .description("Finalized response cache lookups")
+                .tags(chainTags.and("result", "hit"))
+                .register(registry);
+        FunctionCounter.builder("web3j.cache.requests", cache, FinalizedResponseCache::getMisses)
+                .description("Finalized response cache lookups")
+                .tags(chainTags.and("result", "miss"))
+                .register(registry);
+        Gauge.builder("web3j.cache.entries", cache, FinalizedResponseCache::getEntries)
+                .description("Entries in the finalized response cache")
+                .tags(chainTags)
+                .register(registry);
+        Gauge.builder("web3j.cache.size", cache, FinalizedResponseCache::getTotalBytes)
+                .description("Bytes used by the finalized response cache")
+                .tags(chainTags)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * 注册读写隔板当前的并发上限、执行中和排队中的请求数
+     */
+    public void bindLimiter(LimitingWeb3jService limiting) {
+        bindLimiter("read", limiting.getReadLimiter());
+        bindLimiter("write", limiting.getWriteLimiter());
+    }
+
+    private void bindLimiter(String kind, AdaptiveConcurrencyLimiter limiter) {
+        Tags tags = chainTags.and("limiter", kind);
+        Gauge.builder("web3j.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder("web3j.limiter.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests holding a concurrency permit")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder("web3j.limiter.queued", limiter, AdaptiveConcurrencyLimiter::getQueued)
+                .description("Requests waiting for a concurrency permit")
+                .tags(tags)
+                .register(registry);
+    }
+
+    /**
+     * 注册链头区块号，以及每个节点的区块号、区块号停止前进的时长、落后块数、同步状态和最近失败率
+     */
+    public void bindHead(HeadTracker headTracker) {
+        Gauge.builder("web3j.head.block", headTracker, HeadTracker::getHead)
+                .description("Latest block number seen by the head tracker")
+                .tags(chainTags)
+                .register(registry);
+        for (RpcEndpoint endpoint : headTracker.getEndpoints()) {
+            Tags tags = chainTags.and("endpoint", endpoint.getMetricsTag());
+            EndpointHealth health = endpoint.getHealth();
+            Gauge.builder("web3j.rpc.endpoint.head", health, EndpointHealth::getHead)
+                    .description("Latest block number reported by the endpoint")
+                    .tags(tags)
+                    .register(registry);
+            Gauge.builder("web3j.rpc.endpoint.head.age", health,
+                            h -> h.getHeadAge() == null ? Double.NaN : h.getHeadAge().toMillis() / 1000.0)
+                    .description("Time since the endpoint's block number last advanced")
+                    .tags(tags)
+                    .baseUnit("seconds")
+                    .register(registry);
+            Gauge.builder("web3j.rpc.endpoint.lag", health, h -> h.getLag() < 0 ? Double.NaN : h.getLag())
+                    .description("Blocks behind the highest block number across endpoints")
+                    .tags(tags)
+                    .baseUnit("blocks")
+                    .register(registry);
+            Gauge.builder("web3j.rpc.endpoint.syncing", health, h -> h.isSyncing() ? 1 : 0)
+                    .description("Whether eth_syncing reports the endpoint as syncing")
+                    .tags(tags)
+                    .register(registry);
+            Gauge.builder("web3j.rpc.endpoint.available", health, h -> h.isAvailable() ? 1 : 0)
+                    .description("Whether routing sends reads to the endpoint")
+                    .tags(tags)
+                    .register(registry);
+            Gauge.builder("web3j.rpc.endpoint.error.rate", health, EndpointHealth::getErrorRate)
+                    .description("Recent transport failure rate of the endpoint")
+                    .tags(tags)
+                    .register(registry);
+        }
+    }
+
+    /**
+     * 只保留 scheme://host:port，去掉路径和查询参数中可能携带的 API key
+     */
+    static String endpointTag(String address) {
+        try {
+            URI uri = URI.create(address.trim());
+            if (uri.getHost() == null) {
+                return address.trim();
+            }
+            return uri.getScheme() + "://" + uri.getHost() + (uri.getPort() >= 0 ? ":" + uri.getPort() : "");
+        } catch (IllegalArgumentException e) {
+            return "invalid";
+        }
+    }
+
+    private static String errorType(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,23 @@
+package com.wetech.demo.web3j.rpc;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * 出站 RPC 并发已满且排队超时（或队列已满）时抛出，控制器据此返回 503
+ */
+@Getter
+public class RpcOverloadedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String bulkhead;
+    private final Duration retryAfter;
+
+    public RpcOverloadedException(String bulkhead, Duration retryAfter, String message) {
+        super(message);
+        this.bulkhead = bulkhead;
+        this.retryAfter = retryAfter;
+    }
+}
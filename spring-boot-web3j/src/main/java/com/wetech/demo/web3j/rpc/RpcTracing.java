@@ -0,0 +1,142 @@
+package com.wetech.demo.web3j.rpc;
+
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * 出站 JSON-RPC 请求的追踪
+ *
+ * 每个发往节点的请求（含对冲和广播到各节点的副本）是一个 CLIENT span，父 span 是发起调用时的当前上下文
+ * （通常是服务方法或回执轮询的 span）。批量请求是一个 batch span，批内各方法的数量记录在 rpc.batch.methods 中，
+ * 每个请求另有一个挂在它下面的子 span，按 id 对回各自的响应，能看出批内哪个请求出错。
+ *
+ * 请求经过限流排队或对冲定时器时会换线程，调用方用 {@link #capture()} 在原线程取得上下文，
+ * 换线程后恢复，span 的父子关系不会断开。
+ */
+public class RpcTracing {
+
+    public static final RpcTracing NOOP = new RpcTracing(Tracer.NOOP);
+
+    private static final ContextSnapshotFactory SNAPSHOTS = ContextSnapshotFactory.builder().build();
+
+    private final Tracer tracer;
+
+    public RpcTracing(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * @return 当前线程的上下文（包括当前 span），在其他线程上恢复后新建的 span 以它为父
+     */
+    public static ContextSnapshot capture() {
+        return SNAPSHOTS.captureAll();
+    }
+
+    /**
+     * @param attempt 第几次发送，对冲发往备用节点时为 2
+     */
+    Span start(String endpoint, Request<?, ?> request, int attempt) {
+        Span span = request(tracer.spanBuilder(), endpoint, request).start();
+        if (attempt > 1) {
+            span.tag("rpc.attempt", attempt);
+        }
+        return span;
+    }
+
+    /**
+     * 批量请求的 span 和批内每个请求的子 span，子 span 与 {@link BatchRequest#getRequests()} 顺序相同
+     */
+    record BatchSpan(Span batch, List<Span> requests) {
+    }
+
+    BatchSpan startBatch(String endpoint, BatchRequest batchRequest) {
+        Span batch = batch(endpoint, batchRequest);
+        List<Span> requests = new ArrayList<>(batchRequest.getRequests().size());
+        for (Request<?, ?> request : batchRequest.getRequests()) {
+            requests.add(request(tracer.spanBuilder().setParent(batch.context()), endpoint, request).start());
+        }
+        return new BatchSpan(batch, requests);
+    }
+
+    private static Span.Builder request(Span.Builder builder, String endpoint, Request<?, ?> request) {
+        return builder
+                .name(request.getMethod())
+                .kind(Span.Kind.CLIENT)
+                .tag("rpc.system", "jsonrpc")
+                .tag("rpc.method", request.getMethod())
+                .tag("rpc.jsonrpc.request_id", Long.toString(request.getId()))
+                .tag("server.address", endpoint)
+                .tag("web3j.function", RpcFunctions.of(request));
+    }
+
+    private Span batch(String endpoint, BatchRequest batchRequest) {
+        Map<String, Long> methods = batchRequest.getRequests().stream()
+                .collect(Collectors.groupingBy(Request::getMethod, TreeMap::new, Collectors.counting()));
+        return tracer.spanBuilder()
+                .name("batch")
+                .kind(Span.Kind.CLIENT)
+                .tag("rpc.system", "jsonrpc")
+                .tag("rpc.method", "batch")
+                .tag("rpc.batch.size", Integer.toString(batchRequest.getRequests().size()))
+                .tag("rpc.batch.methods", methods.entrySet().stream()
+                        .map(entry -> entry.getKey() + "=" + entry.getValue())
+                        .collect(Collectors.joining(",")))
+                .tag("server.address", endpoint)
+                .start();
+    }
+
+    static void end(Span span, Response<?> response, Throwable error) {
+        if (error != null) {
+            span.error(unwrap(error));
+        } else if (response != null && response.hasError()) {
+            span.tag("rpc.jsonrpc.error_code", response.getError().getCode());
+            span.tag("rpc.jsonrpc.error_message", String.valueOf(response.getError().getMessage()));
+        }
+        span.end();
+    }
+
+    static void endBatch(BatchSpan span, BatchRequest batchRequest, BatchResponse batchResponse, int errors,
+                         Throwable error) {
+        // 节点不保证批量响应按请求顺序返回，按 id 对回请求
+        Map<Long, Response<?>> byId = new HashMap<>();
+        if (batchResponse != null) {
+            for (Response<?> response : batchResponse.getResponses()) {
+                byId.put(response.getId(), response);
+            }
+        }
+        List<Request<?, ? extends Response<?>>> requests = batchRequest.getRequests();
+        for (int i = 0; i < span.requests().size(); i++) {
+            end(span.requests().get(i), byId.get(requests.get(i).getId()), error);
+        }
+        if (error != null) {
+            span.batch().error(unwrap(error));
+        } else if (errors > 0) {
+            span.batch().tag("rpc.batch.errors", errors);
+        }
+        span.batch().end();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
@@ -0,0 +1,118 @@
+package com.wetech.demo.web3j.rpc;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import okhttp3.Headers;
+import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import com.wetech.demo.web3j.jfr.RpcRoundTripEvent;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.exceptions.ClientConnectionException;
+import org.web3j.protocol.exceptions.JsonRpcError;
+import org.web3j.protocol.http.HttpService;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * 支持流式解析数组结果的 HttpService
+ *
+ * {@link HttpService} 会把整个响应体读进内存再反序列化；{@link #streamResult} 边读边解析 result 数组，
+ * 每解析出一个元素就交给调用方，内存占用与结果数组长度无关。
+ *
+ * 收发经过 {@link JsonRpcExchange}，序列化、网络往返和反序列化分别记为 JFR 事件；
+ * 流式请求边读边解析，往返事件包含解析时间。
+ */
+public class StreamingHttpService extends HttpService {
+
+    private final String url;
+    private final OkHttpClient httpClient;
+    private final JsonRpcExchange exchange;
+
+    public StreamingHttpService(String url) {
+        this(url, HttpService.getOkHttpClientBuilder().build());
+    }
+
+    public StreamingHttpService(String url, OkHttpClient httpClient) {
+        super(url, httpClient);
+        this.url = url;
+        this.httpClient = httpClient;
+        this.exchange = new JsonRpcExchange(objectMapper, RpcMetrics.endpointTag(url), this::performIO);
+    }
+
+    @Override
+    public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+        return exchange.send(request, responseType);
+    }
+
+    @Override
+    public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        return exchange.sendBatch(batchRequest);
+    }
+
+    /**
+     * 发送请求并逐个解析 result 数组中的元素
+     *
+     * @param request     结果为数组的 JSON-RPC 请求
+     * @param elementType 数组元素类型
+     * @param consumer    接收每个元素
+     * @return 元素个数
+     */
+    public <T> long streamResult(Request<?, ?> request, Class<T> elementType, Consumer<? super T> consumer)
+            throws IOException {
+        String payload = exchange.serialize(request.getMethod(), request);
+        okhttp3.Request httpRequest = new okhttp3.Request.Builder()
+                .url(url)
+                .headers(Headers.of(getHeaders()))
+                .post(RequestBody.create(payload, JSON_MEDIA_TYPE))
+                .build();
+        RpcRoundTripEvent event = JsonRpcExchange.begin();
+        long responseBytes = 0;
+        boolean succeeded = false;
+        try (okhttp3.Response response = httpClient.newCall(httpRequest).execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                String text = body == null ? "N/A" : body.string();
+                throw new ClientConnectionException("Invalid response received: " + response.code() + "; " + text);
+            }
+            try (JsonParser parser = objectMapper.getFactory().createParser(body.byteStream())) {
+                long count = parseResult(parser, elementType, consumer);
+                responseBytes = parser.currentLocation().getByteOffset();
+                succeeded = true;
+                return count;
+            }
+        } finally {
+            exchange.end(event, request, payload.length(), responseBytes, succeeded);
+        }
+    }
+
+    private <T> long parseResult(JsonParser parser, Class<T> elementType, Consumer<? super T> consumer)
+            throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a JSON-RPC response object");
+        }
+        long count = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("error".equals(field) && value == JsonToken.START_OBJECT) {
+                Response.Error error = objectMapper.readValue(parser, Response.Error.class);
+                throw new IOException("JSON-RPC error " + error.getCode() + ": " + error.getMessage(),
+                        new JsonRpcError(error));
+            }
+            if ("result".equals(field) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    consumer.accept(objectMapper.readValue(parser, elementType));
+                    count++;
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,270 @@
+package com.wetech.demo.web3j.rpc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.protocol.Service;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 基于 UNIX 域套接字的 IPC 传输，适用于与节点部署在同一台机器的情况
+ *
+ * 维护一个固定大小的连接池，请求轮流分配到各个连接。同一连接上的请求不等上一个响应返回就继续写入，
+ * 每个连接有一个读线程按 id 把响应分发给等待中的调用方。发往节点的 id 由本类重新编号，
+ * 响应返回前再换回调用方原来的 id，因此调用方的 id 重复也不会串号。
+ *
+ * 批量请求拆成单个请求在同一连接上流水线发送，结果按原顺序拼回数组。
+ *
+ * 收发经过 {@link JsonRpcExchange}，序列化、往返和反序列化分别记为 JFR 事件。
+ */
+@Slf4j
+public class UnixDomainSocketService extends Service {
+
+    public static final String SCHEME = "ipc://";
+
+    private static final ThreadFactory READER_THREADS =
+            Thread.ofPlatform().name("web3j-ipc-reader-", 0).daemon(true).factory();
+
+    private final Path socketPath;
+    private final Duration timeout;
+    private final Connection[] connections;
+    private final AtomicInteger nextConnection = new AtomicInteger();
+    private final AtomicLong nextId = new AtomicLong();
+    private final JsonRpcExchange exchange;
+    private volatile boolean closed;
+
+    public UnixDomainSocketService(Path socketPath, int poolSize, Duration timeout) {
+        super(false);
+        this.socketPath = socketPath;
+        this.timeout = timeout;
+        this.connections = new Connection[poolSize];
+        this.exchange = new JsonRpcExchange(objectMapper, SCHEME + socketPath, this::performIO);
+    }
+
+    /**
+     * @param address ipc:///path/to/geth.ipc 形式的地址
+     */
+    public static UnixDomainSocketService fromAddress(String address, int poolSize, Duration timeout) {
+        return new UnixDomainSocketService(Path.of(address.substring(SCHEME.length())), poolSize, timeout);
+    }
+
+    @Override
+    public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+        return exchange.send(request, responseType);
+    }
+
+    @Override
+    public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        return exchange.sendBatch(batchRequest);
+    }
+
+    @Override
+    protected InputStream performIO(String payload) throws IOException {
+        JsonNode message = objectMapper.readTree(payload);
+        Connection connection = connection();
+        JsonNode response;
+        if (message.isArray()) {
+            List<CompletableFuture<JsonNode>> calls = new ArrayList<>(message.size());
+            for (JsonNode element : message) {
+                calls.add(connection.call((ObjectNode) element));
+            }
+            ArrayNode responses = objectMapper.createArrayNode();
+            for (CompletableFuture<JsonNode> call : calls) {
+                responses.add(await(call));
+            }
+            response = responses;
+        } else {
+            response = await(connection.call((ObjectNode) message));
+        }
+        return new ByteArrayInputStream(objectMapper.writeValueAsBytes(response));
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        synchronized (connections) {
+            for (int i = 0; i < connections.length; i++) {
+                if (connections[i] != null) {
+                    connections[i].close(new IOException("IPC transport closed"));
+                    connections[i] = null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return SCHEME + socketPath;
+    }
+
+    private Connection connection() throws IOException {
+        if (closed) {
+            throw new IOException("IPC transport closed");
+        }
+        int slot = Math.floorMod(nextConnection.getAndIncrement(), connections.length);
+        Connection connection = connections[slot];
+        if (connection != null && connection.isOpen()) {
+            return connection;
+        }
+        synchronized (connections) {
+            connection = connections[slot];
+            if (connection == null || !connection.isOpen()) {
+                connection = new Connection(SocketChannel.open(UnixDomainSocketAddress.of(socketPath)));
+                connections[slot] = connection;
+            }
+            return connection;
+        }
+    }
+
+    private JsonNode await(CompletableFuture<JsonNode> call) throws IOException {
+        try {
+            return call.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            call.cancel(false);
+            throw new IOException("IPC request to " + socketPath + " timed out after " + timeout.toMillis() + "ms");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for IPC response", e);
+        }
+    }
+
+    /**
+     * 一条套接字连接：写入由锁串行化，读线程持续解析响应流并按 id 完成对应的 future
+     */
+    private final class Connection {
+
+        private final SocketChannel channel;
+        private final ReentrantLock writeLock = new ReentrantLock();
+        private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+        private volatile boolean open = true;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+            READER_THREADS.newThread(this::readLoop).start();
+        }
+
+        private boolean isOpen() {
+            return open;
+        }
+
+        private CompletableFuture<JsonNode> call(ObjectNode request) throws IOException {
+            long wireId = nextId.incrementAndGet();
+            Pending call = new Pending(request.get("id"));
+            pending.put(wireId, call);
+            call.future.whenComplete((response, error) -> pending.remove(wireId));
+            request.put("id", wireId);
+            ByteBuffer buffer = ByteBuffer.wrap(objectMapper.writeValueAsBytes(request));
+            writeLock.lock();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                close(e);
+                throw e;
+            } finally {
+                writeLock.unlock();
+            }
+            return call.future;
+        }
+
+        private void readLoop() {
+            try (MappingIterator<JsonNode> responses =
+                         objectMapper.readerFor(JsonNode.class).readValues(new ChannelInputStream(channel))) {
+                while (responses.hasNextValue()) {
+                    JsonNode response = responses.nextValue();
+                    Pending call = pending.get(response.path("id").asLong(-1));
+                    if (call == null) {
+                        log.debug("Dropping IPC response with unknown id: {}", response.path("id"));
+                        continue;
+                    }
+                    ((ObjectNode) response).set("id", call.originalId);
+                    call.future.complete(response);
+                }
+                close(new IOException("IPC connection to " + socketPath + " closed by peer"));
+            } catch (IOException e) {
+                close(e);
+            }
+        }
+
+        private void close(IOException cause) {
+            if (!open) {
+                return;
+            }
+            open = false;
+            if (!closed) {
+                log.warn("IPC connection to {} lost: {}", socketPath, cause.getMessage());
+            }
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // 连接已不可用，关闭失败无需处理
+            }
+            pending.values().forEach(call -> call.future.completeExceptionally(cause));
+        }
+    }
+
+    private record Pending(JsonNode originalId, CompletableFuture<JsonNode> future) {
+        private Pending(JsonNode originalId) {
+            this(originalId, new CompletableFuture<>());
+        }
+    }
+
+    /**
+     * 直接读通道；Channels.newInputStream 读阻塞时会持有通道锁，与并发写入互相阻塞
+     */
+    private static final class ChannelInputStream extends InputStream {
+
+        private final SocketChannel channel;
+
+        private ChannelInputStream(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int n = read(single, 0, 1);
+            return n < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            return channel.read(ByteBuffer.wrap(b, off, len));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.wetech.demo.web3j.rpc;
+
+import io.micrometer.context.ContextSnapshot;
+import org.web3j.protocol.core.RemoteCall;
+
+import java.time.Instant;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * 执行阻塞式 web3j 调用（HTTP 请求、交易回执轮询）的线程池
+ *
+ * 取代 web3j 内部 {@code Async} 的无界平台线程池；启用虚拟线程时每个调用占用一个虚拟线程，
+ * 等待回执期间不会占住平台线程。
+ *
+ * 任务运行期间可以通过 {@link #submittedAt()} 取得它被提交的时间，交易登记用它作为“收到请求”的时刻，
+ * 这样排队等待线程的时间也计入交易耗时。任务在提交线程的上下文（当前 span 等）中执行，
+ * 服务方法里发起的 RPC 调用挂在服务方法的 span 下。
+ */
+public class Web3jExecutor implements AutoCloseable {
+
+    private static final ThreadLocal<Instant> SUBMITTED_AT = new ThreadLocal<>();
+
+    private final ExecutorService executor;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param executor  运行阻塞调用
+     * @param scheduler web3j 过滤器轮询使用的调度器
+     */
+    public Web3jExecutor(ExecutorService executor, ScheduledExecutorService scheduler) {
+        this.executor = executor;
+        this.scheduler = scheduler;
+    }
+
+    public <T> CompletableFuture<T> sendAsync(RemoteCall<T> call) {
+        return run(call::send);
+    }
+
+    public <T> CompletableFuture<T> run(Callable<T> callable) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Instant submittedAt = Instant.now();
+        ContextSnapshot context = RpcTracing.capture();
+        executor.execute(() -> {
+            SUBMITTED_AT.set(submittedAt);
+            try (ContextSnapshot.Scope scope = context.setThreadLocals()) {
+                result.complete(callable.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                SUBMITTED_AT.remove();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return 当前线程正在执行的任务的提交时间，不在 Web3jExecutor 的任务中时为 null
+     */
+    public static Instant submittedAt() {
+        return SUBMITTED_AT.get();
+    }
+
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        scheduler.shutdown();
+    }
+}
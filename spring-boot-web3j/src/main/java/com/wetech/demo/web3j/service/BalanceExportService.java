@@ -0,0 +1,220 @@
+package com.wetech.demo.web3j.service;
+
+import com.wetech.demo.web3j.dto.BalanceRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.web3j.crypto.WalletUtils;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.DefaultBlockParameterNumber;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthCall;
+import org.web3j.utils.Numeric;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * 批量导出 ERC20 余额（月度持有人对账）
+ *
+ * 地址按 batchSize 分段，每段作为一个 JSON-RPC 批量请求发送一组 balanceOf eth_call，
+ * 最多 maxInFlight 段同时在途，结果按输入顺序逐行交给调用方。内存占用只与在途段数有关，与地址总数无关。
+ * 所有查询固定在同一个区块上，导出结果是一致的快照。
+ *
+ * 某一段请求失败或在 batchTimeout 内没有返回时，该段每个地址各输出一行错误记录，导出继续进行，
+ * 不会因为一次节点故障中断整个响应流。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BalanceExportService {
+
+    /**
+     * balanceOf(address) 的函数选择器
+     */
+    private static final String BALANCE_OF_SELECTOR = "0x70a08231";
+    private static final String ADDRESS_PADDING = "000000000000000000000000";
+
+    private final Web3j web3j;
+    private final JYMTokenService jymTokenService;
+
+    @Value("${web3j.export.batch-size:200}")
+    private int batchSize;
+
+    @Value("${web3j.export.max-in-flight:4}")
+    private int maxInFlight;
+
+    @Value("${web3j.export.batch-timeout-ms:30000}")
+    private long batchTimeoutMs;
+
+    /**
+     * 确定导出快照：当前 JYM 合约 + 具体区块号（latest 等标签在这里解析为区块号）
+     */
+    public Snapshot snapshot(DefaultBlockParameter block) throws IOException {
+        String contractAddress = jymTokenService.getContractAddress();
+        if (contractAddress == null) {
+            throw new IllegalStateException("Contract not deployed or loaded");
+        }
+        return snapshot(web3j, contractAddress, block);
+    }
+
+    /**
+     * 确定导出快照：指定链上的指定代币合约 + 具体区块号
+     *
+     * @param chain 代币所在链的客户端，之后的批量查询也发往这条链
+     */
+    public Snapshot snapshot(Web3j chain, String contractAddress, DefaultBlockParameter block) throws IOException {
+        if (!WalletUtils.isValidAddress(contractAddress)) {
+            throw new IllegalArgumentException("Invalid contract address: " + contractAddress);
+        }
+        BigInteger blockNumber;
+        if (block instanceof DefaultBlockParameterNumber number) {
+            blockNumber = number.getBlockNumber();
+        } else if (block == DefaultBlockParameterName.EARLIEST) {
+            blockNumber = BigInteger.ZERO;
+        } else {
+            blockNumber = chain.ethBlockNumber().send().getBlockNumber();
+        }
+        return new Snapshot(chain, contractAddress, blockNumber);
+    }
+
+    /**
+     * @param snapshot  {@link #snapshot} 的结果
+     * @param addresses 待查询地址，按需逐个读取
+     * @param sink      按输入顺序接收每一行结果
+     * @return 导出的行数
+     */
+    public long exportBalances(Snapshot snapshot, Iterator<String> addresses, Consumer<BalanceRow> sink)
+            throws IOException {
+        DefaultBlockParameter block = DefaultBlockParameter.valueOf(snapshot.blockNumber());
+        log.info("Exporting balances of {} at block {} (batch size {})", snapshot.contractAddress(),
+                snapshot.blockNumber(), batchSize);
+        Deque<Chunk> inFlight = new ArrayDeque<>(maxInFlight);
+        long rows = 0;
+        while (addresses.hasNext() || !inFlight.isEmpty()) {
+            while (addresses.hasNext() && inFlight.size() < maxInFlight) {
+                inFlight.add(submit(snapshot.chain(), nextChunk(addresses), snapshot.contractAddress(), block));
+            }
+            rows += inFlight.poll().drain(sink, batchTimeoutMs);
+        }
+        log.info("Exported {} balances of {} at block {}", rows, snapshot.contractAddress(), snapshot.blockNumber());
+        return rows;
+    }
+
+    private List<String> nextChunk(Iterator<String> addresses) {
+        List<String> chunk = new ArrayList<>(batchSize);
+        while (addresses.hasNext() && chunk.size() < batchSize) {
+            chunk.add(addresses.next());
+        }
+        return chunk;
+    }
+
+    private Chunk submit(Web3j chain, List<String> addresses, String contractAddress, DefaultBlockParameter block) {
+        BatchRequest batch = chain.newBatch();
+        for (String address : addresses) {
+            if (WalletUtils.isValidAddress(address)) {
+                batch.add(chain.ethCall(
+                        Transaction.createEthCallTransaction(null, contractAddress, balanceOfData(address)), block));
+            }
+        }
+        CompletableFuture<BatchResponse> responses = batch.getRequests().isEmpty()
+                ? CompletableFuture.completedFuture(null)
+                : batch.sendAsync();
+        return new Chunk(addresses, responses);
+    }
+
+    private static String balanceOfData(String address) {
+        return BALANCE_OF_SELECTOR + ADDRESS_PADDING + Numeric.cleanHexPrefix(address).toLowerCase();
+    }
+
+    public record Snapshot(Web3j chain, String contractAddress, BigInteger blockNumber) {
+    }
+
+    private record Chunk(List<String> addresses, CompletableFuture<BatchResponse> responses) {
+
+        long drain(Consumer<BalanceRow> sink, long timeoutMs) throws IOException {
+            BatchResponse batch;
+            try {
+                batch = await(responses, timeoutMs);
+            } catch (IOException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                log.warn("Balance batch of {} addresses failed: {}", addresses.size(), e.getMessage());
+                String reason = "batch failed: " + e.getMessage();
+                for (String address : addresses) {
+                    sink.accept(BalanceRow.failed(address,
+                            WalletUtils.isValidAddress(address) ? reason : "invalid address"));
+                }
+                return addresses.size();
+            }
+            // 节点不保证批量响应按请求顺序返回，按 id 对回请求
+            Map<Long, Response<?>> byId = new HashMap<>();
+            if (batch != null) {
+                for (Response<?> response : batch.getResponses()) {
+                    byId.put(response.getId(), response);
+                }
+            }
+            Iterator<Request<?, ? extends Response<?>>> requests =
+                    batch == null ? null : batch.getRequests().iterator();
+            for (String address : addresses) {
+                if (!WalletUtils.isValidAddress(address)) {
+                    sink.accept(BalanceRow.failed(address, "invalid address"));
+                    continue;
+                }
+                sink.accept(toRow(address, (EthCall) byId.get(requests.next().getId())));
+            }
+            return addresses.size();
+        }
+
+        private static BalanceRow toRow(String address, EthCall call) {
+            if (call == null) {
+                return BalanceRow.failed(address, "missing response");
+            }
+            if (call.hasError()) {
+                return BalanceRow.failed(address, call.getError().getMessage());
+            }
+            String value = call.getValue();
+            if (value == null || Numeric.cleanHexPrefix(value).isEmpty()) {
+                return BalanceRow.failed(address, "empty result");
+            }
+            return new BalanceRow(address, Numeric.toBigInt(value), null);
+        }
+
+        private static <T> T await(CompletableFuture<T> future, long timeoutMs) throws IOException {
+            try {
+                return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(false);
+                throw new IOException("timed out after " + timeoutMs + "ms");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) {
+                    throw io;
+                }
+                throw new IOException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for balances", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.wetech.demo.web3j.service;
+
+import lombok.Getter;
+import org.web3j.tx.Contract;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 注册表中的一个合约：包装类实例 + 该合约的只读缓存
+ *
+ * 缓存只用于不会变化的值（如代币名称、精度），失败的结果不会被缓存。
+ */
+public class ContractHandle<C extends Contract> {
+
+    @Getter
+    private final C contract;
+
+    /**
+     * 显式部署或加载的合约常驻注册表；仅因请求路径被访问而创建的合约可以被淘汰
+     */
+    @Getter
+    private final boolean pinned;
+
+    private final Map<String, CompletableFuture<?>> memo = new ConcurrentHashMap<>();
+
+    ContractHandle(C contract, boolean pinned) {
+        this.contract = contract;
+        this.pinned = pinned;
+    }
+
+    public String getAddress() {
+        return contract.getContractAddress();
+    }
+
+    /**
+     * 同一个 key 只查询一次，之后直接返回缓存的结果；查询失败时移除，下次重新查询
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> memoize(String key, Supplier<CompletableFuture<T>> loader) {
+        CompletableFuture<?> existing = memo.get(key);
+        if (existing != null) {
+            return (CompletableFuture<T>) existing;
+        }
+        CompletableFuture<T> created = loader.get();
+        CompletableFuture<?> raced = memo.putIfAbsent(key, created);
+        if (raced != null) {
+            return (CompletableFuture<T>) raced;
+        }
+        created.whenComplete((value, error) -> {
+            if (error != null) {
+                memo.remove(key, created);
+            }
+        });
+        return created;
+    }
+}
@@ -0,0 +1,129 @@
+package com.wetech.demo.web3j.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.crypto.WalletUtils;
+import org.web3j.tx.Contract;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 按地址索引的线程安全合约注册表
+ *
+ * 包装类在第一次按地址访问时创建（创建本身不发 RPC），之后复用。部署或加载的合约常驻，
+ * 仅因访问而创建的合约按访问顺序组成 LRU，数量超过 maxContracts 时在插入的同一把锁内淘汰最久未访问的一个。
+ * 注册表还记录一个“默认合约”，供不带合约地址的旧接口（/api/jym/...）使用。
+ */
+@Slf4j
+public class ContractRegistry<C extends Contract> {
+
+    private final Function<String, C> loader;
+    private final int maxContracts;
+    private final Map<String, ContractHandle<C>> pinned = new ConcurrentHashMap<>();
+
+    /**
+     * 按访问顺序排列的 LRU，所有访问都在 synchronized (accessed) 内
+     */
+    private final Map<String, ContractHandle<C>> accessed;
+    private volatile ContractHandle<C> defaultContract;
+
+    /**
+     * @param loader       根据地址创建包装类
+     * @param maxContracts 注册表容量上限
+     */
+    public ContractRegistry(Function<String, C> loader, int maxContracts) {
+        this.loader = loader;
+        this.maxContracts = maxContracts;
+        this.accessed = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ContractHandle<C>> eldest) {
+                if (size() <= ContractRegistry.this.maxContracts) {
+                    return false;
+                }
+                log.debug("Evicted contract {} from registry", eldest.getValue().getAddress());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @param address 合约地址，为 null 时返回默认合约
+     * @throws IllegalArgumentException 地址格式不正确
+     * @throws IllegalStateException    未指定地址且没有默认合约
+     */
+    public ContractHandle<C> get(String address) {
+        if (address == null) {
+            ContractHandle<C> handle = defaultContract;
+            if (handle == null) {
+                throw new IllegalStateException("Contract not deployed or loaded");
+            }
+            return handle;
+        }
+        String key = key(address);
+        ContractHandle<C> handle = pinned.get(key);
+        if (handle != null) {
+            return handle;
+        }
+        synchronized (accessed) {
+            handle = accessed.get(key);
+            if (handle != null) {
+                return handle;
+            }
+            if (!WalletUtils.isValidAddress(address)) {
+                throw new IllegalArgumentException("Invalid contract address: " + address);
+            }
+            handle = new ContractHandle<>(loader.apply(address), false);
+            accessed.put(key, handle);
+            return handle;
+        }
+    }
+
+    /**
+     * 加载已部署的合约并设为默认合约
+     */
+    public ContractHandle<C> load(String address) {
+        if (!WalletUtils.isValidAddress(address)) {
+            throw new IllegalArgumentException("Invalid contract address: " + address);
+        }
+        return register(loader.apply(address));
+    }
+
+    /**
+     * 登记新部署的合约并设为默认合约
+     */
+    public ContractHandle<C> register(C contract) {
+        ContractHandle<C> handle = new ContractHandle<>(contract, true);
+        String key = key(contract.getContractAddress());
+        pinned.put(key, handle);
+        synchronized (accessed) {
+            accessed.remove(key);
+        }
+        defaultContract = handle;
+        return handle;
+    }
+
+    /**
+     * @return 默认合约地址，尚未部署或加载时为 null
+     */
+    public String getDefaultAddress() {
+        ContractHandle<C> handle = defaultContract;
+        return handle == null ? null : handle.getAddress();
+    }
+
+    public List<String> getAddresses() {
+        List<String> addresses = new ArrayList<>();
+        pinned.values().forEach(handle -> addresses.add(handle.getAddress()));
+        synchronized (accessed) {
+            accessed.values().forEach(handle -> addresses.add(handle.getAddress()));
+        }
+        return addresses;
+    }
+
+    private static String key(String address) {
+        return address.toLowerCase();
+    }
+}
@@ -0,0 +1,201 @@
+package com.wetech.demo.web3j.service;
+
+import com.wetech.demo.web3j.contracts.ierc20metadata.IERC20Metadata;
+import com.wetech.demo.web3j.rpc.LogStreamer;
+import com.wetech.demo.web3j.rpc.Web3jExecutor;
+import io.reactivex.Flowable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.web3j.abi.EventEncoder;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * 通用 ERC20 代币服务
+ *
+ * 基于 IERC20Metadata 包装类，只依赖标准 ERC20 接口（含 name/symbol/decimals），任何标准代币合约都可以直接使用，
+ * 不需要为每种代币单独生成包装类或编写服务。读写请求与 JYMToken 走同一条 RPC 链路（路由、限流、缓存），
+ * 合约包装类和不可变的元数据按地址缓存在 ContractRegistry 中。
+ *
+ * mint/burn 等代币特有的操作不属于 ERC20 标准，仍由对应代币的服务提供（如 {@link JYMTokenService}）。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class Erc20Service {
+
+    private static final String TRANSFER_TOPIC = EventEncoder.encode(IERC20Metadata.TRANSFER_EVENT);
+
+    private final Web3j web3j;
+    private final Web3jExecutor web3jExecutor;
+    private final LogStreamer logStreamer;
+    private final ContractRegistry<IERC20Metadata> erc20Registry;
+
+    /**
+     * 查询余额
+     *
+     * @param token   代币合约地址
+     * @param account 要查询的地址
+     */
+    public CompletableFuture<BigInteger> balanceOf(String token, String account) {
+        return web3jExecutor.sendAsync(contract(token).balanceOf(account));
+    }
+
+    /**
+     * 查询指定区块上的余额
+     */
+    public CompletableFuture<BigInteger> balanceOf(String token, String account, DefaultBlockParameter block) {
+        return ViewCalls.balanceOf(web3j, token, account, block);
+    }
+
+    /**
+     * 查询授权额度
+     *
+     * @param token   代币合约地址
+     * @param owner   所有者地址
+     * @param spender 被授权者地址
+     */
+    public CompletableFuture<BigInteger> allowance(String token, String owner, String spender) {
+        return web3jExecutor.sendAsync(contract(token).allowance(owner, spender));
+    }
+
+    /**
+     * 查询指定区块上的授权额度
+     */
+    public CompletableFuture<BigInteger> allowance(String token, String owner, String spender,
+                                                   DefaultBlockParameter block) {
+        return ViewCalls.allowance(web3j, token, owner, spender, block);
+    }
+
+    /**
+     * 查询总供应量
+     *
+     * @param token 代币合约地址
+     */
+    public CompletableFuture<BigInteger> totalSupply(String token) {
+        return web3jExecutor.sendAsync(contract(token).totalSupply());
+    }
+
+    /**
+     * 查询指定区块上的总供应量
+     */
+    public CompletableFuture<BigInteger> totalSupply(String token, DefaultBlockParameter block) {
+        return ViewCalls.totalSupply(web3j, token, block);
+    }
+
+    /**
+     * 获取代币名称（不可变，按合约缓存）
+     */
+    public CompletableFuture<String> name(String token) {
+        ContractHandle<IERC20Metadata> handle = handle(token);
+        return handle.memoize("name", () -> web3jExecutor.sendAsync(handle.getContract().name()));
+    }
+
+    /**
+     * 获取代币符号（不可变，按合约缓存）
+     */
+    public CompletableFuture<String> symbol(String token) {
+        ContractHandle<IERC20Metadata> handle = handle(token);
+        return handle.memoize("symbol", () -> web3jExecutor.sendAsync(handle.getContract().symbol()));
+    }
+
+    /**
+     * 获取小数位数（不可变，按合约缓存）
+     */
+    public CompletableFuture<BigInteger> decimals(String token) {
+        ContractHandle<IERC20Metadata> handle = handle(token);
+        return handle.memoize("decimals", () -> web3jExecutor.sendAsync(handle.getContract().decimals()));
+    }
+
+    /**
+     * 转账
+     *
+     * @param token  代币合约地址
+     * @param to     接收者地址
+     * @param amount 转账数量（最小单位）
+     */
+    public CompletableFuture<TransactionReceipt> transfer(String token, String to, BigInteger amount) {
+        log.info("Transferring {} of token {} to {}", amount, token, to);
+        return web3jExecutor.sendAsync(contract(token).transfer(to, amount));
+    }
+
+    /**
+     * 授权
+     *
+     * @param token   代币合约地址
+     * @param spender 被授权的地址
+     * @param amount  授权数量
+     */
+    public CompletableFuture<TransactionReceipt> approve(String token, String spender, BigInteger amount) {
+        log.info("Approving {} to spend {} of token {}", spender, amount, token);
+        return web3jExecutor.sendAsync(contract(token).approve(spender, amount));
+    }
+
+    /**
+     * 授权转账
+     *
+     * @param token  代币合约地址
+     * @param from   发送者地址
+     * @param to     接收者地址
+     * @param amount 转账数量
+     */
+    public CompletableFuture<TransactionReceipt> transferFrom(String token, String from, String to,
+                                                            BigInteger amount) {
+        log.info("Transferring {} of token {} from {} to {}", amount, token, from, to);
+        return web3jExecutor.sendAsync(contract(token).transferFrom(from, to, amount));
+    }
+
+    /**
+     * 订阅 Transfer 事件：先补发 fromBlock 之后的历史事件，再持续推送新事件
+     *
+     * @param token     代币合约地址
+     * @param fromBlock 起始区块
+     * @return 事件流，取消订阅时卸载节点上的过滤器
+     */
+    public Flowable<IERC20Metadata.TransferEventResponse> transferEvents(String token,
+                                                                        DefaultBlockParameter fromBlock) {
+        IERC20Metadata contract = contract(token);
+        log.info("Subscribing to Transfer events of {} from block {}", token, fromBlock.getValue());
+        return contract.transferEventFlowable(fromBlock, DefaultBlockParameterName.LATEST);
+    }
+
+    /**
+     * 流式读取历史 Transfer 事件，日志边下载边解码
+     *
+     * @param token     代币合约地址
+     * @param fromBlock 起始区块（含）
+     * @param toBlock   结束区块（含）
+     * @param consumer  接收每条解码后的事件
+     * @return 事件条数
+     */
+    public long streamTransferEvents(String token, DefaultBlockParameter fromBlock, DefaultBlockParameter toBlock,
+                                     Consumer<IERC20Metadata.TransferEventResponse> consumer) throws IOException {
+        String address = contract(token).getContractAddress();
+        log.info("Streaming Transfer events of {} from block {} to {}", address, fromBlock.getValue(), toBlock.getValue());
+        return logStreamer.streamLogs(fromBlock, toBlock, (from, to) -> {
+            EthFilter filter = new EthFilter(from, to, address);
+            filter.addSingleTopic(TRANSFER_TOPIC);
+            return filter;
+        }, entry -> consumer.accept(IERC20Metadata.getTransferEventFromLog(entry)));
+    }
+
+    private IERC20Metadata contract(String token) {
+        return handle(token).getContract();
+    }
+
+    private ContractHandle<IERC20Metadata> handle(String token) {
+        if (token == null) {
+            throw new IllegalArgumentException("Token address is required");
+        }
+        return erc20Registry.get(token);
+    }
+}
@@ -1,17 +1,26 @@
 package com.wetech.demo.web3j.service;
 
 import com.wetech.demo.web3j.contracts.jymtoken.JYMToken;
-import lombok.Getter;
+import com.wetech.demo.web3j.rpc.LogStreamer;
+import com.wetech.demo.web3j.rpc.Web3jExecutor;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
+import io.reactivex.Flowable;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.Credentials;
+import org.web3j.abi.EventEncoder;
 import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.request.EthFilter;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.tx.TransactionManager;
 import org.web3j.tx.gas.ContractGasProvider;
 
+import java.io.IOException;
 import java.math.BigInteger;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * JYMToken Service - 实现 ERC20 代币的业务逻辑
@@ -28,20 +37,27 @@ import java.util.concurrent.CompletableFuture;
  * - allowance - 查询授权额度
  * - totalSupply - 查询总供应量
  * - name/symbol/decimals - 代币元数据
+ *
+ * 同时管理多个 JYMToken 合约：各方法的 contractAddress 参数指定操作哪个合约，
+ * 为 null 时使用最近一次部署或加载的默认合约。
+ *
+ * 每个公开方法是一个观测（span），返回 CompletableFuture 的方法在 future 完成时结束，
+ * 方法内发出的 JSON-RPC 请求和回执轮询都挂在它下面。
  */
 @Slf4j
 @Service
+@Observed(name = "jym.token.service")
 @RequiredArgsConstructor
 public class JYMTokenService {
 
+    private static final String TRANSFER_TOPIC = EventEncoder.encode(JYMToken.TRANSFER_EVENT);
+
     private final Web3j web3j;
-    private final Credentials credentials;
+    private final TransactionManager transactionManager;
     private final ContractGasProvider gasProvider;
-
-    private JYMToken contract;
-
-    @Getter
-    private String contractAddress;
+    private final Web3jExecutor web3jExecutor;
+    private final LogStreamer logStreamer;
+    private final ContractRegistry<JYMToken> jymTokenRegistry;
 
     /**
      * 部署 JYMToken 合约
@@ -51,26 +67,30 @@ public class JYMTokenService {
      */
     public CompletableFuture<String> deployContract() {
         log.info("Deploying JYMToken contract...");
-        return JYMToken.deploy(web3j, credentials, gasProvider)
-                .sendAsync()
+        return web3jExecutor.sendAsync(JYMToken.deploy(web3j, transactionManager, gasProvider))
                 .thenApply(contract -> {
-                    this.contract = contract;
-                    this.contractAddress = contract.getContractAddress();
-                    log.info("JYMToken deployed to: {}", contractAddress);
+                    jymTokenRegistry.register(contract);
+                    log.info("JYMToken deployed to: {}", contract.getContractAddress());
                     log.info("Initial supply: 1,000,000 JYM minted to deployer");
-                    return contractAddress;
+                    return contract.getContractAddress();
                 });
     }
 
     /**
-     * 加载已部署的合约
+     * 加载已部署的合约并设为默认合约
      *
      * @param contractAddress 合约地址
      */
     public void loadContract(String contractAddress) {
         log.info("Loading JYMToken contract from: {}", contractAddress);
-        this.contract = JYMToken.load(contractAddress, web3j, credentials, gasProvider);
-        this.contractAddress = contractAddress;
+        jymTokenRegistry.load(contractAddress);
+    }
+
+    /**
+     * @return 默认合约地址，尚未部署或加载时为 null
+     */
+    public String getContractAddress() {
+        return jymTokenRegistry.getDefaultAddress();
     }
 
     /**
@@ -80,10 +100,10 @@ public class JYMTokenService {
      * @param amount 铸造数量（最小单位，需乘以 10^18）
      * @return 交易回执
      */
-    public CompletableFuture<TransactionReceipt> mint(BigInteger amount) {
-        ensureContractLoaded();
+    public CompletableFuture<TransactionReceipt> mint(String contractAddress, BigInteger amount) {
+        JYMToken contract = contract(contractAddress);
         log.info("Minting {} tokens", amount);
-        return contract.mint(amount).sendAsync();
+        return web3jExecutor.sendAsync(contract.mint(amount));
     }
 
     /**
@@ -93,10 +113,10 @@ public class JYMTokenService {
      * @param amount 转账数量
      * @return 交易回执
      */
-    public CompletableFuture<TransactionReceipt> transfer(String to, BigInteger amount) {
-        ensureContractLoaded();
+    public CompletableFuture<TransactionReceipt> transfer(String contractAddress, String to, BigInteger amount) {
+        JYMToken contract = contract(contractAddress);
         log.info("Transferring {} tokens to {}", amount, to);
-        return contract.transfer(to, amount).sendAsync();
+        return web3jExecutor.sendAsync(contract.transfer(to, amount));
     }
 
     /**
@@ -105,10 +125,18 @@ public class JYMTokenService {
      * @param address 要查询的地址
      * @return 余额
      */
-    public CompletableFuture<BigInteger> balanceOf(String address) {
-        ensureContractLoaded();
+    public CompletableFuture<BigInteger> balanceOf(String contractAddress, String address) {
+        JYMToken contract = contract(contractAddress);
         log.info("Getting balance of: {}", address);
-        return contract.balanceOf(address).sendAsync();
+        return web3jExecutor.sendAsync(contract.balanceOf(address));
+    }
+
+    /**
+     * 查询指定区块上的余额，用于与链头对应的条件请求
+     */
+    public CompletableFuture<BigInteger> balanceOf(String contractAddress, String address,
+                                                   DefaultBlockParameter block) {
+        return ViewCalls.balanceOf(web3j, contract(contractAddress).getContractAddress(), address, block);
     }
 
     /**
@@ -119,10 +147,10 @@ public class JYMTokenService {
      * @param amount  授权数量
      * @return 交易回执
      */
-    public CompletableFuture<TransactionReceipt> approve(String spender, BigInteger amount) {
-        ensureContractLoaded();
+    public CompletableFuture<TransactionReceipt> approve(String contractAddress, String spender, BigInteger amount) {
+        JYMToken contract = contract(contractAddress);
         log.info("Approving {} tokens for spender: {}", amount, spender);
-        return contract.approve(spender, amount).sendAsync();
+        return web3jExecutor.sendAsync(contract.approve(spender, amount));
     }
 
     /**
@@ -134,10 +162,11 @@ public class JYMTokenService {
      * @param amount 转账数量
      * @return 交易回执
      */
-    public CompletableFuture<TransactionReceipt> transferFrom(String from, String to, BigInteger amount) {
-        ensureContractLoaded();
+    public CompletableFuture<TransactionReceipt> transferFrom(String contractAddress, String from, String to,
+                                                            BigInteger amount) {
+        JYMToken contract = contract(contractAddress);
         log.info("TransferFrom: {} tokens from {} to {}", amount, from, to);
-        return contract.transferFrom(from, to, amount).sendAsync();
+        return web3jExecutor.sendAsync(contract.transferFrom(from, to, amount));
     }
 
     // ========== 辅助功能 ==========
@@ -148,10 +177,10 @@ public class JYMTokenService {
      * @param amount 销毁数量
      * @return 交易回执
      */
-    public CompletableFuture<TransactionReceipt> burn(BigInteger amount) {
-        ensureContractLoaded();
+    public CompletableFuture<TransactionReceipt> burn(String contractAddress, BigInteger amount) {
+        JYMToken contract = contract(contractAddress);
         log.info("Burning {} tokens", amount);
-        return contract.burn(amount).sendAsync();
+        return web3jExecutor.sendAsync(contract.burn(amount));
     }
 
     /**
@@ -161,47 +190,94 @@ public class JYMTokenService {
      * @param spender 被授权者地址
      * @return 授权额度
      */
-    public CompletableFuture<BigInteger> allowance(String owner, String spender) {
-        ensureContractLoaded();
+    public CompletableFuture<BigInteger> allowance(String contractAddress, String owner, String spender) {
+        JYMToken contract = contract(contractAddress);
         log.info("Getting allowance: owner={}, spender={}", owner, spender);
-        return contract.allowance(owner, spender).sendAsync();
+        return web3jExecutor.sendAsync(contract.allowance(owner, spender));
+    }
+
+    /**
+     * 查询指定区块上的授权额度
+     */
+    public CompletableFuture<BigInteger> allowance(String contractAddress, String owner, String spender,
+                                                   DefaultBlockParameter block) {
+        return ViewCalls.allowance(web3j, contract(contractAddress).getContractAddress(), owner, spender, block);
     }
 
     /**
      * 获取总供应量
      */
-    public CompletableFuture<BigInteger> totalSupply() {
-        ensureContractLoaded();
-        return contract.totalSupply().sendAsync();
+    public CompletableFuture<BigInteger> totalSupply(String contractAddress) {
+        JYMToken contract = contract(contractAddress);
+        return web3jExecutor.sendAsync(contract.totalSupply());
+    }
+
+    /**
+     * 查询指定区块上的总供应量
+     */
+    public CompletableFuture<BigInteger> totalSupply(String contractAddress, DefaultBlockParameter block) {
+        return ViewCalls.totalSupply(web3j, contract(contractAddress).getContractAddress(), block);
     }
 
     /**
-     * 获取代币名称
+     * 获取代币名称（不可变，按合约缓存）
      */
-    public CompletableFuture<String> name() {
-        ensureContractLoaded();
-        return contract.name().sendAsync();
+    public CompletableFuture<String> name(String contractAddress) {
+        ContractHandle<JYMToken> handle = jymTokenRegistry.get(contractAddress);
+        return handle.memoize("name", () -> web3jExecutor.sendAsync(handle.getContract().name()));
     }
 
     /**
-     * 获取代币符号
+     * 获取代币符号（不可变，按合约缓存）
      */
-    public CompletableFuture<String> symbol() {
-        ensureContractLoaded();
-        return contract.symbol().sendAsync();
+    public CompletableFuture<String> symbol(String contractAddress) {
+        ContractHandle<JYMToken> handle = jymTokenRegistry.get(contractAddress);
+        return handle.memoize("symbol", () -> web3jExecutor.sendAsync(handle.getContract().symbol()));
     }
 
     /**
-     * 获取小数位数
+     * 获取小数位数（不可变，按合约缓存）
+     */
+    public CompletableFuture<BigInteger> decimals(String contractAddress) {
+        ContractHandle<JYMToken> handle = jymTokenRegistry.get(contractAddress);
+        return handle.memoize("decimals", () -> web3jExecutor.sendAsync(handle.getContract().decimals()));
+    }
+
+    /**
+     * 订阅 Transfer 事件：先补发 fromBlock 之后的历史事件，再持续推送新事件
+     *
+     * @param fromBlock 起始区块
+     * @return 事件流，取消订阅时卸载节点上的过滤器
+     */
+    public Flowable<JYMToken.TransferEventResponse> transferEvents(String contractAddress,
+                                                                  DefaultBlockParameter fromBlock) {
+        JYMToken contract = contract(contractAddress);
+        log.info("Subscribing to Transfer events from block {}", fromBlock.getValue());
+        return contract.transferEventFlowable(fromBlock, DefaultBlockParameterName.LATEST);
+    }
+
+    /**
+     * 流式读取历史 Transfer 事件
+     * 日志边下载边解码，逐条交给 consumer，不会把整个区块范围的结果放进内存
+     *
+     * @param fromBlock 起始区块（含）
+     * @param toBlock   结束区块（含）
+     * @param consumer  接收每条解码后的事件
+     * @return 事件条数
      */
-    public CompletableFuture<BigInteger> decimals() {
-        ensureContractLoaded();
-        return contract.decimals().sendAsync();
+    public long streamTransferEvents(String contractAddress, DefaultBlockParameter fromBlock,
+                                     DefaultBlockParameter toBlock,
+                                     Consumer<JYMToken.TransferEventResponse> consumer) throws IOException {
+        String address = contract(contractAddress).getContractAddress();
+        log.info("Streaming Transfer events of {} from block {} to {}", address, fromBlock.getValue(), toBlock.getValue());
+        return logStreamer.streamLogs(fromBlock, toBlock, (from, to) -> {
+            EthFilter filter = new EthFilter(from, to, address);
+            filter.addSingleTopic(TRANSFER_TOPIC);
+            return filter;
+        }, entry -> consumer.accept(JYMToken.getTransferEventFromLog(entry)));
     }
 
-    private void ensureContractLoaded() {
-        if (contract == null) {
-            throw new IllegalStateException("Contract not deployed or loaded");
-        }
+    private JYMToken contract(String contractAddress) {
+        return jymTokenRegistry.get(contractAddress).getContract();
     }
 }
@@ -0,0 +1,222 @@
+package com.wetech.demo.web3j.service;
+
+import com.wetech.demo.web3j.contracts.jymtoken.JYMToken;
+import com.wetech.demo.web3j.dto.PermitRequest;
+import com.wetech.demo.web3j.dto.PermitVerdict;
+import com.wetech.demo.web3j.jfr.SignEvent;
+import com.wetech.demo.web3j.permit.PermitDigest;
+import com.wetech.demo.web3j.permit.PermitNonceTracker;
+import com.wetech.demo.web3j.permit.PermitVerifier;
+import com.wetech.demo.web3j.rpc.Web3jExecutor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.Sign;
+import org.web3j.crypto.WalletUtils;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthCall;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * JYMToken 的 EIP-2612 permit：服务端用托管私钥离线签名并提交
+ *
+ * 域分隔符按合约缓存（DOMAIN_SEPARATOR 在合约部署后不变），permit nonce 由 {@link PermitNonceTracker}
+ * 在本地分配，签名本身不发任何 RPC，一个 permit 只需要一笔 permit 交易，代替 approve 的两步流程。
+ * 同一合约、同一 owner 的 permit 按到达顺序逐个提交，前一个的回执返回后才签下一个。
+ *
+ * 用户自己签名的 permit 可以在转发前批量离线校验（{@link #verify}），签名检查不经过节点。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PermitService {
+
+    /**
+     * nonces(address) 的函数选择器
+     */
+    private static final String NONCES_SELECTOR = "0x7ecebe00";
+    private static final String ADDRESS_PADDING = "000000000000000000000000";
+
+    private final Web3j web3j;
+    private final ContractRegistry<JYMToken> jymTokenRegistry;
+    private final Credentials credentials;
+    private final Web3jExecutor web3jExecutor;
+    private final PermitNonceTracker nonceTracker = new PermitNonceTracker();
+
+    @Value("${web3j.permit.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    @Value("${web3j.permit.verify-batch-size:200}")
+    private int verifyBatchSize;
+
+    /**
+     * 以托管地址为 owner 签名 permit 并提交
+     *
+     * @param contractAddress 合约地址，为 null 时使用默认合约
+     * @param spender         被授权地址
+     * @param value           授权数量
+     * @param deadline        过期时间（Unix 秒），为 null 时为当前时间 + web3j.permit.ttl-seconds
+     */
+    public CompletableFuture<Submitted> permit(String contractAddress, String spender, BigInteger value,
+                                               BigInteger deadline) {
+        ContractHandle<JYMToken> handle = jymTokenRegistry.get(contractAddress);
+        JYMToken contract = handle.getContract();
+        String owner = credentials.getAddress();
+        BigInteger expiry = deadline != null ? deadline : BigInteger.valueOf(Instant.now().getEpochSecond() + ttlSeconds);
+        return domainSeparator(handle).thenCompose(domainSeparator -> nonceTracker.submit(handle.getAddress(), owner,
+                () -> web3jExecutor.sendAsync(contract.nonces(owner)),
+                nonce -> {
+                    byte[] digest = PermitDigest.digest(domainSeparator, owner, spender, value, nonce, expiry);
+                    Sign.SignatureData signature = sign(digest);
+                    log.info("Submitting permit of {} for spender {} (nonce {}, deadline {})",
+                            owner, spender, nonce, expiry);
+                    return web3jExecutor.sendAsync(contract.permit(owner, spender, value, expiry,
+                                    Numeric.toBigInt(signature.getV()), signature.getR(), signature.getS()))
+                            .thenApply(receipt -> new Submitted(receipt, owner, nonce, expiry));
+                }));
+    }
+
+    /**
+     * 用托管私钥签名 permit 摘要，记为 JFR {@link SignEvent}
+     */
+    private Sign.SignatureData sign(byte[] digest) {
+        SignEvent event = new SignEvent();
+        event.begin();
+        Sign.SignatureData signature = Sign.signMessage(digest, credentials.getEcKeyPair(), false);
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = SignEvent.PERMIT;
+            event.function = "permit";
+            event.signer = credentials.getAddress();
+            event.bytes = digest.length;
+            event.commit();
+        }
+        return signature;
+    }
+
+    /**
+     * 批量离线校验用户签名的 permit
+     *
+     * 签名和 deadline 在本地并行校验；nonce 与 owner 当前 nonce 的视图比较，视图由每批不同 owner 的
+     * nonces() 组成（按 web3j.permit.verify-batch-size 分段用 JSON-RPC 批量请求读取，与签名校验同时进行），
+     * 托管地址取本地分配记录与链上值中较大的一个。整批只读取一次 DOMAIN_SEPARATOR（之后按合约缓存）。
+     *
+     * @param contractAddress 合约地址，为 null 时使用默认合约
+     * @param permits         待校验的 permit
+     * @return 每条 permit 的校验结果，与输入顺序一致
+     */
+    public CompletableFuture<List<PermitVerdict>> verify(String contractAddress, List<PermitRequest> permits) {
+        ContractHandle<JYMToken> handle = jymTokenRegistry.get(contractAddress);
+        log.info("Verifying {} permits against {}", permits.size(), handle.getAddress());
+        CompletableFuture<Map<String, BigInteger>> nonces = nonceView(handle.getAddress(), owners(permits));
+        return domainSeparator(handle)
+                .thenApplyAsync(domainSeparator -> PermitVerifier.verifySignatures(
+                        domainSeparator, permits, Instant.now().getEpochSecond()), ForkJoinPool.commonPool())
+                .thenCombine(nonces, PermitVerifier::checkNonces);
+    }
+
+    /**
+     * 读取一组 owner 当前的 nonce；读取失败的 owner 不在结果中
+     */
+    private CompletableFuture<Map<String, BigInteger>> nonceView(String contractAddress, Set<String> owners) {
+        Map<String, BigInteger> view = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        List<String> chunk = new ArrayList<>(verifyBatchSize);
+        for (String owner : owners) {
+            chunk.add(owner);
+            if (chunk.size() == verifyBatchSize) {
+                batches.add(fetchNonces(contractAddress, chunk, view));
+                chunk = new ArrayList<>(verifyBatchSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            batches.add(fetchNonces(contractAddress, chunk, view));
+        }
+        return CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    // 托管地址可能有已分配但尚未上链的 nonce
+                    String managed = credentials.getAddress().toLowerCase();
+                    nonceTracker.peek(contractAddress, managed)
+                            .ifPresent(local -> view.computeIfPresent(managed, (owner, onChain) -> onChain.max(local)));
+                    return view;
+                });
+    }
+
+    private CompletableFuture<Void> fetchNonces(String contractAddress, List<String> owners,
+                                                Map<String, BigInteger> view) {
+        BatchRequest batch = web3j.newBatch();
+        for (String owner : owners) {
+            String data = NONCES_SELECTOR + ADDRESS_PADDING + Numeric.cleanHexPrefix(owner);
+            batch.add(web3j.ethCall(Transaction.createEthCallTransaction(null, contractAddress, data),
+                    DefaultBlockParameterName.LATEST));
+        }
+        return batch.sendAsync()
+                .thenAccept(responses -> {
+                    // 节点不保证批量响应按请求顺序返回，按 id 对回请求
+                    Map<Long, String> ownerById = new HashMap<>();
+                    for (int i = 0; i < owners.size(); i++) {
+                        ownerById.put(responses.getRequests().get(i).getId(), owners.get(i));
+                    }
+                    for (Response<?> response : responses.getResponses()) {
+                        String owner = ownerById.get(response.getId());
+                        if (owner != null && response instanceof EthCall call && !call.hasError()
+                                && call.getValue() != null && !Numeric.cleanHexPrefix(call.getValue()).isEmpty()) {
+                            view.put(owner, Numeric.toBigInt(call.getValue()));
+                        }
+                    }
+                })
+                .exceptionally(error -> {
+                    log.warn("Failed to read permit nonces of {} owners: {}", owners.size(), error.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * 格式正确的不同 owner（小写）
+     */
+    private static Set<String> owners(List<PermitRequest> permits) {
+        Set<String> owners = new LinkedHashSet<>();
+        for (PermitRequest permit : permits) {
+            if (permit != null && permit.owner() != null && WalletUtils.isValidAddress(permit.owner())) {
+                owners.add(permit.owner().toLowerCase());
+            }
+        }
+        return owners;
+    }
+
+    /**
+     * DOMAIN_SEPARATOR 按合约缓存
+     */
+    CompletableFuture<byte[]> domainSeparator(ContractHandle<JYMToken> handle) {
+        return handle.memoize("DOMAIN_SEPARATOR",
+                () -> web3jExecutor.sendAsync(handle.getContract().DOMAIN_SEPARATOR()));
+    }
+
+    /**
+     * @param receipt  permit 交易回执
+     * @param owner    签名的托管地址
+     * @param nonce    permit 使用的 nonce
+     * @param deadline permit 过期时间（Unix 秒）
+     */
+    public record Submitted(TransactionReceipt receipt, String owner, BigInteger nonce, BigInteger deadline) {
+    }
+}
@@ -0,0 +1,99 @@
+package com.wetech.demo.web3j.service;
+
+import com.wetech.demo.web3j.contracts.jymtoken.JYMToken;
+import com.wetech.demo.web3j.dto.PermitRequest;
+import com.wetech.demo.web3j.dto.PermitVerdict;
+import com.wetech.demo.web3j.dto.RelayRequest;
+import com.wetech.demo.web3j.permit.PermitVerifier;
+import com.wetech.demo.web3j.relay.RelayJob;
+import com.wetech.demo.web3j.relay.Relayer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.web3j.crypto.WalletUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * JYMToken 的 permit + transferFrom 代付
+ *
+ * 请求先在本地离线校验（签名、deadline、spender 是否为中继账户、amount 是否超出授权），
+ * 通过的交给 {@link Relayer} 排队提交，未通过的直接以失败结束；两种情况都可以按 id 查询结果。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RelayService {
+
+    private final ContractRegistry<JYMToken> jymTokenRegistry;
+    private final PermitService permitService;
+    private final Relayer relayer;
+
+    /**
+     * @param contractAddress 合约地址，为 null 时使用默认合约
+     * @param requests        代付请求
+     * @return 每个请求对应的任务，与输入顺序一致
+     */
+    public CompletableFuture<List<RelayJob>> submit(String contractAddress, List<RelayRequest> requests) {
+        if (relayer.getRelayers().isEmpty()) {
+            throw new IllegalStateException("No relayer keys configured (web3j.relayer.private-keys)");
+        }
+        ContractHandle<JYMToken> handle = jymTokenRegistry.get(contractAddress);
+        log.info("Queueing {} relay requests for {}", requests.size(), handle.getAddress());
+        return permitService.domainSeparator(handle).thenApplyAsync(domainSeparator -> {
+            long now = Instant.now().getEpochSecond();
+            // 签名校验并行，入队按请求顺序
+            List<String> errors = IntStream.range(0, requests.size())
+                    .parallel()
+                    .mapToObj(i -> validate(requests.get(i), now, domainSeparator, i))
+                    .toList();
+            List<RelayJob> jobs = new ArrayList<>(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                RelayRequest request = requests.get(i);
+                RelayJob job = new RelayJob(handle.getAddress(), request == null ? null : request.permit(),
+                        request == null ? null : request.to(), request == null ? null : request.amount());
+                jobs.add(errors.get(i) == null ? relayer.enqueue(job) : relayer.reject(job, errors.get(i)));
+            }
+            return jobs;
+        }, ForkJoinPool.commonPool());
+    }
+
+    public Optional<RelayJob> find(String id) {
+        return relayer.find(id);
+    }
+
+    public List<String> getRelayers() {
+        return relayer.getRelayers();
+    }
+
+    /**
+     * @return 校验失败的原因，通过时为 null
+     */
+    private String validate(RelayRequest request, long now, byte[] domainSeparator, int index) {
+        if (request == null || request.permit() == null) {
+            return PermitVerdict.Reason.MALFORMED.name();
+        }
+        PermitRequest permit = request.permit();
+        PermitVerdict verdict = PermitVerifier.verifySignature(domainSeparator, index, permit, now);
+        if (!verdict.valid()) {
+            return verdict.reason().name();
+        }
+        if (!relayer.isRelayer(permit.spender())) {
+            return "Permit spender is not a relayer account";
+        }
+        if (request.to() == null || !WalletUtils.isValidAddress(request.to())
+                || request.amount() == null || request.amount().signum() < 0) {
+            return PermitVerdict.Reason.MALFORMED.name();
+        }
+        if (request.amount().compareTo(permit.value()) > 0) {
+            return "Amount exceeds permit value";
+        }
+        return null;
+    }
+}
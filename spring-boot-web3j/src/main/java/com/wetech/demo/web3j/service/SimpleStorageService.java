@@ -1,13 +1,17 @@
 package com.wetech.demo.web3j.service;
 
 import com.wetech.demo.web3j.contracts.simplestorage.SimpleStorage;
-import lombok.Getter;
+import com.wetech.demo.web3j.rpc.Web3jExecutor;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
+import io.reactivex.Flowable;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.Credentials;
 import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.tx.TransactionManager;
 import org.web3j.tx.gas.ContractGasProvider;
 
 import java.math.BigInteger;
@@ -16,21 +20,23 @@ import java.util.concurrent.CompletableFuture;
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Observed(name = "simple.storage.service")
 public class SimpleStorageService {
 
     private final Web3j web3j;
-    private final Credentials credentials;
+    private final TransactionManager transactionManager;
     private final ContractGasProvider gasProvider;
-    
-    private SimpleStorage contract;
+    private final Web3jExecutor web3jExecutor;
+    private final ContractRegistry<SimpleStorage> simpleStorageRegistry;
+
     /**
-     * -- GETTER --
-     *  Get the address of the currently loaded contract
+     * Get the address of the currently loaded contract
      *
-     * @return the contract address
+     * @return the contract address, or null if none has been deployed or loaded
      */
-    @Getter
-    private String contractAddress;
+    public String getContractAddress() {
+        return simpleStorageRegistry.getDefaultAddress();
+    }
 
     /**
      * Deploy the SimpleStorage contract to the blockchain
@@ -38,13 +44,11 @@ public class SimpleStorageService {
      */
     public CompletableFuture<String> deployContract() {
         log.info("Deploying SimpleStorage contract...");
-        return SimpleStorage.deploy(web3j, credentials, gasProvider)
-                .sendAsync()
+        return web3jExecutor.sendAsync(SimpleStorage.deploy(web3j, transactionManager, gasProvider))
                 .thenApply(contract -> {
-                    this.contract = contract;
-                    this.contractAddress = contract.getContractAddress();
-                    log.info("SimpleStorage contract deployed to: {}", contractAddress);
-                    return contractAddress;
+                    simpleStorageRegistry.register(contract);
+                    log.info("SimpleStorage contract deployed to: {}", contract.getContractAddress());
+                    return contract.getContractAddress();
                 });
     }
 
@@ -54,8 +58,7 @@ public class SimpleStorageService {
      */
     public void loadContract(String contractAddress) {
         log.info("Loading SimpleStorage contract from address: {}", contractAddress);
-        this.contract = SimpleStorage.load(contractAddress, web3j, credentials, gasProvider);
-        this.contractAddress = contractAddress;
+        simpleStorageRegistry.load(contractAddress);
     }
 
     /**
@@ -63,11 +66,19 @@ public class SimpleStorageService {
      * @return the stored value
      */
     public CompletableFuture<BigInteger> getValue() {
-        if (contract == null) {
-            throw new IllegalStateException("Contract not deployed or loaded");
-        }
-        log.info("Getting value from contract at address: {}", contractAddress);
-        return contract.get().sendAsync();
+        SimpleStorage contract = simpleStorageRegistry.get(null).getContract();
+        log.info("Getting value from contract at address: {}", contract.getContractAddress());
+        return web3jExecutor.sendAsync(contract.get());
+    }
+
+    /**
+     * Get the value stored in the contract as of the given block
+     * @param block the block to read at
+     * @return the stored value
+     */
+    public CompletableFuture<BigInteger> getValue(DefaultBlockParameter block) {
+        SimpleStorage contract = simpleStorageRegistry.get(null).getContract();
+        return ViewCalls.uint256(web3j, contract.getContractAddress(), SimpleStorage.FUNC_GET, block);
     }
 
     /**
@@ -76,10 +87,19 @@ public class SimpleStorageService {
      * @return the transaction receipt
      */
     public CompletableFuture<TransactionReceipt> setValue(BigInteger value) {
-        if (contract == null) {
-            throw new IllegalStateException("Contract not deployed or loaded");
-        }
-        log.info("Setting value {} in contract at address: {}", value, contractAddress);
-        return contract.set(value).sendAsync();
+        SimpleStorage contract = simpleStorageRegistry.get(null).getContract();
+        log.info("Setting value {} in contract at address: {}", value, contract.getContractAddress());
+        return web3jExecutor.sendAsync(contract.set(value));
+    }
+
+    /**
+     * Stream DataChanged events, replaying history from the given block and then following new blocks
+     * @param fromBlock the first block to include
+     * @return the event stream; cancelling it uninstalls the node-side filter
+     */
+    public Flowable<SimpleStorage.DataChangedEventResponse> dataChangedEvents(DefaultBlockParameter fromBlock) {
+        SimpleStorage contract = simpleStorageRegistry.get(null).getContract();
+        log.info("Subscribing to DataChanged events from block {}", fromBlock.getValue());
+        return contract.dataChangedEventFlowable(fromBlock, DefaultBlockParameterName.LATEST);
     }
 }
\ No newline at end of file
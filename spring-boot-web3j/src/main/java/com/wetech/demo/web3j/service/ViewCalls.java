@@ -0,0 +1,73 @@
+package com.wetech.demo.web3j.service;
+
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.FunctionReturnDecoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.tx.exceptions.ContractCallException;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 在指定区块上执行只读调用
+ *
+ * 生成的合约包装类总是读 latest，且默认区块是实例上的可变字段，缓存共享的包装类不能按请求切换。
+ * 需要与某个区块号对应的结果（如按链头生成 ETag 的接口）时，直接编码调用并带上区块参数。
+ */
+final class ViewCalls {
+
+    private static final List<TypeReference<?>> UINT256 = List.of(new TypeReference<Uint256>() {
+    });
+
+    private ViewCalls() {
+    }
+
+    static CompletableFuture<BigInteger> balanceOf(Web3j web3j, String token, String account,
+                                                   DefaultBlockParameter block) {
+        return uint256(web3j, token, new Function("balanceOf",
+                Collections.singletonList(new Address(account)), UINT256), block);
+    }
+
+    static CompletableFuture<BigInteger> allowance(Web3j web3j, String token, String owner, String spender,
+                                                   DefaultBlockParameter block) {
+        return uint256(web3j, token, new Function("allowance",
+                Arrays.asList(new Address(owner), new Address(spender)), UINT256), block);
+    }
+
+    static CompletableFuture<BigInteger> totalSupply(Web3j web3j, String token, DefaultBlockParameter block) {
+        return uint256(web3j, token, "totalSupply", block);
+    }
+
+    /**
+     * 调用无参数、返回 uint256 的只读函数
+     */
+    static CompletableFuture<BigInteger> uint256(Web3j web3j, String contractAddress, String functionName,
+                                                 DefaultBlockParameter block) {
+        return uint256(web3j, contractAddress, new Function(functionName, Collections.emptyList(), UINT256), block);
+    }
+
+    private static CompletableFuture<BigInteger> uint256(Web3j web3j, String contractAddress, Function function,
+                                                         DefaultBlockParameter block) {
+        Transaction call = Transaction.createEthCallTransaction(null, contractAddress, FunctionEncoder.encode(function));
+        return web3j.ethCall(call, block).sendAsync().thenApply(response -> {
+            if (response.hasError()) {
+                throw new ContractCallException(response.getError().getMessage());
+            }
+            List<Type> values = FunctionReturnDecoder.decode(response.getValue(), function.getOutputParameters());
+            if (values.isEmpty()) {
+                throw new ContractCallException("Empty value (0x) returned from contract");
+            }
+            return (BigInteger) values.get(0).getValue();
+        });
+    }
+}
@@ -0,0 +1,211 @@
+package com.wetech.demo.web3j.tx;
+
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.tx.response.TransactionReceiptProcessor;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 在本地分配 nonce 的交易管理器，同一账户可以连续发送多笔交易而不必等待前一笔打包
+ *
+ * 第一次发送时读取一次 pending nonce，之后每笔交易在本地加一。没有被节点接受的交易（发送失败、被限流或被拒绝）
+ * 让出它的 nonce，下一笔交易优先使用，避免在 nonce 序列中留下缺口；节点返回 nonce too low 时说明本地值落后于链上，
+ * 丢弃本地值重新读取。广播时的 IOException 无法判断节点是否已经收到交易，这时既不能让出也不能继续往后分配，
+ * 同样丢弃本地值，以节点的 pending nonce 为准；交易长时间未打包（可能已被节点丢弃）时由调用方 {@link #resync()}。
+ * 用 ReentrantLock 而不是 synchronized，持锁期间阻塞不会占住虚拟线程的载体线程。
+ */
+public class PipelinedTransactionManager extends TrackingTransactionManager {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    /** 下一个新 nonce，未知时为 null */
+    private BigInteger next;
+    /** 已分配但交易没有被节点接受的 nonce */
+    private final TreeSet<BigInteger> released = new TreeSet<>();
+    /** 最近一次分配的 nonce，供单笔发送失败时让出 */
+    private BigInteger lastAssigned;
+
+    public PipelinedTransactionManager(Web3j web3j, Credentials credentials, long chainId,
+                                       TransactionRegistry registry, TransactionReceiptProcessor receiptProcessor) {
+        super(web3j, credentials, chainId, registry, receiptProcessor);
+    }
+
+    /**
+     * 要连续发送的一笔交易
+     */
+    public record Call(String to, String data, BigInteger gasPrice, BigInteger gasLimit) {
+    }
+
+    /**
+     * 按 nonce 递增的顺序发送一组交易，组内靠前的交易一定先于靠后的交易执行
+     *
+     * 只有 nonce 分配和签名在锁内完成，广播在锁外进行，多组交易可以同时在途；节点会把 nonce 超前的交易
+     * 暂存到缺口补齐为止。某一笔没有被节点接受时，它和其后的交易都不再发送，nonce 交还给后续交易；
+     * 广播出现 IOException 时不确定节点是否收到，改为重新读取 pending nonce。
+     *
+     * @return 每笔交易的发送结果，没有被接受的一笔以错误响应表示，之后的交易不在结果中
+     * @throws IOException 读取链上 nonce 失败
+     */
+    public List<EthSendTransaction> sendAll(List<Call> calls) throws IOException {
+        List<RawTransaction> transactions = new ArrayList<>(calls.size());
+        List<String> signed = new ArrayList<>(calls.size());
+        lock.lock();
+        try {
+            for (Call call : calls) {
+                RawTransaction transaction = RawTransaction.createTransaction(getNonce(), call.gasPrice(),
+                        call.gasLimit(), call.to(), BigInteger.ZERO, call.data());
+                transactions.add(transaction);
+                signed.add(signAndRegister(transaction));
+            }
+        } catch (IOException | RuntimeException e) {
+            transactions.forEach(transaction -> released.add(transaction.getNonce()));
+            signed.forEach(transaction -> abandon(transaction, e.getMessage()));
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+
+        List<EthSendTransaction> responses = new ArrayList<>(signed.size());
+        for (int i = 0; i < signed.size(); i++) {
+            EthSendTransaction response;
+            boolean ambiguous = false;
+            try {
+                response = broadcast(signed.get(i));
+            } catch (IOException | RuntimeException e) {
+                ambiguous = e instanceof IOException;
+                response = new EthSendTransaction();
+                response.setError(new Response.Error(-1, e.getMessage()));
+            }
+            responses.add(response);
+            if (response.hasError()) {
+                signed.subList(i + 1, signed.size())
+                        .forEach(transaction -> abandon(transaction, "Previous transaction in the group was not sent"));
+                if (ambiguous) {
+                    resync();
+                } else {
+                    notAccepted(response, transactions.subList(i, transactions.size()).stream()
+                            .map(RawTransaction::getNonce)
+                            .toList());
+                }
+                break;
+            }
+        }
+        return responses;
+    }
+
+    @Override
+    public EthSendTransaction sendTransaction(BigInteger gasPrice, BigInteger gasLimit, String to, String data,
+                                              BigInteger value, boolean constructor) throws IOException {
+        lock.lock();
+        try {
+            lastAssigned = null;
+            EthSendTransaction response = super.sendTransaction(gasPrice, gasLimit, to, data, value, constructor);
+            if (response.hasError()) {
+                notAccepted(response, lastAssigned == null ? List.of() : List.of(lastAssigned));
+            }
+            return response;
+        } catch (IOException e) {
+            if (lastAssigned != null) {
+                // 分配 nonce 之后的 IOException 来自广播，交易可能已经被节点接受
+                resync();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            if (lastAssigned != null) {
+                released.add(lastAssigned);
+            }
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public EthSendTransaction sendEIP1559Transaction(long chainId, BigInteger maxPriorityFeePerGas,
+                                                     BigInteger maxFeePerGas, BigInteger gasLimit, String to,
+                                                     String data, BigInteger value, boolean constructor)
+            throws IOException {
+        lock.lock();
+        try {
+            lastAssigned = null;
+            EthSendTransaction response = super.sendEIP1559Transaction(chainId, maxPriorityFeePerGas, maxFeePerGas,
+                    gasLimit, to, data, value, constructor);
+            if (response.hasError()) {
+                notAccepted(response, lastAssigned == null ? List.of() : List.of(lastAssigned));
+            }
+            return response;
+        } catch (IOException e) {
+            if (lastAssigned != null) {
+                // 分配 nonce 之后的 IOException 来自广播，交易可能已经被节点接受
+                resync();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            if (lastAssigned != null) {
+                released.add(lastAssigned);
+            }
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 丢弃本地分配的 nonce，下一笔交易重新读取节点的 pending nonce
+     *
+     * 交易超时未打包时调用：如果它已被节点丢弃，后续交易会重新使用它的 nonce 补上缺口，
+     * 否则在途的交易已计入 pending nonce，不会重复分配。
+     */
+    public void resync() {
+        lock.lock();
+        try {
+            next = null;
+            released.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 只在持有锁时调用
+     */
+    @Override
+    protected BigInteger getNonce() throws IOException {
+        BigInteger nonce = released.pollFirst();
+        if (nonce == null) {
+            if (next == null) {
+                next = super.getNonce();
+            }
+            nonce = next;
+            next = next.add(BigInteger.ONE);
+        }
+        lastAssigned = nonce;
+        return nonce;
+    }
+
+    /**
+     * @param nonces 没有被节点接受的交易的 nonce
+     */
+    private void notAccepted(EthSendTransaction response, List<BigInteger> nonces) {
+        String message = response.getError().getMessage();
+        lock.lock();
+        try {
+            if (message != null && message.toLowerCase().contains("nonce too low")) {
+                next = null;
+                released.clear();
+            } else {
+                released.addAll(nonces);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
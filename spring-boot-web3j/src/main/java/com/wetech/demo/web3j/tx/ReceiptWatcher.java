@@ -0,0 +1,146 @@
+package com.wetech.demo.web3j.tx;
+
+import com.wetech.demo.web3j.rpc.HeadTracker;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.protocol.exceptions.TransactionException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 按链头批量查询回执
+ *
+ * {@link TrackingReceiptProcessor} 每笔交易占用一个线程轮询，适合零散的合约调用；大量同时在途的交易
+ * 改由这里统一等待：链头每前进一次，把所有未打包的交易按 batchSize 分段，各用一个 JSON-RPC 批量请求
+ * 查询 eth_getTransactionReceipt。请求数与区块数成正比，与在途交易数无关。
+ * 超过 timeoutBlocks 个区块仍未打包的交易以 TransactionException 结束；这笔交易可能已被节点丢弃，
+ * 在发送账户的 nonce 序列中留下缺口，本地分配 nonce 的调用方应随之重新读取 pending nonce
+ * （{@link PipelinedTransactionManager#resync()}）。
+ * 每轮查询是一个 web3j.tx.receipt.poll 观测（span），本轮的批量请求挂在它下面。
+ */
+@Slf4j
+public class ReceiptWatcher {
+
+    private final Map<String, Watch> watched = new ConcurrentHashMap<>();
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private final Web3j web3j;
+    private final HeadTracker headTracker;
+    private final TransactionRegistry registry;
+    private final int batchSize;
+    private final long timeoutBlocks;
+    private final ObservationRegistry observationRegistry;
+
+    public ReceiptWatcher(Web3j web3j, HeadTracker headTracker, TransactionRegistry registry, int batchSize,
+                          long timeoutBlocks, ObservationRegistry observationRegistry) {
+        this.web3j = web3j;
+        this.headTracker = headTracker;
+        this.registry = registry;
+        this.batchSize = batchSize;
+        this.timeoutBlocks = timeoutBlocks;
+        this.observationRegistry = observationRegistry;
+        headTracker.addListener(this::onHead);
+    }
+
+    private record Watch(CompletableFuture<TransactionReceipt> receipt, long since) {
+    }
+
+    /**
+     * @param hash 已广播的交易哈希
+     * @return 打包后完成的回执（执行失败的交易同样正常完成，由调用方检查 status）
+     */
+    public CompletableFuture<TransactionReceipt> watch(String hash) {
+        registry.pending(hash);
+        return watched.computeIfAbsent(hash.toLowerCase(),
+                ignored -> new Watch(new CompletableFuture<>(), headTracker.getHead())).receipt();
+    }
+
+    public int getWatching() {
+        return watched.size();
+    }
+
+    private void onHead(long head) {
+        if (watched.isEmpty() || !polling.compareAndSet(false, true)) {
+            return;
+        }
+        Observation observation = Observation.createNotStarted("web3j.tx.receipt.poll", observationRegistry)
+                .contextualName("poll-receipts")
+                .highCardinalityKeyValue("block", Long.toString(head))
+                .highCardinalityKeyValue("watching", Integer.toString(watched.size()))
+                .start();
+        List<CompletableFuture<?>> batches = new ArrayList<>();
+        try (Observation.Scope scope = observation.openScope()) {
+            List<String> chunk = new ArrayList<>(batchSize);
+            for (String hash : watched.keySet()) {
+                chunk.add(hash);
+                if (chunk.size() == batchSize) {
+                    batches.add(poll(chunk, head));
+                    chunk = new ArrayList<>(batchSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                batches.add(poll(chunk, head));
+            }
+        }
+        CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, error) -> {
+                    observation.stop();
+                    polling.set(false);
+                });
+    }
+
+    private CompletableFuture<Void> poll(List<String> hashes, long head) {
+        BatchRequest batch = web3j.newBatch();
+        for (String hash : hashes) {
+            batch.add(web3j.ethGetTransactionReceipt(hash));
+        }
+        return batch.sendAsync()
+                .thenAccept(responses -> settle(hashes, responses, head))
+                .exceptionally(error -> {
+                    log.warn("Failed to poll {} receipts at block {}: {}", hashes.size(), head, error.getMessage());
+                    return null;
+                });
+    }
+
+    private void settle(List<String> hashes, BatchResponse responses, long head) {
+        // 节点不保证批量响应按请求顺序返回，按 id 对回请求
+        Map<Long, Response<?>> byId = new HashMap<>();
+        for (Response<?> response : responses.getResponses()) {
+            byId.put(response.getId(), response);
+        }
+        for (int i = 0; i < hashes.size(); i++) {
+            String hash = hashes.get(i);
+            Watch watch = watched.get(hash);
+            if (watch == null) {
+                continue;
+            }
+            Response<?> response = byId.get(responses.getRequests().get(i).getId());
+            if (response instanceof EthGetTransactionReceipt receipt && receipt.getTransactionReceipt().isPresent()) {
+                TransactionReceipt mined = receipt.getTransactionReceipt().get();
+                registry.mined(hash, mined, null);
+                watched.remove(hash);
+                watch.receipt().complete(mined);
+            } else if (watch.since() < 0) {
+                // 开始等待时链头还未知，从第一次查询的区块开始计时
+                watched.replace(hash, watch, new Watch(watch.receipt(), head));
+            } else if (head - watch.since() > timeoutBlocks) {
+                String message = "Transaction receipt was not generated after " + timeoutBlocks + " blocks";
+                registry.failed(hash, message);
+                watched.remove(hash);
+                watch.receipt().completeExceptionally(new TransactionException(message, hash));
+            }
+        }
+    }
+}
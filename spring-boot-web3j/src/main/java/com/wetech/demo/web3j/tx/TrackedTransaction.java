@@ -0,0 +1,136 @@
+package com.wetech.demo.web3j.tx;
+
+import lombok.Getter;
+
+import java.math.BigInteger;
+import java.time.Instant;
+
+/**
+ * 注册表中的一笔交易，状态字段只由 {@link TransactionRegistry} 更新
+ */
+@Getter
+public class TrackedTransaction {
+
+    private final String hash;
+    private final String from;
+    private final String to;
+    private final BigInteger nonce;
+    private final Instant submittedAt;
+
+    /**
+     * 收到写请求的时刻（提交到 web3j 线程池的时间），不经线程池发出的交易与 submittedAt 相同
+     */
+    private final Instant requestedAt;
+
+    /**
+     * 交易声明的 gas 上限和出价（EIP-1559 交易为 maxFeePerGas）
+     */
+    private final BigInteger gasLimit;
+    private final BigInteger gasPrice;
+
+    /**
+     * 交易输入数据和转账金额，执行失败时用于重放以取得 revert reason
+     */
+    private final String input;
+    private final BigInteger value;
+
+    private volatile TransactionState state = TransactionState.SIGNED;
+    private volatile Instant updatedAt;
+    private volatile BigInteger blockNumber;
+    private volatile BigInteger gasUsed;
+    private volatile BigInteger effectiveGasPrice;
+    private volatile String contractAddress;
+    private volatile String revertReason;
+    private volatile String error;
+    private volatile String replacedBy;
+
+    /**
+     * 各阶段的时刻：开始广播、节点接受、观察到回执、达到确认数
+     */
+    private volatile Instant broadcastAt;
+    private volatile Instant acceptedAt;
+    private volatile Instant minedAt;
+    private volatile Instant confirmedAt;
+
+    TrackedTransaction(String hash, String from, String to, BigInteger nonce, String input, BigInteger value,
+                       BigInteger gasLimit, BigInteger gasPrice, Instant requestedAt) {
+        this.hash = hash;
+        this.from = from;
+        this.to = to;
+        this.nonce = nonce;
+        this.input = input;
+        this.value = value;
+        this.gasLimit = gasLimit;
+        this.gasPrice = gasPrice;
+        this.submittedAt = Instant.now();
+        this.requestedAt = requestedAt != null && requestedAt.isBefore(submittedAt) ? requestedAt : submittedAt;
+        this.updatedAt = submittedAt;
+    }
+
+    /**
+     * @return 交易的接收方是否为该地址；部署交易没有接收方，总是 false
+     */
+    public boolean isSentTo(String address) {
+        return address != null && address.equalsIgnoreCase(to);
+    }
+
+    /**
+     * @return 当前链头下的确认数，未打包时为 0
+     */
+    public long confirmations(long head) {
+        BigInteger block = blockNumber;
+        if (block == null || head < 0) {
+            return 0;
+        }
+        return Math.max(0, head - block.longValueExact() + 1);
+    }
+
+    /**
+     * 进入终态后状态不再改变，迟到的回执或失败通知不会覆盖已确认、已失败或已替换的结果
+     */
+    synchronized void update(TransactionState state) {
+        if (this.state.isTerminal()) {
+            return;
+        }
+        this.state = state;
+        this.updatedAt = Instant.now();
+    }
+
+    /**
+     * @return 实际花费的手续费（wei），未打包或缺少成交价时为 null
+     */
+    public BigInteger fee() {
+        BigInteger used = gasUsed;
+        BigInteger price = effectiveGasPrice;
+        return used == null || price == null ? null : used.multiply(price);
+    }
+
+    void mined(BigInteger blockNumber, BigInteger gasUsed, BigInteger effectiveGasPrice, String contractAddress) {
+        this.blockNumber = blockNumber;
+        this.gasUsed = gasUsed;
+        this.effectiveGasPrice = effectiveGasPrice;
+        this.contractAddress = contractAddress;
+        this.minedAt = Instant.now();
+    }
+
+    void broadcasting() {
+        this.broadcastAt = Instant.now();
+    }
+
+    void accepted() {
+        this.acceptedAt = Instant.now();
+    }
+
+    void confirmed() {
+        this.confirmedAt = Instant.now();
+    }
+
+    void failed(String error, String revertReason) {
+        this.error = error;
+        this.revertReason = revertReason;
+    }
+
+    void replacedBy(String hash) {
+        this.replacedBy = hash;
+    }
+}
@@ -0,0 +1,94 @@
+package com.wetech.demo.web3j.tx;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.protocol.exceptions.TransactionException;
+import org.web3j.tx.response.PollingTransactionReceiptProcessor;
+import org.web3j.utils.RevertReasonExtractor;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+/**
+ * 轮询回执的同时更新 {@link TransactionRegistry}
+ *
+ * 回执状态为失败时重放交易取得 revert reason；等待超时时根据账户 nonce 区分
+ * “被同 nonce 交易替换”与“一直未被打包”。每次等待是一个 web3j.tx.receipt.wait 观测（span），
+ * 期间的 eth_getTransactionReceipt 请求挂在它下面。
+ */
+@Slf4j
+public class TrackingReceiptProcessor extends PollingTransactionReceiptProcessor {
+
+    private final Web3j web3j;
+    private final TransactionRegistry registry;
+    private final ObservationRegistry observationRegistry;
+
+    public TrackingReceiptProcessor(Web3j web3j, TransactionRegistry registry, long sleepDuration, int attempts,
+                                    ObservationRegistry observationRegistry) {
+        super(web3j, sleepDuration, attempts);
+        this.web3j = web3j;
+        this.registry = registry;
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public TransactionReceipt waitForTransactionReceipt(String transactionHash)
+            throws IOException, TransactionException {
+        Observation observation = Observation.createNotStarted("web3j.tx.receipt.wait", observationRegistry)
+                .contextualName("wait-for-receipt")
+                .highCardinalityKeyValue("tx.hash", transactionHash)
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            registry.pending(transactionHash);
+            TransactionReceipt receipt;
+            try {
+                receipt = super.waitForTransactionReceipt(transactionHash);
+            } catch (TransactionException e) {
+                notMined(transactionHash, e.getMessage());
+                throw e;
+            }
+            observation.highCardinalityKeyValue("tx.block", String.valueOf(receipt.getBlockNumberRaw()));
+            registry.mined(transactionHash, receipt,
+                    receipt.isStatusOK() ? null : revertReason(transactionHash, receipt));
+            return receipt;
+        } catch (IOException | TransactionException | RuntimeException e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    private String revertReason(String transactionHash, TransactionReceipt receipt) {
+        TrackedTransaction tx = registry.find(transactionHash).orElse(null);
+        if (tx == null) {
+            return RevertReasonExtractor.MISSING_REASON;
+        }
+        try {
+            return RevertReasonExtractor.extractRevertReason(receipt, tx.getInput(), web3j, true, tx.getValue());
+        } catch (IOException e) {
+            log.warn("Could not retrieve revert reason of {}: {}", transactionHash, e.getMessage());
+            return RevertReasonExtractor.MISSING_REASON;
+        }
+    }
+
+    private void notMined(String transactionHash, String message) {
+        registry.find(transactionHash).ifPresent(tx -> {
+            try {
+                BigInteger next = web3j.ethGetTransactionCount(tx.getFrom(), DefaultBlockParameterName.LATEST)
+                        .send().getTransactionCount();
+                if (next.compareTo(tx.getNonce()) > 0) {
+                    registry.replaced(transactionHash, null);
+                    return;
+                }
+            } catch (IOException e) {
+                log.warn("Could not check nonce of {}: {}", transactionHash, e.getMessage());
+            }
+            registry.failed(transactionHash, message);
+        });
+    }
+}
@@ -0,0 +1,104 @@
+package com.wetech.demo.web3j.tx;
+
+import com.wetech.demo.web3j.jfr.SignEvent;
+import com.wetech.demo.web3j.rpc.RpcFunctions;
+import com.wetech.demo.web3j.rpc.Web3jExecutor;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.crypto.transaction.type.Transaction1559;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.tx.ChainIdLong;
+import org.web3j.tx.RawTransactionManager;
+import org.web3j.tx.exceptions.TxHashMismatchException;
+import org.web3j.tx.response.TransactionReceiptProcessor;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+/**
+ * 在签名和广播时把交易登记到 {@link TransactionRegistry} 的 RawTransactionManager
+ *
+ * 签名和 nonce 获取与父类一致；chainId 为 {@link ChainIdLong#NONE} 时签名不带链 ID，
+ * 与合约包装类默认创建的管理器相同。
+ */
+public class TrackingTransactionManager extends RawTransactionManager {
+
+    private final Web3j web3j;
+    private final TransactionRegistry registry;
+
+    public TrackingTransactionManager(Web3j web3j, Credentials credentials, long chainId, TransactionRegistry registry,
+                                      TransactionReceiptProcessor receiptProcessor) {
+        super(web3j, credentials, chainId, receiptProcessor);
+        this.web3j = web3j;
+        this.registry = registry;
+    }
+
+    @Override
+    public EthSendTransaction signAndSend(RawTransaction rawTransaction) throws IOException {
+        return broadcast(signAndRegister(rawTransaction));
+    }
+
+    /**
+     * 签名并登记为 SIGNED，签名（含 RLP 编码）记为 JFR {@link SignEvent}
+     *
+     * @return 已签名交易的十六进制编码
+     */
+    protected String signAndRegister(RawTransaction rawTransaction) {
+        SignEvent event = new SignEvent();
+        event.begin();
+        String signed = sign(rawTransaction);
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = SignEvent.TRANSACTION;
+            event.function = RpcFunctions.ofCall(rawTransaction.getTo(), rawTransaction.getData());
+            event.signer = getFromAddress();
+            event.bytes = (signed.length() - 2) / 2;
+            event.commit();
+        }
+        String to = rawTransaction.getTo() == null || rawTransaction.getTo().isEmpty() ? null : rawTransaction.getTo();
+        registry.signed(Hash.sha3(signed), getFromAddress(), to, rawTransaction.getNonce(),
+                rawTransaction.getData(), rawTransaction.getValue(), rawTransaction.getGasLimit(),
+                gasPrice(rawTransaction), Web3jExecutor.submittedAt());
+        return signed;
+    }
+
+    private static BigInteger gasPrice(RawTransaction rawTransaction) {
+        return rawTransaction.getTransaction() instanceof Transaction1559 eip1559
+                ? eip1559.getMaxFeePerGas()
+                : rawTransaction.getGasPrice();
+    }
+
+    /**
+     * 广播已登记的交易，按结果更新为 BROADCAST 或 FAILED
+     */
+    protected EthSendTransaction broadcast(String signed) throws IOException {
+        String hash = Hash.sha3(signed);
+        registry.broadcasting(hash);
+        EthSendTransaction response;
+        try {
+            response = web3j.ethSendRawTransaction(signed).send();
+        } catch (IOException | RuntimeException e) {
+            registry.failed(hash, e.getMessage());
+            throw e;
+        }
+        if (response.hasError()) {
+            registry.failed(hash, response.getError().getMessage());
+            return response;
+        }
+        if (!txHashVerifier.verify(hash, response.getTransactionHash())) {
+            registry.failed(hash, "Node returned a different transaction hash: " + response.getTransactionHash());
+            throw new TxHashMismatchException(hash, response.getTransactionHash());
+        }
+        registry.broadcast(hash);
+        return response;
+    }
+
+    /**
+     * 登记一笔已签名但没有广播的交易为失败
+     */
+    protected void abandon(String signed, String reason) {
+        registry.failed(Hash.sha3(signed), reason);
+    }
+}
@@ -0,0 +1,104 @@
+package com.wetech.demo.web3j.tx;
+
+import com.wetech.demo.web3j.rpc.RpcFunctions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * 交易生命周期指标，由 {@link TransactionRegistry} 在每次状态变化时调用
+ *
+ * - web3j.tx.latency：从收到请求到各阶段的耗时，stage 为 signed / broadcast / accepted / mined / confirmed，
+ *   accepted 是节点接受交易的时刻（交易第一次被节点看到），confirmed 是达到 web3j.tx.confirmations 个确认的时刻
+ * - web3j.tx.gas.used / web3j.tx.gas.utilization：实际消耗的 gas，以及占交易 gas 上限的比例
+ * - web3j.tx.gas.price：成交价（回执中的 effectiveGasPrice，节点不返回时为交易出价）
+ * - web3j.tx.fee：累计手续费（wei）
+ *
+ * 所有指标按 chain / function 分组，function 与 JSON-RPC 指标一样由 calldata 识别；每个写接口只调用一个合约函数，
+ * 按 function 汇总即是每个接口的耗时和费用。
+ */
+public class TransactionMetrics {
+
+    private final Meter.MeterProvider<Timer> latency;
+    private final Meter.MeterProvider<DistributionSummary> gasUsed;
+    private final Meter.MeterProvider<DistributionSummary> gasUtilization;
+    private final Meter.MeterProvider<DistributionSummary> gasPrice;
+    private final Meter.MeterProvider<Counter> fee;
+
+    public TransactionMetrics(MeterRegistry registry, String chain) {
+        Tags chainTags = Tags.of("chain", chain);
+        this.latency = Timer.builder("web3j.tx.latency")
+                .description("Time from receiving a write request to each transaction stage")
+                .tags(chainTags)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofMinutes(30))
+                .withRegistry(registry);
+        this.gasUsed = DistributionSummary.builder("web3j.tx.gas.used")
+                .description("Gas used by mined transactions")
+                .tags(chainTags)
+                .publishPercentileHistogram()
+                .withRegistry(registry);
+        this.gasUtilization = DistributionSummary.builder("web3j.tx.gas.utilization")
+                .description("Gas used as a fraction of the transaction gas limit")
+                .tags(chainTags)
+                .serviceLevelObjectives(0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 1.0)
+                .withRegistry(registry);
+        this.gasPrice = DistributionSummary.builder("web3j.tx.gas.price")
+                .description("Effective gas price of mined transactions")
+                .tags(chainTags)
+                .baseUnit("wei")
+                .publishPercentileHistogram()
+                .withRegistry(registry);
+        this.fee = Counter.builder("web3j.tx.fee")
+                .description("Cumulative fees paid by mined transactions")
+                .tags(chainTags)
+                .baseUnit("wei")
+                .withRegistry(registry);
+    }
+
+    /**
+     * 记录交易到达某个阶段的耗时（从收到请求算起）
+     */
+    void stage(TrackedTransaction tx, String stage, Instant at) {
+        if (at == null) {
+            return;
+        }
+        latency.withTags(Tags.of("function", function(tx), "stage", stage))
+                .record(Duration.between(tx.getRequestedAt(), at));
+    }
+
+    /**
+     * 记录已打包交易的 gas 和手续费，回滚的交易同样计费
+     */
+    void mined(TrackedTransaction tx) {
+        Tags tags = Tags.of("function", function(tx));
+        BigInteger used = tx.getGasUsed();
+        if (used == null) {
+            return;
+        }
+        gasUsed.withTags(tags).record(used.doubleValue());
+        BigInteger limit = tx.getGasLimit();
+        if (limit != null && limit.signum() > 0) {
+            gasUtilization.withTags(tags).record(
+                    new BigDecimal(used).divide(new BigDecimal(limit), MathContext.DECIMAL64).doubleValue());
+        }
+        BigInteger price = tx.getEffectiveGasPrice();
+        if (price != null) {
+            gasPrice.withTags(tags).record(price.doubleValue());
+            fee.withTags(tags).increment(tx.fee().doubleValue());
+        }
+    }
+
+    private static String function(TrackedTransaction tx) {
+        return RpcFunctions.ofCall(tx.getTo(), tx.getInput());
+    }
+}
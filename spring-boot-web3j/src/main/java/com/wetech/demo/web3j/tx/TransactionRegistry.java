@@ -0,0 +1,232 @@
+package com.wetech.demo.web3j.tx;
+
+import com.wetech.demo.web3j.rpc.HeadTracker;
+import lombok.extern.slf4j.Slf4j;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 本服务发出的交易的内存注册表
+ *
+ * 由 {@link TrackingTransactionManager} 和 {@link TrackingReceiptProcessor} 写入各个阶段。
+ * 每当链头前进：确认数达到 confirmationDepth 的交易标记为 CONFIRMED，
+ * 超过 retention 没有状态变化的交易（已进入终态，或一直没有结果）从表中移除。
+ * 条目数超过 maxEntries 时不等链头，立即淘汰到上限的 90%：先淘汰已进入终态的，再按最后更新时间从旧到新淘汰。
+ * 节点接受同一账户同一 nonce 的新交易后，之前已被接受、尚未打包的交易标记为 REPLACED；
+ * 签名后被节点拒绝的替换交易不影响原交易。
+ * 各阶段的耗时和打包后的 gas、手续费同时记录到 {@link TransactionMetrics}。
+ */
+@Slf4j
+public class TransactionRegistry {
+
+    private final Map<String, TrackedTransaction> transactions = new ConcurrentHashMap<>();
+
+    /**
+     * 按 (from, nonce) 索引节点已接受、尚未打包或结束的交易
+     */
+    private final Map<String, TrackedTransaction> acceptedByNonce = new ConcurrentHashMap<>();
+    private final HeadTracker headTracker;
+    private final long confirmationDepth;
+    private final Duration retention;
+    private final int maxEntries;
+    private final TransactionMetrics metrics;
+
+    public TransactionRegistry(HeadTracker headTracker, long confirmationDepth, Duration retention, int maxEntries,
+                               TransactionMetrics metrics) {
+        this.headTracker = headTracker;
+        this.confirmationDepth = confirmationDepth;
+        this.retention = retention;
+        this.maxEntries = maxEntries;
+        this.metrics = metrics;
+        headTracker.addListener(this::onHead);
+    }
+
+    public Optional<TrackedTransaction> find(String hash) {
+        return Optional.ofNullable(transactions.get(hash.toLowerCase()));
+    }
+
+    /**
+     * 按哈希查找发往某个合约的交易；部署交易没有接收方，不属于任何合约的接口
+     */
+    public Optional<TrackedTransaction> find(String hash, String contractAddress) {
+        return find(hash).filter(tx -> tx.isSentTo(contractAddress));
+    }
+
+    /**
+     * @return 发往该合约的交易（不含部署交易），最新的在前
+     */
+    public List<TrackedTransaction> findByContract(String contractAddress) {
+        return transactions.values().stream()
+                .filter(tx -> tx.isSentTo(contractAddress))
+                .sorted(Comparator.comparing(TrackedTransaction::getSubmittedAt).reversed())
+                .toList();
+    }
+
+    public long getHead() {
+        return headTracker.getHead();
+    }
+
+    void signed(String hash, String from, String to, BigInteger nonce, String input, BigInteger value,
+                BigInteger gasLimit, BigInteger gasPrice, Instant requestedAt) {
+        TrackedTransaction tx = new TrackedTransaction(hash.toLowerCase(), from, to, nonce, input, value,
+                gasLimit, gasPrice, requestedAt);
+        transactions.put(tx.getHash(), tx);
+        metrics.stage(tx, "signed", tx.getSubmittedAt());
+        if (transactions.size() > maxEntries) {
+            evictOverflow();
+        }
+    }
+
+    /**
+     * 开始广播，状态不变，只记录时刻
+     */
+    void broadcasting(String hash) {
+        TrackedTransaction tx = transactions.get(hash.toLowerCase());
+        if (tx != null) {
+            tx.broadcasting();
+            metrics.stage(tx, "broadcast", tx.getBroadcastAt());
+        }
+    }
+
+    /**
+     * 节点已接受交易
+     */
+    void broadcast(String hash) {
+        TrackedTransaction tx = transactions.get(hash.toLowerCase());
+        if (tx != null && !tx.getState().isTerminal()) {
+            tx.accepted();
+            tx.update(TransactionState.BROADCAST);
+            metrics.stage(tx, "accepted", tx.getAcceptedAt());
+            // 节点接受了同一 nonce 的新交易，之前的交易不可能再被打包
+            TrackedTransaction previous = acceptedByNonce.put(nonceKey(tx), tx);
+            if (previous != null && previous != tx && previous.getState() != TransactionState.MINED) {
+                replaced(previous.getHash(), tx.getHash());
+            }
+        }
+    }
+
+    void pending(String hash) {
+        TrackedTransaction tx = transactions.get(hash.toLowerCase());
+        if (tx != null && tx.getState() == TransactionState.BROADCAST) {
+            tx.update(TransactionState.PENDING);
+        }
+    }
+
+    void mined(String hash, TransactionReceipt receipt, String revertReason) {
+        TrackedTransaction tx = transactions.get(hash.toLowerCase());
+        if (tx == null || tx.getState().isTerminal()) {
+            return;
+        }
+        acceptedByNonce.remove(nonceKey(tx), tx);
+        boolean first = tx.getMinedAt() == null;
+        tx.mined(receipt.getBlockNumber(), receipt.getGasUsed(), effectiveGasPrice(receipt, tx),
+                receipt.getContractAddress());
+        if (first) {
+            metrics.stage(tx, "mined", tx.getMinedAt());
+            metrics.mined(tx);
+        }
+        if (receipt.isStatusOK()) {
+            if (tx.confirmations(headTracker.getHead()) >= confirmationDepth) {
+                confirmed(tx);
+            } else {
+                tx.update(TransactionState.MINED);
+            }
+        } else {
+            tx.failed("Transaction reverted", revertReason);
+            tx.update(TransactionState.FAILED);
+        }
+    }
+
+    void failed(String hash, String error) {
+        TrackedTransaction tx = transactions.get(hash.toLowerCase());
+        if (tx != null && !tx.getState().isTerminal()) {
+            acceptedByNonce.remove(nonceKey(tx), tx);
+            tx.failed(error, null);
+            tx.update(TransactionState.FAILED);
+        }
+    }
+
+    void replaced(String hash, String replacedBy) {
+        TrackedTransaction tx = transactions.get(hash.toLowerCase());
+        if (tx != null && !tx.getState().isTerminal()) {
+            acceptedByNonce.remove(nonceKey(tx), tx);
+            tx.replacedBy(replacedBy);
+            tx.update(TransactionState.REPLACED);
+        }
+    }
+
+    private static String nonceKey(TrackedTransaction tx) {
+        return tx.getFrom().toLowerCase() + ":" + tx.getNonce();
+    }
+
+    private void remove(TrackedTransaction tx) {
+        transactions.remove(tx.getHash());
+        acceptedByNonce.remove(nonceKey(tx), tx);
+    }
+
+    private void confirmed(TrackedTransaction tx) {
+        tx.confirmed();
+        tx.update(TransactionState.CONFIRMED);
+        metrics.stage(tx, "confirmed", tx.getConfirmedAt());
+    }
+
+    /**
+     * 回执中的 effectiveGasPrice（London 之后的节点都会返回），缺失时取交易出价
+     */
+    private static BigInteger effectiveGasPrice(TransactionReceipt receipt, TrackedTransaction tx) {
+        String effective = receipt.getEffectiveGasPrice();
+        if (effective != null && !effective.isEmpty()) {
+            try {
+                return Numeric.decodeQuantity(effective);
+            } catch (RuntimeException e) {
+                log.debug("Ignoring malformed effectiveGasPrice {} of {}", effective, tx.getHash());
+            }
+        }
+        return tx.getGasPrice();
+    }
+
+    private synchronized void evictOverflow() {
+        int target = maxEntries / 10 * 9;
+        if (transactions.size() <= target) {
+            return;
+        }
+        List<TrackedTransaction> candidates = transactions.values().stream()
+                .sorted(Comparator.comparing((TrackedTransaction tx) -> !tx.getState().isTerminal())
+                        .thenComparing(TrackedTransaction::getUpdatedAt))
+                .toList();
+        int evicted = 0;
+        for (TrackedTransaction tx : candidates) {
+            if (transactions.size() <= target) {
+                break;
+            }
+            remove(tx);
+            evicted++;
+        }
+        log.warn("Transaction registry exceeded {} entries, evicted {} oldest", maxEntries, evicted);
+    }
+
+    private void onHead(long head) {
+        Instant cutoff = Instant.now().minus(retention);
+        int evicted = 0;
+        for (TrackedTransaction tx : transactions.values()) {
+            if (tx.getState() == TransactionState.MINED && tx.confirmations(head) >= confirmationDepth) {
+                confirmed(tx);
+            } else if (tx.getState() != TransactionState.MINED && tx.getUpdatedAt().isBefore(cutoff)) {
+                remove(tx);
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} settled transactions, {} tracked", evicted, transactions.size());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.wetech.demo.web3j.tx;
+
+/**
+ * 本服务发出的交易所处的阶段
+ */
+public enum TransactionState {
+    /** 已签名，尚未发送 */
+    SIGNED,
+    /** 节点已接受 eth_sendRawTransaction */
+    BROADCAST,
+    /** 正在等待回执 */
+    PENDING,
+    /** 已打包，确认数未达到阈值 */
+    MINED,
+    /** 确认数已达到阈值 */
+    CONFIRMED,
+    /** 节点拒绝、执行回滚或等待回执超时 */
+    FAILED,
+    /** 同一 nonce 已被另一笔交易使用 */
+    REPLACED;
+
+    public boolean isTerminal() {
+        return this == CONFIRMED || this == FAILED || this == REPLACED;
+    }
+}
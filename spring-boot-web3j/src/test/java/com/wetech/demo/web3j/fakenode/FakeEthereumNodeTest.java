@@ -0,0 +1,95 @@
+package com.wetech.demo.web3j.fakenode;
+
+import com.wetech.demo.web3j.contracts.jymtoken.JYMToken;
+import org.junit.jupiter.api.Test;
+import org.web3j.crypto.Credentials;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.protocol.http.HttpService;
+import org.web3j.tx.RawTransactionManager;
+import org.web3j.tx.gas.StaticGasProvider;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 启动进程内模拟节点，用生成的 JYMToken 包装类部署合约并走完转账、回执和日志查询
+ */
+class FakeEthereumNodeTest {
+
+    private static final long CHAIN_ID = 31337;
+    private static final Credentials OWNER =
+            Credentials.create("0xac0974bec39a17e36ba4a6b4d238ff944bacb478cbed5efcae784d7bf4f2ff80");
+    private static final String RECIPIENT = "0x70997970c51812dc3a010c7d01b50e0d17dc79c8";
+    private static final StaticGasProvider GAS =
+            new StaticGasProvider(BigInteger.valueOf(20_000_000_000L), BigInteger.valueOf(6_721_975));
+
+    @Test
+    void deploysAndTransfersJymToken() throws Exception {
+        FakeNodeSettings settings = FakeNodeSettings.builder().chainId(CHAIN_ID).blockTime(Duration.ZERO).build();
+        try (FakeEthereumNode node = new FakeEthereumNode(settings).start()) {
+            Web3j web3j = Web3j.build(new HttpService(node.getUrl()));
+            try {
+                JYMToken token = JYMToken.deploy(web3j, new RawTransactionManager(web3j, OWNER, CHAIN_ID), GAS).send();
+                BigInteger supply = token.balanceOf(OWNER.getAddress()).send();
+                assertEquals(new BigInteger("1000000000000000000000000"), supply);
+
+                TransactionReceipt receipt = token.transfer(RECIPIENT, BigInteger.valueOf(500)).send();
+
+                assertTrue(receipt.isStatusOK());
+                assertEquals(BigInteger.valueOf(node.getBlockNumber()), receipt.getBlockNumber());
+                List<JYMToken.TransferEventResponse> events = JYMToken.getTransferEvents(receipt);
+                assertEquals(1, events.size());
+                assertEquals(BigInteger.valueOf(500), events.get(0).value);
+                assertEquals(BigInteger.valueOf(500), token.balanceOf(RECIPIENT).send());
+                assertEquals(supply.subtract(BigInteger.valueOf(500)), token.balanceOf(OWNER.getAddress()).send());
+
+                // 部署时的铸币和本次转账各有一条 Transfer 日志
+                EthLog logs = web3j.ethGetLogs(new EthFilter(DefaultBlockParameterName.EARLIEST,
+                        DefaultBlockParameterName.LATEST, token.getContractAddress())).send();
+                assertEquals(2, logs.getLogs().size());
+                Log log = (Log) logs.getLogs().get(1).get();
+                assertEquals(receipt.getTransactionHash(), log.getTransactionHash());
+                JYMToken.TransferEventResponse logged = JYMToken.getTransferEventFromLog(log);
+                assertEquals(OWNER.getAddress(), logged.from.toLowerCase());
+                assertEquals(RECIPIENT, logged.to.toLowerCase());
+                assertEquals(BigInteger.valueOf(500), logged.value);
+            } finally {
+                web3j.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void servesBatchLargerThanRateLimit() throws Exception {
+        FakeNodeSettings settings = FakeNodeSettings.builder().maxRequestsPerSecond(5).build();
+        try (FakeEthereumNode node = new FakeEthereumNode(settings).start()) {
+            Web3j web3j = Web3j.build(new HttpService(node.getUrl()));
+            try {
+                BatchRequest batch = web3j.newBatch();
+                for (int i = 0; i < 8; i++) {
+                    batch.add(web3j.ethBlockNumber());
+                }
+
+                BatchResponse response = batch.send();
+
+                assertEquals(8, response.getResponses().size());
+                assertFalse(response.getResponses().stream().anyMatch(Response::hasError));
+            } finally {
+                web3j.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.wetech.demo.web3j.permit;
+
+import com.wetech.demo.web3j.dto.PermitRequest;
+import com.wetech.demo.web3j.dto.PermitVerdict;
+import com.wetech.demo.web3j.dto.PermitVerdict.Reason;
+import org.junit.jupiter.api.Test;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.Sign;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用固定私钥签名的 permit 验证离线校验的各项检查
+ */
+class PermitVerifierTest {
+
+    private static final byte[] DOMAIN_SEPARATOR = Hash.sha3("JYMToken".getBytes(StandardCharsets.UTF_8));
+    private static final Credentials OWNER =
+            Credentials.create("0xac0974bec39a17e36ba4a6b4d238ff944bacb478cbed5efcae784d7bf4f2ff80");
+    private static final String SPENDER = "0x70997970c51812dc3a010c7d01b50e0d17dc79c8";
+    private static final BigInteger CURVE_ORDER = Sign.CURVE_PARAMS.getN();
+    private static final long NOW = 1_700_000_000L;
+    private static final BigInteger DEADLINE = BigInteger.valueOf(NOW + 3600);
+
+    @Test
+    void acceptsValidSignature() {
+        PermitVerdict verdict = PermitVerifier.verifySignature(DOMAIN_SEPARATOR, 0, permit(0), NOW);
+
+        assertTrue(verdict.valid());
+        assertNull(verdict.reason());
+        assertEquals(OWNER.getAddress(), verdict.signer());
+    }
+
+    @Test
+    void rejectsHighS() {
+        Sign.SignatureData signature = sign(0);
+        BigInteger highS = CURVE_ORDER.subtract(Numeric.toBigInt(signature.getS()));
+        int flippedV = (signature.getV()[0] & 0xff) == 27 ? 28 : 27;
+
+        PermitVerdict verdict = PermitVerifier.verifySignature(DOMAIN_SEPARATOR, 0,
+                permit(0, flippedV, signature.getR(), Numeric.toBytesPadded(highS, 32)), NOW);
+
+        assertEquals(Reason.INVALID_SIGNATURE, verdict.reason());
+    }
+
+    @Test
+    void rejectsBadV() {
+        Sign.SignatureData signature = sign(0);
+
+        PermitVerdict verdict = PermitVerifier.verifySignature(DOMAIN_SEPARATOR, 0,
+                permit(0, 29, signature.getR(), signature.getS()), NOW);
+
+        assertEquals(Reason.INVALID_SIGNATURE, verdict.reason());
+    }
+
+    /**
+     * r 为 0、不小于曲线阶或不是曲线上的点时，Sign.recoverFromSignature 会抛出 IllegalArgumentException
+     */
+    @Test
+    void rejectsInvalidR() {
+        Sign.SignatureData signature = sign(0);
+        List<BigInteger> invalid = List.of(BigInteger.ZERO, BigInteger.valueOf(5), CURVE_ORDER,
+                CURVE_ORDER.add(BigInteger.ONE));
+        for (BigInteger r : invalid) {
+            byte[] rBytes = Numeric.toBytesPadded(r, 33);
+            byte[] word = new byte[32];
+            System.arraycopy(rBytes, rBytes.length - 32, word, 0, 32);
+
+            PermitVerdict verdict = PermitVerifier.verifySignature(DOMAIN_SEPARATOR, 0,
+                    permit(0, signature.getV()[0] & 0xff, word, signature.getS()), NOW);
+
+            assertEquals(Reason.INVALID_SIGNATURE, verdict.reason(), "r=" + r);
+        }
+    }
+
+    @Test
+    void invalidPermitDoesNotFailTheBatch() {
+        Sign.SignatureData signature = sign(0);
+        List<PermitRequest> permits = List.of(
+                permit(0, signature.getV()[0] & 0xff, Numeric.toBytesPadded(BigInteger.valueOf(5), 32),
+                        signature.getS()),
+                permit(0));
+
+        List<PermitVerdict> verdicts = PermitVerifier.verifySignatures(DOMAIN_SEPARATOR, permits, NOW);
+
+        assertEquals(Reason.INVALID_SIGNATURE, verdicts.get(0).reason());
+        assertTrue(verdicts.get(1).valid());
+    }
+
+    @Test
+    void rejectsNonceGap() {
+        List<PermitVerdict> verdicts = checkNonces(List.of(permit(3), permit(5), permit(4), permit(7)), 3);
+
+        assertTrue(verdicts.get(0).valid());
+        assertTrue(verdicts.get(1).valid());
+        assertTrue(verdicts.get(2).valid());
+        assertEquals(Reason.NONCE_GAP, verdicts.get(3).reason());
+    }
+
+    @Test
+    void rejectsDuplicateAndUsedNonce() {
+        List<PermitVerdict> verdicts = checkNonces(List.of(permit(3), permit(3), permit(2)), 3);
+
+        assertTrue(verdicts.get(0).valid());
+        assertEquals(Reason.DUPLICATE_NONCE, verdicts.get(1).reason());
+        assertEquals(Reason.NONCE_USED, verdicts.get(2).reason());
+    }
+
+    private static List<PermitVerdict> checkNonces(List<PermitRequest> permits, long current) {
+        List<PermitVerdict> signed = PermitVerifier.verifySignatures(DOMAIN_SEPARATOR, permits, NOW);
+        return PermitVerifier.checkNonces(signed,
+                Map.of(OWNER.getAddress().toLowerCase(), BigInteger.valueOf(current)));
+    }
+
+    private static Sign.SignatureData sign(long nonce) {
+        byte[] digest = PermitDigest.digest(DOMAIN_SEPARATOR, OWNER.getAddress(), SPENDER, BigInteger.TEN,
+                BigInteger.valueOf(nonce), DEADLINE);
+        return Sign.signMessage(digest, OWNER.getEcKeyPair(), false);
+    }
+
+    private static PermitRequest permit(long nonce) {
+        Sign.SignatureData signature = sign(nonce);
+        return permit(nonce, signature.getV()[0] & 0xff, signature.getR(), signature.getS());
+    }
+
+    private static PermitRequest permit(long nonce, int v, byte[] r, byte[] s) {
+        return new PermitRequest(OWNER.getAddress(), SPENDER, BigInteger.TEN, BigInteger.valueOf(nonce), DEADLINE,
+                v, Numeric.toHexString(r), Numeric.toHexString(s), null);
+    }
+}
@@ -0,0 +1,168 @@
+package com.wetech.demo.web3j.rpc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用本地 UNIX 域套接字上的回显节点验证 IPC 传输：id 重编号、批量请求流水线和超时
+ *
+ * 回显节点按方法名决定行为：
+ * - echo：立即返回 "参数@线上 id"
+ * - deferred：攒够 {@link #DEFERRED_BATCH} 个后按相反顺序返回
+ * - hang：永不返回
+ */
+class UnixDomainSocketServiceTest {
+
+    private static final int DEFERRED_BATCH = 3;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Set<Long> wireIds = ConcurrentHashMap.newKeySet();
+
+    private ServerSocketChannel server;
+    private UnixDomainSocketService service;
+
+    @BeforeEach
+    void startNode(@TempDir Path directory) throws IOException {
+        Path socket = directory.resolve("node.ipc");
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socket));
+        Thread.ofPlatform().daemon().start(this::acceptLoop);
+        service = UnixDomainSocketService.fromAddress(UnixDomainSocketService.SCHEME + socket, 1,
+                Duration.ofMillis(300));
+    }
+
+    @AfterEach
+    void stopNode() throws IOException {
+        service.close();
+        server.close();
+    }
+
+    @Test
+    void restoresCallerIdsAfterRewriting() throws Exception {
+        List<CompletableFuture<EchoResponse>> calls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Request<?, EchoResponse> request = echo("echo", "call-" + i);
+            request.setId(1);
+            calls.add(request.sendAsync());
+        }
+        for (int i = 0; i < calls.size(); i++) {
+            EchoResponse response = calls.get(i).get(5, TimeUnit.SECONDS);
+            assertEquals(1, response.getId());
+            assertTrue(response.getResult().startsWith("call-" + i + "@"), response.getResult());
+        }
+        assertEquals(8, wireIds.size());
+    }
+
+    @Test
+    void pipelinesBatchAndKeepsOrder() throws Exception {
+        // 节点要收齐整批才会回复，且回复顺序与请求相反
+        BatchResponse batch = service.sendBatch(new BatchRequest(service)
+                .add(echo("deferred", "a"))
+                .add(echo("deferred", "b"))
+                .add(echo("deferred", "c")));
+
+        List<String> results = batch.getResponses().stream()
+                .map(response -> ((EchoResponse) response).getResult())
+                .map(result -> result.substring(0, result.indexOf('@')))
+                .toList();
+        assertEquals(List.of("a", "b", "c"), results);
+    }
+
+    @Test
+    void timesOutAndKeepsConnectionUsable() throws Exception {
+        IOException error = assertThrows(IOException.class, () -> echo("hang", "x").send());
+        assertTrue(error.getMessage().contains("timed out"), error.getMessage());
+
+        EchoResponse response = echo("echo", "after").send();
+        assertFalse(response.hasError());
+        assertTrue(response.getResult().startsWith("after@"));
+    }
+
+    private Request<?, EchoResponse> echo(String method, String value) {
+        return new Request<>(method, List.of(value), service, EchoResponse.class);
+    }
+
+    private void acceptLoop() {
+        while (server.isOpen()) {
+            try {
+                SocketChannel channel = server.accept();
+                Thread.ofPlatform().daemon().start(() -> serve(channel));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(SocketChannel channel) {
+        List<ObjectNode> deferred = new ArrayList<>();
+        try (MappingIterator<JsonNode> requests =
+                     objectMapper.readerFor(JsonNode.class).readValues(Channels.newInputStream(channel))) {
+            while (requests.hasNextValue()) {
+                ObjectNode request = (ObjectNode) requests.nextValue();
+                wireIds.add(request.get("id").asLong());
+                switch (request.get("method").asText()) {
+                    case "echo" -> reply(channel, request);
+                    case "deferred" -> {
+                        deferred.add(request);
+                        if (deferred.size() == DEFERRED_BATCH) {
+                            for (int i = deferred.size() - 1; i >= 0; i--) {
+                                reply(channel, deferred.get(i));
+                            }
+                            deferred.clear();
+                        }
+                    }
+                    default -> {
+                        // hang：不回复
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // 客户端断开
+        }
+    }
+
+    private void reply(SocketChannel channel, ObjectNode request) throws IOException {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("jsonrpc", "2.0");
+        response.set("id", request.get("id"));
+        response.put("result", request.get("params").get(0).asText() + "@" + request.get("id").asLong());
+        ByteBuffer buffer = ByteBuffer.wrap(objectMapper.writeValueAsBytes(response));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public static class EchoResponse extends Response<String> {
+    }
+}